@@ -0,0 +1,44 @@
+package org.example.warehouserest_api.benchmark;
+
+import org.example.warehouserest_api.WarehouseRestApiApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Starts the application for the benchmarks against an embedded H2 database in PostgreSQL mode.
+// SQL and application logging is turned down, so the numbers measure the code paths and not console output.
+// Settings are passed as command-line arguments, so they take precedence over application.properties.
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    // Starts a fresh context with its own in-memory database; extra properties use the key=value form
+    static ConfigurableApplicationContext start(String database, WebApplicationType webApplicationType, String... properties) {
+        Stream<String> defaults = Stream.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "server.port=0",
+                "logging.level.root=WARN",
+                "logging.level.org.example=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql=WARN");
+        String[] args = Stream.concat(defaults, Arrays.stream(properties))
+                .map(setting -> "--" + setting)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(WarehouseRestApiApplication.class)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args);
+    }
+}
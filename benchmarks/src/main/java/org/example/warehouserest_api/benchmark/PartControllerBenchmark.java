@@ -0,0 +1,85 @@
+package org.example.warehouserest_api.benchmark;
+
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.service.PartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Full PartController request path (dispatch, argument binding, validation, service, JSON) through MockMvc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartControllerBenchmark {
+
+    private static final int PARTS = 1000;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private String[] partPaths;
+
+    private int next;
+
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("controller", WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        PartService partService = context.getBean(PartService.class);
+        partPaths = new String[PARTS];
+        for (int i = 0; i < PARTS; i++) {
+            PartId id = new PartId("MAT" + (100 + i / 10), "SER" + (1000 + i), "SUP" + (100 + i % 7));
+            partService.addPart(id.getMaterialNumber(), id.getSerialNumber(), id.getSupplierNumber());
+            partPaths[i] = "/api/v1/parts/" + id.getMaterialNumber() + "/" + id.getSerialNumber() + "/" + id.getSupplierNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getPart() throws Exception {
+        return mockMvc.perform(get(nextPath())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult addQuantity() throws Exception {
+        return mockMvc.perform(patch(nextPath() + "/add").param("amount", "1")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult addPart() throws Exception {
+        String body = "{\"materialNumber\":\"NEW\",\"serialNumber\":\"SER" + created++ + "\",\"supplierNumber\":\"SUP\"}";
+        return mockMvc.perform(post("/api/v1/parts").contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getPage() throws Exception {
+        return mockMvc.perform(get("/api/v1/parts/page").param("limit", "100")).andReturn();
+    }
+
+    private String nextPath() {
+        int i = next;
+        next = i + 1 == PARTS ? 0 : i + 1;
+        return partPaths[i];
+    }
+}
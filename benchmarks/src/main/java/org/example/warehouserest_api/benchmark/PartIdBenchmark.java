@@ -0,0 +1,88 @@
+package org.example.warehouserest_api.benchmark;
+
+import org.example.warehouserest_api.model.PartId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// PartId equals/hashCode and map lookups.
+// Requests build a new PartId from the path variables every time, so the "fresh" cases hash an instance
+// that has not cached its hash code yet.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartIdBenchmark {
+
+    private static final int PARTS = 10_000;
+
+    private String[] materialNumbers;
+    private String[] serialNumbers;
+    private String[] supplierNumbers;
+
+    private Map<PartId, Long> keys;
+
+    private PartId first;
+    private PartId firstCopy;
+    private PartId other;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        materialNumbers = new String[PARTS];
+        serialNumbers = new String[PARTS];
+        supplierNumbers = new String[PARTS];
+        keys = new HashMap<>();
+        for (int i = 0; i < PARTS; i++) {
+            materialNumbers[i] = "MAT" + (100_000 + i / 100);
+            serialNumbers[i] = "SER" + (100_000 + i);
+            supplierNumbers[i] = "SUP" + (100 + i % 50);
+            keys.put(new PartId(materialNumbers[i], serialNumbers[i], supplierNumbers[i]), (long) i);
+        }
+        first = new PartId(materialNumbers[0], serialNumbers[0], supplierNumbers[0]);
+        firstCopy = new PartId(new String(materialNumbers[0]), new String(serialNumbers[0]), new String(supplierNumbers[0]));
+        other = new PartId(materialNumbers[0], serialNumbers[0], supplierNumbers[1]);
+        first.hashCode();
+        firstCopy.hashCode();
+        other.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeFresh() {
+        int i = nextIndex();
+        return new PartId(materialNumbers[i], serialNumbers[i], supplierNumbers[i]).hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeCached() {
+        return first.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        return first.equals(firstCopy);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return first.equals(other);
+    }
+
+    // Lookup with a new PartId, as done by the key dictionary and the part cache for every request
+    @Benchmark
+    public Long mapLookup() {
+        int i = nextIndex();
+        return keys.get(new PartId(materialNumbers[i], serialNumbers[i], supplierNumbers[i]));
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == PARTS ? 0 : i + 1;
+        return i;
+    }
+}
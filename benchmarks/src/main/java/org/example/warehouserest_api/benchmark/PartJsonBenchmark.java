@@ -0,0 +1,65 @@
+package org.example.warehouserest_api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the API payloads, with the same defaults Spring Boot applies to its ObjectMapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartJsonBenchmark {
+
+    @Param({"1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private Part part;
+
+    private List<Part> parts;
+
+    private byte[] partIdJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        part = new Part(new PartId("MAT100", "SER100", "SUP100"), 10);
+        part.setKey(1L);
+        part.setVersion(3L);
+        parts = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Part listed = new Part(new PartId("MAT" + (100 + i / 10), "SER" + (1000 + i), "SUP" + (100 + i % 7)), i);
+            listed.setKey((long) i);
+            listed.setVersion(0L);
+            parts.add(listed);
+        }
+        partIdJson = objectMapper.writeValueAsString(part.getId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializePart() throws Exception {
+        return objectMapper.writeValueAsBytes(part);
+    }
+
+    @Benchmark
+    public byte[] serializePartList() throws Exception {
+        return objectMapper.writeValueAsBytes(parts);
+    }
+
+    // Request body of POST /api/v1/parts
+    @Benchmark
+    public PartId deserializePartId() throws Exception {
+        return objectMapper.readValue(partIdJson, PartId.class);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.warehouserest_api.benchmark;
+
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+import org.example.warehouserest_api.service.PartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PartService lookup and adjust paths against an embedded H2 database in PostgreSQL mode.
+// Each benchmark walks over a fixed set of parts; quantities start high enough that decreases never run out.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartServiceBenchmark {
+
+    private static final int PARTS = 1000;
+
+    private static final int INITIAL_QUANTITY = 1_000_000_000;
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+
+    private PartService partService;
+
+    private PartId[] ids;
+
+    private List<QuantityAdjustment> batch;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("service", WebApplicationType.NONE, "warehouse.cache.enabled=" + cacheEnabled);
+        partService = context.getBean(PartService.class);
+        ids = new PartId[PARTS];
+        for (int i = 0; i < PARTS; i++) {
+            ids[i] = new PartId("MAT" + (100 + i / 10), "SER" + (1000 + i), "SUP" + (100 + i % 7));
+            partService.addPart(ids[i].getMaterialNumber(), ids[i].getSerialNumber(), ids[i].getSupplierNumber());
+            partService.increaseQuantity(ids[i].getMaterialNumber(), ids[i].getSerialNumber(), ids[i].getSupplierNumber(), INITIAL_QUANTITY);
+        }
+        // Net zero per batch, so the batch can run for the whole trial
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new QuantityAdjustment(ids[i / 2], i % 2 == 0 ? 1 : -1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Part getPartById() {
+        PartId id = nextId();
+        return partService.getPartById(id.getMaterialNumber(), id.getSerialNumber(), id.getSupplierNumber());
+    }
+
+    @Benchmark
+    public Part increaseQuantity() {
+        PartId id = nextId();
+        return partService.increaseQuantity(id.getMaterialNumber(), id.getSerialNumber(), id.getSupplierNumber(), 1);
+    }
+
+    @Benchmark
+    public Part decreaseQuantity() {
+        PartId id = nextId();
+        return partService.decreaseQuantity(id.getMaterialNumber(), id.getSerialNumber(), id.getSupplierNumber(), 1);
+    }
+
+    @Benchmark
+    public BatchAdjustmentResponse adjustQuantitiesBatch() {
+        return partService.adjustQuantities(BatchAdjustmentRequest.Mode.ALL_OR_NOTHING, batch);
+    }
+
+    @Benchmark
+    public KeysetPage<Part> firstPage() {
+        return partService.getPartsPage(null, 100);
+    }
+
+    private PartId nextId() {
+        int i = next;
+        next = i + 1 == PARTS ? 0 : i + 1;
+        return ids[i];
+    }
+}
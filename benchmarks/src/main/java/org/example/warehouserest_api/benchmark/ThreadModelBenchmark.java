@@ -0,0 +1,81 @@
+package org.example.warehouserest_api.benchmark;
+
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.service.PartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput and latency distribution of real HTTP requests against the embedded Tomcat with many concurrent
+// clients, once on the platform-thread pool and once in the virtual-thread profile (application-virtual.properties).
+// The virtual mode needs a Java 21 runtime (mvn -Pjava21 install, then mvn -Pjava21 -f benchmarks/pom.xml package);
+// on older runtimes Spring Boot ignores spring.threads.virtual.enabled and both modes use platform threads.
+// Compare the p0.99/p0.999 sample-time percentiles and ops/s of the two modes.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int PARTS = 1000;
+
+    // platform: Tomcat's thread pool (200 threads); virtual: one virtual thread per request behind the database guard
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private URI[] partUris;
+
+    private URI[] addUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String profile = threads.equals("virtual") ? "virtual" : "default";
+        context = BenchmarkApplication.start("threads-" + threads, WebApplicationType.SERVLET,
+                "spring.profiles.active=" + profile,
+                "warehouse.database-guard.max-wait=5s");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        PartService partService = context.getBean(PartService.class);
+        partUris = new URI[PARTS];
+        addUris = new URI[PARTS];
+        for (int i = 0; i < PARTS; i++) {
+            PartId id = new PartId("MAT" + (100 + i / 10), "SER" + (1000 + i), "SUP" + (100 + i % 7));
+            partService.addPart(id.getMaterialNumber(), id.getSerialNumber(), id.getSupplierNumber());
+            String path = "http://localhost:" + port + "/api/v1/parts/" + id.getMaterialNumber() + "/"
+                    + id.getSerialNumber() + "/" + id.getSupplierNumber();
+            partUris[i] = URI.create(path);
+            addUris[i] = URI.create(path + "/add?amount=1");
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Mix of nine reads to one quantity change, as seen from the handhelds
+    @Benchmark
+    public int request() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(PARTS);
+        HttpRequest request = ThreadLocalRandom.current().nextInt(10) == 0
+                ? HttpRequest.newBuilder(addUris[i]).method("PATCH", HttpRequest.BodyPublishers.noBody()).build()
+                : HttpRequest.newBuilder(partUris[i]).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
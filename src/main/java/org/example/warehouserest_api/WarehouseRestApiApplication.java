@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
@@ -13,7 +14,9 @@ import org.springframework.context.event.EventListener;
 import java.time.LocalDateTime;
 
 // Main Spring Boot application class for the Warehouse REST API.
+// Configuration properties classes (warehouse.*) are picked up by the properties scan.
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class WarehouseRestApiApplication {
 
     // Logger for recording application lifecycle events
@@ -0,0 +1,60 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Settings of the Server-Sent Events stream of part changes (prefix warehouse.changes).
+@ConfigurationProperties(prefix = "warehouse.changes")
+public class ChangeStreamProperties {
+
+    // What happens when a subscriber's buffer is full
+    public enum Overflow {
+        // Skip events until the subscriber caught up, then send a gap event
+        DROP,
+        // Close the subscriber's stream; the client reconnects with Last-Event-ID
+        DISCONNECT
+    }
+
+    // Number of recent events kept for clients that resume with Last-Event-ID
+    private int replaySize = 10_000;
+
+    // Number of events buffered per subscriber that have not been written to its connection yet
+    private int subscriberBuffer = 1000;
+
+    private Overflow overflow = Overflow.DROP;
+
+    // Maximum number of open streams
+    private int maxSubscribers = 1000;
+
+    // Getters and setters
+    public int getReplaySize() {
+        return replaySize;
+    }
+
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    public int getSubscriberBuffer() {
+        return subscriberBuffer;
+    }
+
+    public void setSubscriberBuffer(int subscriberBuffer) {
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+}
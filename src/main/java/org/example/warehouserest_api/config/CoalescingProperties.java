@@ -0,0 +1,66 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the optional write-coalescing mode for quantity adjustments (prefix warehouse.coalescing).
+@ConfigurationProperties(prefix = "warehouse.coalescing")
+public class CoalescingProperties {
+
+    // Whether increase/decrease requests are merged per part before being written
+    private boolean enabled = false;
+
+    // How often pending deltas are written to the database
+    private Duration flushInterval = Duration.ofMillis(5);
+
+    // Longest time a request waits for the periodic flush before it flushes its part itself
+    private Duration maxDelay = Duration.ofMillis(50);
+
+    // Maximum number of parts with an in-memory accumulator; other parts are adjusted directly
+    private int maxTrackedParts = 10_000;
+
+    // Accumulators of parts without requests for this long are dropped, making room for other parts
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMaxTrackedParts() {
+        return maxTrackedParts;
+    }
+
+    public void setMaxTrackedParts(int maxTrackedParts) {
+        this.maxTrackedParts = maxTrackedParts;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
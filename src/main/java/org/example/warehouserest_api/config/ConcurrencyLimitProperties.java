@@ -0,0 +1,125 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the adaptive concurrency limit of the parts API (prefix warehouse.concurrency-limit).
+// Reads (GET, HEAD) and mutations have separate budgets, so a burst of one cannot starve the other.
+@ConfigurationProperties(prefix = "warehouse.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    // Whether parts requests are limited at all
+    private boolean enabled = false;
+
+    // Budget of GET and HEAD requests
+    private Budget reads = new Budget(40, 4, 200);
+
+    // Budget of all other requests
+    private Budget writes = new Budget(20, 2, 100);
+
+    // Latency of a window may exceed the baseline by this factor before the limit shrinks
+    private double tolerance = 1.5;
+
+    // Share of a higher computed limit taken over per window; lower values let the limit grow more slowly.
+    // A lower limit is taken over at once.
+    private double smoothing = 0.2;
+
+    // Requests completed within this period are averaged into one latency sample
+    private Duration window = Duration.ofMillis(500);
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Budget getReads() {
+        return reads;
+    }
+
+    public void setReads(Budget reads) {
+        this.reads = reads;
+    }
+
+    public Budget getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Budget writes) {
+        this.writes = writes;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    // Bounds of the concurrent requests of one budget
+    public static class Budget {
+
+        // Limit until the first latency measurements are in
+        private int initialLimit;
+
+        // The limit never drops below this, so some requests always get through
+        private int minLimit;
+
+        // The limit never grows above this; keep it below the web server's thread count
+        private int maxLimit;
+
+        public Budget() {
+        }
+
+        public Budget(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the limit on concurrently executing API requests (prefix warehouse.database-guard).
+// Meant for the virtual-thread mode, where the web server no longer limits concurrency with its thread pool.
+@ConfigurationProperties(prefix = "warehouse.database-guard")
+public class DatabaseGuardProperties {
+
+    // Whether API requests are limited at all
+    private boolean enabled = false;
+
+    // API requests executing at the same time; set to the connection pool size so requests never queue in the pool
+    private int maxConcurrentRequests = 10;
+
+    // How long a request waits for its turn before it is rejected with 503
+    private Duration maxWait = Duration.ofMillis(500);
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the Idempotency-Key store for quantity changes (prefix warehouse.idempotency).
+@ConfigurationProperties(prefix = "warehouse.idempotency")
+public class IdempotencyProperties {
+
+    // How long a stored response is replayed for its key
+    private Duration timeToLive = Duration.ofHours(24);
+
+    // Largest number of keys kept in the table; the oldest are removed first
+    private long maximumEntries = 1_000_000;
+
+    // Number of recently stored responses kept in memory
+    private long cacheSize = 10_000;
+
+    // How often expired and surplus keys are removed; zero disables the cleanup
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    // Getters and setters
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getMaximumEntries() {
+        return maximumEntries;
+    }
+
+    public void setMaximumEntries(long maximumEntries) {
+        this.maximumEntries = maximumEntries;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+}
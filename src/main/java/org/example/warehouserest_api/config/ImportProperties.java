@@ -0,0 +1,20 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Settings of the bulk part import (prefix warehouse.import).
+@ConfigurationProperties(prefix = "warehouse.import")
+public class ImportProperties {
+
+    // Number of rows written per upsert statement and transaction
+    private int chunkSize = 1000;
+
+    // Getters and setters
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Logging settings of the application (prefix warehouse.logging).
+@ConfigurationProperties(prefix = "warehouse.logging")
+public class LoggingProperties {
+
+    // Share of requests (0 to 1) whose SQL statements and parameters are logged by the prod logging profile
+    private double sqlSampleRate = 0;
+
+    // Getters and setters
+    public double getSqlSampleRate() {
+        return sqlSampleRate;
+    }
+
+    public void setSqlSampleRate(double sqlSampleRate) {
+        this.sqlSampleRate = sqlSampleRate;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the in-process part cache used by getPartById (prefix warehouse.cache).
+@ConfigurationProperties(prefix = "warehouse.cache")
+public class PartCacheProperties {
+
+    // Whether part lookups are cached
+    private boolean enabled = true;
+
+    // Maximum number of cached parts; least recently used entries are evicted first
+    private long maximumSize = 10_000;
+
+    // Time after which a cached part is reloaded from the database
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    // Maximum number of business identifier to surrogate key translations kept in memory
+    private long keyDictionarySize = 1_000_000;
+
+    // When true, a cached part is only served after a cheap version query confirms it is current
+    private boolean versionChecked = false;
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getKeyDictionarySize() {
+        return keyDictionarySize;
+    }
+
+    public void setKeyDictionarySize(long keyDictionarySize) {
+        this.keyDictionarySize = keyDictionarySize;
+    }
+
+    public boolean isVersionChecked() {
+        return versionChecked;
+    }
+
+    public void setVersionChecked(boolean versionChecked) {
+        this.versionChecked = versionChecked;
+    }
+}
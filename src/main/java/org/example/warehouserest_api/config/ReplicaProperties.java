@@ -0,0 +1,147 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the read replicas (prefix warehouse.replicas). When enabled, read-only transactions use the
+// replicas and everything else the primary from spring.datasource.
+@ConfigurationProperties(prefix = "warehouse.replicas")
+public class ReplicaProperties {
+
+    // Whether read-only transactions are routed to the replicas at all
+    private boolean enabled = false;
+
+    // The replica databases; reads are spread over the healthy ones in turn
+    private List<Replica> sources = new ArrayList<>();
+
+    // Replicas further behind the primary than this are left out until they catch up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // How often the health and lag of the replicas is checked
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    // After a client's write its reads go to the primary for this long, so it reads its own writes
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // Query returning a replica's lag in seconds; by default derived from the database product
+    // (PostgreSQL replay timestamp, 0 for other databases such as H2 stand-ins)
+    private String lagQuery;
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Replica> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<Replica> sources) {
+        this.sources = sources;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    public String getLagQuery() {
+        return lagQuery;
+    }
+
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    // Connection settings of one replica; username and password default to those of the primary
+    public static class Replica {
+
+        // Pool name, used as tag of the pool and routing metrics; defaults to replica-<n>
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        // Kept short, so reads fall back to the primary quickly when a replica is unreachable
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.warehouserest_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.warehouserest_api.datasource.ReadYourWrites;
+import org.example.warehouserest_api.datasource.ReplicaRoutingDataSource;
+import org.example.warehouserest_api.datasource.WriteTrackingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read replica routing (warehouse.replicas.enabled). The application's DataSource defers fetching a connection
+// until the first statement, when it knows whether the transaction is read-only (@Transactional(readOnly = true)):
+// read-only transactions get their connection from the replicas, all others from the primary.
+@Configuration
+@ConditionalOnProperty(prefix = "warehouse.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // The spring.datasource pool, now only one of the routes
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceProperties primaryProperties,
+                                                      ReplicaProperties properties, MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (ReplicaProperties.Replica source : properties.getSources()) {
+            String name = source.getName() != null ? source.getName() : "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(source.getUrl())
+                    .username(source.getUsername() != null ? source.getUsername() : primaryProperties.determineUsername())
+                    .password(source.getPassword() != null ? source.getPassword() : primaryProperties.determinePassword())
+                    .build();
+            replica.setPoolName(name);
+            replica.setMaximumPoolSize(source.getMaximumPoolSize());
+            replica.setConnectionTimeout(source.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            // Pool metrics (hikaricp_connections_*) tagged with the replica's name, like those of the primary
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource,
+                                 ReplicaProperties properties) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primaryDataSource, properties.getReadYourWritesWindow().toMillis()));
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    // Streamed responses read on the async request executor; they keep the read-your-writes pin of their request
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return ReadYourWrites::propagate;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings of the server-side retry of PartService writes that lost an optimistic locking race
+// (prefix warehouse.retry). Settings under operations.<name> override the defaults for one operation.
+@ConfigurationProperties(prefix = "warehouse.retry")
+public class RetryProperties {
+
+    // Whether conflicting writes are retried at all
+    private boolean enabled = true;
+
+    // Policy of every operation without its own settings
+    private Policy defaults = new Policy(3, Duration.ofMillis(5), Duration.ofMillis(100), 2.0);
+
+    // Per-operation settings by PartService method name; unset values fall back to the defaults
+    private Map<String, Policy> operations = new HashMap<>();
+
+    // Returns the policy of an operation, completed with the defaults
+    public Policy policyFor(String operation) {
+        Policy own = operations.get(operation);
+        if (own == null) {
+            return defaults;
+        }
+        return new Policy(
+                own.maxAttempts != null ? own.maxAttempts : defaults.maxAttempts,
+                own.initialBackoff != null ? own.initialBackoff : defaults.initialBackoff,
+                own.maxBackoff != null ? own.maxBackoff : defaults.maxBackoff,
+                own.multiplier != null ? own.multiplier : defaults.multiplier);
+    }
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Policy> operations) {
+        this.operations = operations;
+    }
+
+    // Attempts and exponential backoff of one operation; a retry waits a random time between zero
+    // and initialBackoff * multiplier^(retry - 1), capped at maxBackoff
+    public static class Policy {
+
+        // Total number of attempts, including the first one
+        private Integer maxAttempts;
+
+        private Duration initialBackoff;
+
+        private Duration maxBackoff;
+
+        private Double multiplier;
+
+        public Policy() {
+        }
+
+        public Policy(Integer maxAttempts, Duration initialBackoff, Duration maxBackoff, Double multiplier) {
+            this.maxAttempts = maxAttempts;
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            this.multiplier = multiplier;
+        }
+
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(Double multiplier) {
+            this.multiplier = multiplier;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.warehouserest_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.warehouserest_api.datasource.ShardRoutingDataSource;
+import org.example.warehouserest_api.datasource.ShardSchemaInitializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+
+// Horizontal sharding of parts by supplier (warehouse.sharding.enabled). The application's DataSource defers
+// fetching a connection until the first statement and then takes it from the shard ShardingAspect selected
+// for the current operation. Cannot be combined with read replica routing, which defines the same bean.
+@Configuration
+@ConditionalOnProperty(prefix = "warehouse.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // The spring.datasource pool, now the home shard
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource homeShardDataSource(DataSourceProperties properties, ShardingProperties sharding) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(sharding.getHomeName());
+        return dataSource;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource homeShardDataSource, DataSourceProperties homeProperties,
+                                                         ShardingProperties properties, MeterRegistry meterRegistry) {
+        LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(properties.getHomeName(), homeShardDataSource);
+        for (ShardingProperties.Shard source : properties.getShards()) {
+            String name = source.getName() != null ? source.getName() : "shard-" + shards.size();
+            if (shards.containsKey(name)) {
+                throw new IllegalStateException("Duplicate shard name " + name);
+            }
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(source.getUrl())
+                    .username(source.getUsername() != null ? source.getUsername() : homeProperties.determineUsername())
+                    .password(source.getPassword() != null ? source.getPassword() : homeProperties.determinePassword())
+                    .build();
+            shard.setPoolName(name);
+            shard.setMaximumPoolSize(source.getMaximumPoolSize());
+            // Pool metrics (hikaricp_connections_*) tagged with the shard's name, like those of the home shard
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.put(name, shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                         ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardSchemaInitializer(entityManagerFactory, shardRoutingDataSource);
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the horizontal sharding of parts by supplier (prefix warehouse.sharding).
+// The spring.datasource database is the home shard (index 0); the listed shards follow with indexes 1, 2, ...
+// Shard indexes are stored in the bucket map, so shards may be appended but never reordered or removed.
+@ConfigurationProperties(prefix = "warehouse.sharding")
+public class ShardingProperties {
+
+    // Whether parts are spread over several databases at all
+    private boolean enabled = false;
+
+    // Name of the home shard, which also holds the bucket map
+    private String homeName = "shard-0";
+
+    // The other shard databases
+    private List<Shard> shards = new ArrayList<>();
+
+    // Number of hash buckets of supplier numbers; buckets, not suppliers, are assigned to shards and moved.
+    // Fixed for the lifetime of the data, so choose it well above the largest expected number of shards.
+    private int buckets = 256;
+
+    // How often the bucket map is reloaded, so moves made by another instance are picked up.
+    // A move waits this long before copying and before deleting, so all instances see each step.
+    private Duration mapRefreshInterval = Duration.ofSeconds(5);
+
+    // How long a write to a bucket that is being moved waits before it is rejected with 503
+    private Duration moveWait = Duration.ofSeconds(5);
+
+    // Parts copied per statement batch and transaction while moving a bucket
+    private int moveBatchSize = 500;
+
+    // Parts buffered per shard while the full listing merges the shards' streams
+    private int streamBuffer = 1000;
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHomeName() {
+        return homeName;
+    }
+
+    public void setHomeName(String homeName) {
+        this.homeName = homeName;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public Duration getMapRefreshInterval() {
+        return mapRefreshInterval;
+    }
+
+    public void setMapRefreshInterval(Duration mapRefreshInterval) {
+        this.mapRefreshInterval = mapRefreshInterval;
+    }
+
+    public Duration getMoveWait() {
+        return moveWait;
+    }
+
+    public void setMoveWait(Duration moveWait) {
+        this.moveWait = moveWait;
+    }
+
+    public int getMoveBatchSize() {
+        return moveBatchSize;
+    }
+
+    public void setMoveBatchSize(int moveBatchSize) {
+        this.moveBatchSize = moveBatchSize;
+    }
+
+    public int getStreamBuffer() {
+        return streamBuffer;
+    }
+
+    public void setStreamBuffer(int streamBuffer) {
+        this.streamBuffer = streamBuffer;
+    }
+
+    // Connection settings of one shard; username and password default to those of the home shard
+    public static class Shard {
+
+        // Shard name, used in the admin API and as pool name; defaults to shard-<index>
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.warehouserest_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the stock totals per material and supplier (prefix warehouse.stock).
+@ConfigurationProperties(prefix = "warehouse.stock")
+public class StockTotalProperties {
+
+    // How often the totals are compared with the parts table; zero disables the periodic check
+    private Duration verifyInterval = Duration.ofHours(6);
+
+    // Whether the periodic check corrects the totals that have drifted
+    private boolean repairDrift = true;
+
+    // Getters and setters
+    public Duration getVerifyInterval() {
+        return verifyInterval;
+    }
+
+    public void setVerifyInterval(Duration verifyInterval) {
+        this.verifyInterval = verifyInterval;
+    }
+
+    public boolean isRepairDrift() {
+        return repairDrift;
+    }
+
+    public void setRepairDrift(boolean repairDrift) {
+        this.repairDrift = repairDrift;
+    }
+}
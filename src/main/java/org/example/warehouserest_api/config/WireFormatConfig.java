@@ -0,0 +1,45 @@
+package org.example.warehouserest_api.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.warehouserest_api.web.PartSerializers;
+import org.example.warehouserest_api.web.ProtobufPartHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Response formats chosen by the Accept header: JSON (default), CBOR, Smile and protobuf.
+// The CBOR and Smile converters take the place of Spring's defaults but are built from the application's
+// ObjectMapper settings, so they share the part serializers and write the same structure as JSON.
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    // Serializers of the part types, picked up by every ObjectMapper Spring Boot builds
+    @Bean
+    public Module partSerializersModule() {
+        return PartSerializers.module();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    // Added last, so JSON stays the format for Accept: */* (converters earlier in the list win)
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufPartHttpMessageConverter());
+    }
+}
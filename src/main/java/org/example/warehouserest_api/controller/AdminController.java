@@ -0,0 +1,60 @@
+package org.example.warehouserest_api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.warehouserest_api.dto.CacheStatistics;
+import org.example.warehouserest_api.dto.StockVerification;
+import org.example.warehouserest_api.service.PartCache;
+import org.example.warehouserest_api.service.StockTotalService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// REST Controller for operational endpoints (cache statistics and maintenance).
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/admin")
+@Tag(name = "Admin", description = "Operational endpoints of the warehouse service")
+public class AdminController {
+
+    // Part cache whose statistics are exposed
+    private final PartCache partCache;
+
+    // Stock totals checked against the parts table
+    private final StockTotalService stockTotalService;
+
+    // Constructor-based dependency injection for PartCache and StockTotalService
+    public AdminController(PartCache partCache, StockTotalService stockTotalService) {
+        this.partCache = partCache;
+        this.stockTotalService = stockTotalService;
+    }
+
+    // GET endpoint to retrieve hit/miss/eviction statistics of the part cache
+    // GET /api/v1/admin/cache
+    @Operation(summary = "Get part cache statistics", description = "Retrieve size, hit, miss and eviction counts of the part cache")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Statistics returned successfully")
+    })
+    @GetMapping("/cache")
+    public CacheStatistics getCacheStatistics() {
+        return partCache.statistics();
+    }
+
+    // POST endpoint to compare the stock totals with the parts table (a full scan), optionally correcting drift
+    // POST /api/v1/admin/stock/verify?repair=true
+    @Operation(summary = "Verify stock totals", description = "Recompute the stock totals from the parts table and report (and optionally repair) the ones that drifted")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Verification finished")
+    })
+    @PostMapping("/stock/verify")
+    public StockVerification verifyStockTotals(
+            @Parameter(description = "Correct the drifted totals") @RequestParam(defaultValue = "false") boolean repair) {
+        return stockTotalService.verify(repair);
+    }
+}
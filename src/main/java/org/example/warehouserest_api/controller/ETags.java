@@ -0,0 +1,66 @@
+package org.example.warehouserest_api.controller;
+
+import org.example.warehouserest_api.model.Part;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Entity tags of the part endpoints.
+// A single part is tagged with its version (strong, usable with If-Match); collections get weak tags.
+final class ETags {
+
+    // Version that no part has, used for If-Match values that can never match
+    private static final long NO_VERSION = -1;
+
+    private ETags() {
+    }
+
+    // Strong ETag of a part: its version
+    static String of(Part part) {
+        return "\"" + part.getVersion() + "\"";
+    }
+
+    // Weak ETag from an opaque value
+    static String weak(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    // Weak ETag of a page: a checksum of the identifiers and versions of its parts and of the next cursor
+    static String weakOfPage(List<Part> parts, String nextCursor) {
+        CRC32C checksum = new CRC32C();
+        for (Part part : parts) {
+            update(checksum, part.getId().getMaterialNumber());
+            update(checksum, part.getId().getSerialNumber());
+            update(checksum, part.getId().getSupplierNumber());
+            update(checksum, String.valueOf(part.getVersion()));
+        }
+        update(checksum, String.valueOf(nextCursor));
+        return weak(parts.size() + "-" + Long.toHexString(checksum.getValue()));
+    }
+
+    // Translates an If-Match header into the version the part must have, or null if there is no condition.
+    // Only a single strong tag can match (strong comparison); weak, malformed or multiple tags never match.
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    private static void update(CRC32C checksum, String value) {
+        checksum.update(value.getBytes(StandardCharsets.UTF_8));
+        checksum.update(0);
+    }
+}
@@ -1,45 +1,233 @@
 package org.example.warehouserest_api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
+import org.example.warehouserest_api.dto.ImportEvent;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.dto.PartSyncPage;
+import org.example.warehouserest_api.dto.StockTransferRequest;
 import org.example.warehouserest_api.model.Part;
 import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.service.IdempotencyService;
+import org.example.warehouserest_api.service.PartChangeStream;
+import org.example.warehouserest_api.service.PartExporter;
+import org.example.warehouserest_api.service.PartImporter;
 import org.example.warehouserest_api.service.PartService;
+import org.example.warehouserest_api.service.QuantityCoalescer;
+import org.example.warehouserest_api.web.PartListWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
 
 // REST Controller that exposes API endpoints for part inventory management.
 // Handles HTTP requests for CRUD operations on parts.
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/parts")
 @Tag(name = "Parts", description = "API for managing parts in the warehouse")
 public class PartController {
 
+    private static final String IMPORT_CSV = "text/csv";
+
+    private static final String IMPORT_NDJSON = "application/x-ndjson";
+
     // Service to delegate business logic operations
     private final PartService partService;
 
-    // Constructor-based dependency injection for PartService
-    public PartController(PartService partService) {
+    // Streaming bulk import and export
+    private final PartImporter partImporter;
+
+    private final PartExporter partExporter;
+
+    // Optional write-coalescing path for quantity adjustments
+    private final QuantityCoalescer quantityCoalescer;
+
+    // Server-Sent Events stream of committed changes
+    private final PartChangeStream changeStream;
+
+    // Replays the responses of quantity changes retried with the same Idempotency-Key
+    private final IdempotencyService idempotencyService;
+
+    // Object mapper used to write streamed responses with the application's JSON settings
+    private final ObjectMapper objectMapper;
+
+    // Writes the streamed full listing in the negotiated format
+    private final PartListWriter partListWriter;
+
+    // Constructor-based dependency injection for the services and writers
+    public PartController(PartService partService, PartImporter partImporter, PartExporter partExporter,
+                          QuantityCoalescer quantityCoalescer, PartChangeStream changeStream,
+                          IdempotencyService idempotencyService, ObjectMapper objectMapper,
+                          PartListWriter partListWriter) {
         this.partService = partService;
+        this.partImporter = partImporter;
+        this.partExporter = partExporter;
+        this.quantityCoalescer = quantityCoalescer;
+        this.changeStream = changeStream;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.partListWriter = partListWriter;
     }
 
     // GET endpoint to retrieve all parts from the warehouse
     // GET /api/v1/parts
-    @Operation(summary = "Get all parts", description = "Retrieve a list of all parts in the warehouse")
+    // The array (JSON, CBOR or Smile, or length-delimited protobuf messages, by Accept) is streamed row by row
+    // from a database cursor, so the full list is never held in memory.
+    // The weak ETag is the committed change log position (and the format), so If-None-Match is answered before
+    // anything is read.
+    @Operation(summary = "Get all parts", description = "Stream a list of all parts in the warehouse, ordered by composite identifier")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "List of parts returned successfully"),
+            @ApiResponse(responseCode = "200", description = "List of parts returned successfully",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Part.class)))),
+            @ApiResponse(responseCode = "304", description = "Parts not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "No parts found in the warehouse")
     })
     @GetMapping
-    public List<Part> getAllParts() {
-        return partService.getAllParts();
+    public ResponseEntity<StreamingResponseBody> getAllParts(WebRequest request) {
+        MediaType format = partListWriter.select(request.getHeader(HttpHeaders.ACCEPT));
+        String representation = MediaType.APPLICATION_JSON.equals(format) ? "" : "-" + format.getSubtype();
+        String eTag = ETags.weak("c" + partService.getCollectionVersion() + representation);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (!partService.hasParts()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No parts found in the warehouse");
+        }
+        StreamingResponseBody body = out -> {
+            try (PartListWriter.Sink sink = partListWriter.open(out, format)) {
+                partService.streamAllParts(sink);
+            }
+        };
+        return ResponseEntity.ok().contentType(format).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    // GET endpoint to export the whole inventory for reconciliation
+    // GET /api/v1/parts/export?format=ndjson|csv|binary&gzip=true|false
+    // Rows are streamed from a database cursor straight to the response, optionally gzip-compressed.
+    @Operation(summary = "Export all parts", description = "Stream the whole inventory as NDJSON, CSV or length-prefixed binary, optionally gzip-compressed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Inventory streamed"),
+            @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportParts(
+            @Parameter(description = "Output format: ndjson, csv or binary", example = "ndjson") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Compress the response with gzip (Content-Encoding: gzip)") @RequestParam(defaultValue = "false") boolean gzip) {
+        PartExporter.Format exportFormat;
+        try {
+            exportFormat = PartExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Unknown export format '%s'", format));
+        }
+        StreamingResponseBody body = out -> partExporter.export(out, exportFormat, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"parts." + exportFormat.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // GET endpoint to retrieve one page of parts using keyset (cursor) pagination
+    // GET /api/v1/parts/page?limit=X&cursor=Y
+    @Operation(summary = "Get page of parts", description = "Retrieve parts ordered by composite identifier, one keyset page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of parts returned successfully"),
+            @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or cursor"),
+            @ApiResponse(responseCode = "404", description = "No parts found in the warehouse")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<Part>> getPartsPage(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of parts per page", example = "100") @RequestParam(defaultValue = "100") int limit) {
+        KeysetPage<Part> page = partService.getPartsPage(cursor, limit);
+        // A matching If-None-Match turns this into a 304 without serializing the page
+        return ResponseEntity.ok().eTag(ETags.weakOfPage(page.getItems(), page.getNextCursor())).body(page);
+    }
+
+    // GET endpoint to search parts by material or supplier number, or a prefix of either
+    // GET /api/v1/parts/search?materialNumber=|materialPrefix=|supplierNumber=|supplierPrefix=X&limit=Y&cursor=Z
+    @Operation(summary = "Search parts", description = "Find parts by material number, supplier number or a prefix of one of them (exactly one), one keyset page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of matching parts (possibly empty)"),
+            @ApiResponse(responseCode = "400", description = "Missing or conflicting filters, invalid limit or cursor")
+    })
+    @GetMapping("/search")
+    public KeysetPage<PartSummary> searchParts(
+            @Parameter(description = "Exact material number", example = "MAT100") @RequestParam(required = false) String materialNumber,
+            @Parameter(description = "Material number prefix", example = "MAT") @RequestParam(required = false) String materialPrefix,
+            @Parameter(description = "Exact supplier number", example = "SUP100") @RequestParam(required = false) String supplierNumber,
+            @Parameter(description = "Supplier number prefix", example = "SUP") @RequestParam(required = false) String supplierPrefix,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of parts per page", example = "100") @RequestParam(defaultValue = "100") int limit) {
+        return partService.searchParts(materialNumber, materialPrefix, supplierNumber, supplierPrefix, cursor, limit);
+    }
+
+    // GET endpoint for the delta sync of local copies of the inventory
+    // GET /api/v1/parts/sync?since=X&limit=Y
+    @Operation(summary = "Sync changes", description = "Parts created or changed and parts deleted (tombstones) after the given change sequence, in sequence order")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of changes (possibly empty); pass nextSince as since in the next sync"),
+            @ApiResponse(responseCode = "400", description = "Negative sequence or invalid limit")
+    })
+    @GetMapping("/sync")
+    public PartSyncPage syncChanges(
+            @Parameter(description = "nextSince of the previous sync; 0 for a full sync", example = "0") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes per page", example = "1000") @RequestParam(defaultValue = "1000") int limit) {
+        return partService.syncChanges(since, limit);
+    }
+
+    // GET endpoint to subscribe to committed part changes as Server-Sent Events
+    // GET /api/v1/parts/changes?materialNumber=X[&serialNumber=Y&supplierNumber=Z]
+    // Each "part" event carries a PartChangeEvent and an id; a client that reconnects with the Last-Event-ID header
+    // gets the events it missed. A "gap" event reports dropped events, a "reset" event that they cannot be replayed.
+    @Operation(summary = "Stream part changes", description = "Server-Sent Events with every committed change of one part, of one material or of all parts")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "400", description = "Serial or supplier number given without the other two identifiers"),
+            @ApiResponse(responseCode = "503", description = "Too many open streams")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Only changes of this material", example = "MAT100") @RequestParam(required = false) String materialNumber,
+            @Parameter(description = "Together with materialNumber and supplierNumber: only changes of this part", example = "SER100") @RequestParam(required = false) String serialNumber,
+            @Parameter(description = "Together with materialNumber and serialNumber: only changes of this part", example = "SUP100") @RequestParam(required = false) String supplierNumber,
+            @Parameter(description = "Id of the last event received before reconnecting") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        PartId partId = null;
+        if (serialNumber != null || supplierNumber != null) {
+            if (materialNumber == null || serialNumber == null || supplierNumber == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "A part filter needs materialNumber, serialNumber and supplierNumber");
+            }
+            partId = new PartId(materialNumber, serialNumber, supplierNumber);
+        }
+        return changeStream.subscribe(partId, materialNumber, lastEventId);
     }
 
     // GET endpoint to retrieve a specific part by its composite ID
@@ -47,14 +235,17 @@ public class PartController {
     @Operation(summary = "Get part by ID", description = "Retrieve a specific part by its composite identifier")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Part found and returned"),
+            @ApiResponse(responseCode = "304", description = "Part not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Part not found")
     })
     @GetMapping("/{materialNumber}/{serialNumber}/{supplierNumber}")
-    public Part getPartById(
+    public ResponseEntity<Part> getPartById(
             @Parameter(description = "Material number", example = "MAT100") @PathVariable String materialNumber,
             @Parameter(description = "Serial number", example = "SER100") @PathVariable String serialNumber,
             @Parameter(description = "Supplier number", example = "SUP100") @PathVariable String supplierNumber) {
-        return partService.getPartById(materialNumber, serialNumber, supplierNumber);
+        Part part = partService.getPartById(materialNumber, serialNumber, supplierNumber);
+        // The ETag is the part's version; a matching If-None-Match turns this into a 304 without a body
+        return ResponseEntity.ok().eTag(ETags.of(part)).body(part);
     }
 
     // POST endpoint to add a new part with initial quantity of zero
@@ -70,7 +261,7 @@ public class PartController {
             @Parameter(description = "Part identifier (materialNumber, serialNumber, supplierNumber)", required = true)
             @Valid @RequestBody PartId partId) {
         Part created = partService.addPart(partId.getMaterialNumber(), partId.getSerialNumber(), partId.getSupplierNumber());
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created)).body(created);
     }
 
     // DELETE endpoint to remove a part from the warehouse (only if quantity is zero)
@@ -94,34 +285,146 @@ public class PartController {
     // PATCH /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber}/add?amount=X
     @Operation(summary = "Increase part quantity", description = "Increase the quantity of a part by a given amount")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Quantity increased"),
+            @ApiResponse(responseCode = "200", description = "Quantity increased",
+                    content = @Content(schema = @Schema(implementation = Part.class))),
             @ApiResponse(responseCode = "404", description = "Part not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid amount")
+            @ApiResponse(responseCode = "400", description = "Invalid amount or Idempotency-Key"),
+            @ApiResponse(responseCode = "412", description = "Part no longer has the version given in If-Match"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
     })
     @PatchMapping("/{materialNumber}/{serialNumber}/{supplierNumber}/add")
-    public Part increaseQuantity(
+    public ResponseEntity<?> increaseQuantity(
             @Parameter(description = "Material number", example = "MAT100") @PathVariable String materialNumber,
             @Parameter(description = "Serial number", example = "SER100") @PathVariable String serialNumber,
             @Parameter(description = "Supplier number", example = "SUP100") @PathVariable String supplierNumber,
-            @Parameter(description = "Amount to add", example = "10") @RequestParam int amount) {
-        return partService.increaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+            @Parameter(description = "Amount to add", example = "10") @RequestParam int amount,
+            @Parameter(description = "ETag of the part; the change is only applied if the part still has this version")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "Client-chosen key; a retry with the same key replays the first response instead of adding again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        String request = String.join(" ", "add", materialNumber, serialNumber, supplierNumber, String.valueOf(amount), String.valueOf(ifMatch));
+        return idempotencyService.execute(idempotencyKey, request, () -> {
+            Part part;
+            // Conditional and idempotent writes cannot be merged with others, so they always take the direct path
+            if (quantityCoalescer.isEnabled() && expectedVersion == null && idempotencyKey == null) {
+                part = quantityCoalescer.increaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+            } else {
+                part = partService.increaseQuantity(materialNumber, serialNumber, supplierNumber, amount, expectedVersion);
+            }
+            return ResponseEntity.ok().eTag(ETags.of(part)).body(part);
+        });
     }
 
     // PATCH endpoint to decrease the quantity of a part (never below zero)
     // PATCH /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber}/subtract?amount=X
     @Operation(summary = "Decrease part quantity", description = "Decrease the quantity of a part by a given amount")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Quantity decreased"),
+            @ApiResponse(responseCode = "200", description = "Quantity decreased",
+                    content = @Content(schema = @Schema(implementation = Part.class))),
             @ApiResponse(responseCode = "404", description = "Part not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid amount"),
-            @ApiResponse(responseCode = "409", description = "Cannot decrease below zero")
+            @ApiResponse(responseCode = "400", description = "Invalid amount or Idempotency-Key"),
+            @ApiResponse(responseCode = "409", description = "Cannot decrease below zero"),
+            @ApiResponse(responseCode = "412", description = "Part no longer has the version given in If-Match"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
     })
     @PatchMapping("/{materialNumber}/{serialNumber}/{supplierNumber}/subtract")
-    public Part decreaseQuantity(
+    public ResponseEntity<?> decreaseQuantity(
             @Parameter(description = "Material number", example = "MAT100") @PathVariable String materialNumber,
             @Parameter(description = "Serial number", example = "SER100") @PathVariable String serialNumber,
             @Parameter(description = "Supplier number", example = "SUP100") @PathVariable String supplierNumber,
-            @Parameter(description = "Amount to subtract", example = "5") @RequestParam int amount) {
-        return partService.decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+            @Parameter(description = "Amount to subtract", example = "5") @RequestParam int amount,
+            @Parameter(description = "ETag of the part; the change is only applied if the part still has this version")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "Client-chosen key; a retry with the same key replays the first response instead of subtracting again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        String request = String.join(" ", "subtract", materialNumber, serialNumber, supplierNumber, String.valueOf(amount), String.valueOf(ifMatch));
+        return idempotencyService.execute(idempotencyKey, request, () -> {
+            Part part;
+            if (quantityCoalescer.isEnabled() && expectedVersion == null && idempotencyKey == null) {
+                part = quantityCoalescer.decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+            } else {
+                part = partService.decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount, expectedVersion);
+            }
+            return ResponseEntity.ok().eTag(ETags.of(part)).body(part);
+        });
+    }
+
+    // POST endpoint to apply many quantity adjustments in one request
+    // POST /api/v1/parts/adjustments (operations and mode in body JSON)
+    @Operation(summary = "Adjust quantities in batch", description = "Apply a list of signed quantity changes in one transaction, all-or-nothing or best-effort")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-operation results",
+                    content = @Content(schema = @Schema(implementation = BatchAdjustmentResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "409", description = "All-or-nothing batch rejected, nothing was applied"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
+    })
+    @PostMapping("/adjustments")
+    public ResponseEntity<?> adjustQuantities(
+            @Parameter(description = "Adjustments to apply and batch mode", required = true)
+            @Valid @RequestBody BatchAdjustmentRequest request,
+            @Parameter(description = "Client-chosen key; a retry with the same key replays the first response instead of applying the batch again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, request,
+                () -> ResponseEntity.ok(partService.adjustQuantities(request.getMode(), request.getOperations())));
+    }
+
+    // POST endpoint to move stock between parts atomically
+    // POST /api/v1/parts/transfers (operations in body JSON)
+    @Operation(summary = "Transfer stock", description = "Apply the net quantity change of every listed part in one transaction; no part may drop below zero")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transfer applied, returns the affected parts in composite ID order",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Part.class)))),
+            @ApiResponse(responseCode = "400", description = "Validation error or zero delta"),
+            @ApiResponse(responseCode = "404", description = "A part was not found, nothing was applied"),
+            @ApiResponse(responseCode = "409", description = "A part would drop below zero, nothing was applied"),
+            @ApiResponse(responseCode = "422", description = "Parts on several shards, or Idempotency-Key already used for a different request")
+    })
+    @PostMapping("/transfers")
+    public ResponseEntity<?> transferStock(
+            @Parameter(description = "Signed quantity changes to apply together", required = true)
+            @Valid @RequestBody StockTransferRequest request,
+            @Parameter(description = "Client-chosen key; a retry with the same key replays the first response instead of transferring again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, request,
+                () -> ResponseEntity.ok(partService.transferStock(request.getOperations())));
+    }
+
+    // POST endpoint to create or update many parts from a CSV or NDJSON request body
+    // POST /api/v1/parts/import
+    // The body is parsed and written chunk by chunk while it is received; the response is an NDJSON stream
+    // of rejected lines and progress, ending with a summary.
+    @Operation(summary = "Import parts", description = "Create parts or set their quantities from CSV (materialNumber,serialNumber,supplierNumber[,quantity]) or NDJSON")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import processed, see the streamed events"),
+            @ApiResponse(responseCode = "415", description = "Unsupported content type")
+    })
+    @PostMapping(value = "/import", consumes = {IMPORT_CSV, IMPORT_NDJSON}, produces = IMPORT_NDJSON)
+    public ResponseEntity<StreamingResponseBody> importParts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream input) {
+        PartImporter.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(IMPORT_CSV))
+                ? PartImporter.Format.CSV
+                : PartImporter.Format.NDJSON;
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                // One event per line, without Jackson's space between root values
+                generator.setRootValueSeparator(null);
+                partImporter.importParts(input, format, event -> {
+                    try {
+                        generator.writeObject(event);
+                        generator.writeRaw('\n');
+                        // Rejected lines are sent together with the next progress event
+                        if (event.getType() != ImportEvent.Type.ERROR) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(IMPORT_NDJSON)).body(body);
     }
 }
@@ -0,0 +1,88 @@
+package org.example.warehouserest_api.controller;
+
+import jakarta.validation.Valid;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.service.ReactivePartService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// WebFlux variant of the core PartController endpoints, active when the application runs as a reactive web
+// application (Spring profile "reactive"). Same paths, status codes, ETags and error bodies as the servlet API.
+// The full list is a Flux written element by element with backpressure, as a JSON array or as NDJSON.
+// Bulk import/export, batch adjustments, search, delta sync, the change stream and Idempotency-Key handling
+// are only served by the servlet API.
+@RestController
+@RequestMapping("/api/v1/parts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePartController {
+
+    private final ReactivePartService partService;
+
+    public ReactivePartController(ReactivePartService partService) {
+        this.partService = partService;
+    }
+
+    // GET /api/v1/parts - all parts in key order, streamed from the database as the client reads them
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Part> getAllParts() {
+        return partService.getAllParts();
+    }
+
+    // GET /api/v1/parts/page?limit=X&cursor=Y - one keyset page with a weak ETag over its versions
+    @GetMapping("/page")
+    public Mono<ResponseEntity<KeysetPage<Part>>> getPartsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        return partService.getPartsPage(cursor, limit)
+                .map(page -> ResponseEntity.ok().eTag(ETags.weakOfPage(page.getItems(), page.getNextCursor())).body(page));
+    }
+
+    // GET /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber} - a matching If-None-Match gives 304
+    @GetMapping("/{materialNumber}/{serialNumber}/{supplierNumber}")
+    public Mono<ResponseEntity<Part>> getPartById(@PathVariable String materialNumber, @PathVariable String serialNumber,
+                                                  @PathVariable String supplierNumber) {
+        return partService.getPartById(new PartId(materialNumber, serialNumber, supplierNumber))
+                .map(part -> ResponseEntity.ok().eTag(ETags.of(part)).body(part));
+    }
+
+    // POST /api/v1/parts - adds a part with quantity zero
+    @PostMapping
+    public Mono<ResponseEntity<Part>> addPart(@Valid @RequestBody PartId partId) {
+        return partService.addPart(partId)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created)).body(created));
+    }
+
+    // DELETE /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber} - only if the quantity is zero
+    @DeleteMapping("/{materialNumber}/{serialNumber}/{supplierNumber}")
+    public Mono<ResponseEntity<Void>> deletePart(@PathVariable String materialNumber, @PathVariable String serialNumber,
+                                                 @PathVariable String supplierNumber) {
+        return partService.deletePart(new PartId(materialNumber, serialNumber, supplierNumber))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    // PATCH /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber}/add?amount=X, optionally with If-Match
+    @PatchMapping("/{materialNumber}/{serialNumber}/{supplierNumber}/add")
+    public Mono<ResponseEntity<Part>> increaseQuantity(
+            @PathVariable String materialNumber, @PathVariable String serialNumber, @PathVariable String supplierNumber,
+            @RequestParam int amount, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return partService.increaseQuantity(new PartId(materialNumber, serialNumber, supplierNumber), amount, ETags.expectedVersion(ifMatch))
+                .map(part -> ResponseEntity.ok().eTag(ETags.of(part)).body(part));
+    }
+
+    // PATCH /api/v1/parts/{materialNumber}/{serialNumber}/{supplierNumber}/subtract?amount=X, optionally with If-Match
+    @PatchMapping("/{materialNumber}/{serialNumber}/{supplierNumber}/subtract")
+    public Mono<ResponseEntity<Part>> decreaseQuantity(
+            @PathVariable String materialNumber, @PathVariable String serialNumber, @PathVariable String supplierNumber,
+            @RequestParam int amount, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return partService.decreaseQuantity(new PartId(materialNumber, serialNumber, supplierNumber), amount, ETags.expectedVersion(ifMatch))
+                .map(part -> ResponseEntity.ok().eTag(ETags.of(part)).body(part));
+    }
+}
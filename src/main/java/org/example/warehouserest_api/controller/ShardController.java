@@ -0,0 +1,78 @@
+package org.example.warehouserest_api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.warehouserest_api.dto.BucketMove;
+import org.example.warehouserest_api.dto.ShardStatus;
+import org.example.warehouserest_api.service.ShardRebalancer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// REST Controller for the shards of the parts (warehouse.sharding): bucket assignment and online moves.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "warehouse.sharding", name = "enabled", havingValue = "true")
+@RequestMapping("/api/v1/admin/shards")
+@Tag(name = "Admin", description = "Operational endpoints of the warehouse service")
+public class ShardController {
+
+    // Service moving buckets between shards
+    private final ShardRebalancer shardRebalancer;
+
+    // Constructor-based dependency injection for ShardRebalancer
+    public ShardController(ShardRebalancer shardRebalancer) {
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    // GET endpoint to list the shards with their buckets
+    // GET /api/v1/admin/shards
+    @Operation(summary = "Get shards", description = "List the shards with the number of buckets of supplier numbers assigned to each")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Shards returned successfully")
+    })
+    @GetMapping
+    public List<ShardStatus> getShards() {
+        return shardRebalancer.status();
+    }
+
+    // POST endpoint to move one bucket to another shard; returns when the move is done
+    // POST /api/v1/admin/shards/buckets/{bucket}/move?target=shard-1
+    @Operation(summary = "Move a bucket", description = "Move the parts of one bucket of supplier numbers to another shard while the service keeps running")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Bucket moved"),
+            @ApiResponse(responseCode = "400", description = "Unknown bucket or shard"),
+            @ApiResponse(responseCode = "409", description = "Bucket already on the shard, or another move is in progress")
+    })
+    @PostMapping("/buckets/{bucket}/move")
+    public BucketMove moveBucket(
+            @Parameter(description = "Bucket number", example = "17") @PathVariable int bucket,
+            @Parameter(description = "Name of the target shard", example = "shard-1") @RequestParam String target) {
+        return shardRebalancer.moveBucket(bucket, target);
+    }
+
+    // POST endpoint to even out the number of buckets per shard in the background, for example after adding a shard
+    // POST /api/v1/admin/shards/rebalance
+    @Operation(summary = "Rebalance shards", description = "Start moving buckets until every shard has the same number of buckets; returns the planned moves")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Moves planned and started"),
+            @ApiResponse(responseCode = "409", description = "Another move is in progress")
+    })
+    @PostMapping("/rebalance")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public List<BucketMove> rebalance() {
+        return shardRebalancer.rebalance();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.warehouserest_api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.service.StockTotalService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// REST Controller for the stock totals per material and supplier.
+// Totals are maintained on every write, so these endpoints never scan the parts table.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/stock")
+@Tag(name = "Stock", description = "Total stock per material and supplier")
+public class StockController {
+
+    // Service holding the stock totals
+    private final StockTotalService stockTotalService;
+
+    // Constructor-based dependency injection for StockTotalService
+    public StockController(StockTotalService stockTotalService) {
+        this.stockTotalService = stockTotalService;
+    }
+
+    // GET endpoint to retrieve the total stock of a material
+    // GET /api/v1/stock/materials/{materialNumber}
+    @Operation(summary = "Get stock of a material", description = "Total quantity and number of parts with the given material number")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Total returned successfully"),
+            @ApiResponse(responseCode = "404", description = "No parts with this material number")
+    })
+    @GetMapping("/materials/{materialNumber}")
+    public StockTotal getMaterialStock(
+            @Parameter(description = "Material number", example = "MAT100") @PathVariable String materialNumber) {
+        return stockTotalService.getTotal(StockDimension.MATERIAL, materialNumber);
+    }
+
+    // GET endpoint to retrieve the total stock of a supplier
+    // GET /api/v1/stock/suppliers/{supplierNumber}
+    @Operation(summary = "Get stock of a supplier", description = "Total quantity and number of parts with the given supplier number")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Total returned successfully"),
+            @ApiResponse(responseCode = "404", description = "No parts with this supplier number")
+    })
+    @GetMapping("/suppliers/{supplierNumber}")
+    public StockTotal getSupplierStock(
+            @Parameter(description = "Supplier number", example = "SUP100") @PathVariable String supplierNumber) {
+        return stockTotalService.getTotal(StockDimension.SUPPLIER, supplierNumber);
+    }
+}
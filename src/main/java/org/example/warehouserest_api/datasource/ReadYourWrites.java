@@ -0,0 +1,66 @@
+package org.example.warehouserest_api.datasource;
+
+import java.util.function.LongConsumer;
+
+// Read-your-writes state of the current request. While a client's reads are pinned, read-only transactions
+// use the primary instead of a replica that may not have replayed the client's last write yet.
+// ReadYourWritesFilter opens the state per request, with the pin the client brought along in its cookie.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<State> current = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    // Starts the state of a request; onWrite receives the new pin end (epoch millis) after each committed write
+    public static void begin(long pinnedUntil, LongConsumer onWrite) {
+        current.set(new State(pinnedUntil, onWrite));
+    }
+
+    public static void end() {
+        current.remove();
+    }
+
+    // Runs the task with the state of the calling request, for work handed to another thread
+    // (streamed response bodies are written by the async request executor)
+    public static Runnable propagate(Runnable task) {
+        State state = current.get();
+        if (state == null) {
+            return task;
+        }
+        return () -> {
+            current.set(state);
+            try {
+                task.run();
+            } finally {
+                current.remove();
+            }
+        };
+    }
+
+    // Whether reads of the current request have to use the primary
+    static boolean isPinned() {
+        State state = current.get();
+        return state != null && System.currentTimeMillis() < state.pinnedUntil;
+    }
+
+    // Pins the reads of the current request, and of the client's next requests, for windowMillis;
+    // does nothing outside a request (background jobs)
+    static void recordWrite(long windowMillis) {
+        State state = current.get();
+        if (state != null) {
+            state.pinnedUntil = System.currentTimeMillis() + windowMillis;
+            state.onWrite.accept(state.pinnedUntil);
+        }
+    }
+
+    private static final class State {
+        long pinnedUntil;
+        final LongConsumer onWrite;
+
+        State(long pinnedUntil, LongConsumer onWrite) {
+            this.pinnedUntil = pinnedUntil;
+            this.onWrite = onWrite;
+        }
+    }
+}
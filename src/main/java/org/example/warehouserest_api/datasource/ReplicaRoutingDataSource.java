@@ -0,0 +1,194 @@
+package org.example.warehouserest_api.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.ReplicaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Connections for read-only transactions (warehouse.replicas). Reads are spread over the healthy replicas in turn;
+// they use the primary while the client is pinned after a write (ReadYourWrites) or when no replica is healthy.
+// A background check measures every replica's lag and leaves out replicas that fail or lag more than max-lag.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Seconds since the last replayed transaction, or 0 while the replica has replayed everything it received
+    // (on an idle primary the replay timestamp ages without the replica falling behind)
+    private static final String POSTGRESQL_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private static final String NO_LAG_QUERY = "SELECT 0";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ReplicaProperties properties;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder primaryReads = new LongAdder();
+
+    private final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaProperties properties) {
+        this.primary = primary;
+        this.properties = properties;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    // Replicas take reads only after their first successful check
+    @PostConstruct
+    void start() {
+        long interval = properties.getCheckInterval().toMillis();
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close the pool of replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("warehouse.datasource.reads", primaryReads, LongAdder::sum)
+                .description("Read-only transactions per database")
+                .tag("route", "primary")
+                .register(registry);
+        for (Replica replica : replicas) {
+            FunctionCounter.builder("warehouse.datasource.reads", replica.reads, LongAdder::sum)
+                    .description("Read-only transactions per database")
+                    .tag("route", replica.name)
+                    .register(registry);
+            Gauge.builder("warehouse.replicas.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag at the last check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(registry);
+            Gauge.builder("warehouse.replicas.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica takes reads")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isPinned()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.reads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    // Left out until the next successful check
+                    markUnhealthy(replica, e);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    // The replicas may have their own credentials, so connections for explicit credentials come from the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryReads.increment();
+        return primary.getConnection(username, password);
+    }
+
+    // Checks the health and lag of every replica; public for tests
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, properties.getMaxLag().toSeconds()));
+                try (ResultSet resultSet = statement.executeQuery(lagQuery(connection))) {
+                    replica.lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                }
+                boolean healthy = replica.lagSeconds * 1000 <= properties.getMaxLag().toMillis();
+                if (healthy != replica.healthy) {
+                    if (healthy) {
+                        logger.info("Replica {} takes reads (lag {}s)", replica.name, replica.lagSeconds);
+                    } else {
+                        logger.warn("Replica {} is {}s behind the primary, reads use other databases", replica.name, replica.lagSeconds);
+                    }
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+            }
+        }
+    }
+
+    // Whether the replica currently takes reads
+    public boolean isHealthy(String name) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(name) && replica.healthy);
+    }
+
+    private String lagQuery(Connection connection) throws SQLException {
+        if (properties.getLagQuery() != null) {
+            return properties.getLagQuery();
+        }
+        return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()) ? POSTGRESQL_LAG_QUERY : NO_LAG_QUERY;
+    }
+
+    private void markUnhealthy(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            logger.warn("Replica {} is unavailable, reads use other databases: {}", replica.name, e.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    // A replica with the result of its last check
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        final LongAdder reads = new LongAdder();
+        volatile boolean healthy;
+        volatile double lagSeconds;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
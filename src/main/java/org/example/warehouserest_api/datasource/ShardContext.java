@@ -0,0 +1,54 @@
+package org.example.warehouserest_api.datasource;
+
+import java.util.function.Supplier;
+
+// Shard whose database the current thread's next transaction uses (see ShardRoutingDataSource).
+// Set by ShardingAspect around PartService operations; without a shard the home shard is used.
+// The shard only matters when a transaction takes its connection, at its first statement.
+public final class ShardContext {
+
+    // Index of the home shard, the spring.datasource database
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> current = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    // The selected shard, or null if none was selected
+    public static Integer current() {
+        return current.get();
+    }
+
+    // Selects a shard and returns the previous selection, to be passed to restore
+    public static Integer enter(int shard) {
+        Integer previous = current.get();
+        current.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    // Runs the action with the given shard selected
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
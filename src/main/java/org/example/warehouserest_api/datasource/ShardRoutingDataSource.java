@@ -0,0 +1,66 @@
+package org.example.warehouserest_api.datasource;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hands out connections of the shard selected in ShardContext, or of the home shard if none is selected.
+// Wrapped in a LazyConnectionDataSourceProxy, so a transaction picks its shard at its first statement,
+// which lets a transaction opened before the shard is known (Idempotency-Key requests) still be routed.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+    private final List<String> names;
+
+    private final List<DataSource> shards;
+
+    // The pools of all shards by name in index order, the home shard's first
+    public ShardRoutingDataSource(LinkedHashMap<String, DataSource> shards) {
+        this.names = List.copyOf(shards.keySet());
+        this.shards = List.copyOf(shards.values());
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.shards.get(ShardContext.HOME));
+        setLenientFallback(false);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    // Shard names by index
+    public List<String> getShardNames() {
+        return names;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard == null ? ShardContext.HOME : shard;
+    }
+
+    // Closes the pools of the other shards; the home shard's pool is a bean of its own
+    @PreDestroy
+    void close() {
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close a shard pool", e);
+                }
+            }
+        }
+    }
+}
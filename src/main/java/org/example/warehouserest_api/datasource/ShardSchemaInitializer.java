@@ -0,0 +1,60 @@
+package org.example.warehouserest_api.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+// Prepares the databases of the shards other than the home shard, which Hibernate (ddl-auto) and
+// spring.sql.init take care of: creates the mapped tables if they are missing, starting the part_key identity
+// of shard i at i * KEY_RANGE, and runs schema.sql. Disjoint surrogate keys keep a key remembered for a part
+// (key dictionary, persistence context) from ever matching another part after the part moved between shards.
+// Later schema changes of existing shards are applied with the db/postgresql scripts, as on the home shard.
+public class ShardSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    // Surrogate keys available to each shard
+    public static final long KEY_RANGE = 1L << 40;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ShardRoutingDataSource shards;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, ShardRoutingDataSource shards) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.shards = shards;
+    }
+
+    @PostConstruct
+    void initialize() {
+        SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shards);
+        ResourceDatabasePopulator schemaScript = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        for (int shard = 1; shard < shards.getShardCount(); shard++) {
+            String name = shards.getShardNames().get(shard);
+            long firstKey = shard * KEY_RANGE;
+            ShardContext.run(shard, () -> {
+                try {
+                    schemaManager.validateMappedObjects();
+                } catch (SchemaManagementException e) {
+                    logger.info("Creating the missing tables of shard {} ({})", name, e.getMessage());
+                    schemaManager.exportMappedObjects(true);
+                    // Only when the tables were just created: restarting an emptied table would hand out used keys again
+                    Long lastKey = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(part_key), 0) FROM parts", Long.class);
+                    if (lastKey < firstKey) {
+                        jdbcTemplate.execute("ALTER TABLE parts ALTER COLUMN part_key RESTART WITH " + firstKey);
+                        logger.info("Shard {} assigns part keys from {}", name, firstKey);
+                    }
+                }
+                schemaScript.execute(shards);
+            });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.warehouserest_api.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// The primary as seen by read-write transactions: once such a transaction commits, the reads of the
+// current client are pinned to the primary (see ReadYourWrites).
+public class WriteTrackingDataSource extends DelegatingDataSource {
+
+    private final long windowMillis;
+
+    public WriteTrackingDataSource(DataSource primary, long windowMillis) {
+        super(primary);
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadYourWrites.recordWrite(windowMillis);
+                }
+            });
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.warehouserest_api.dto;
+
+import org.example.warehouserest_api.model.PartId;
+
+// Outcome of a single operation of a batch quantity adjustment.
+public class AdjustmentResult {
+
+    public enum Outcome {
+        // The delta was applied
+        APPLIED,
+        // The part does not exist
+        NOT_FOUND,
+        // The delta would have made the quantity negative
+        INSUFFICIENT_QUANTITY,
+        // The delta would have made the quantity larger than the largest storable quantity
+        QUANTITY_OUT_OF_RANGE,
+        // The delta was zero
+        INVALID_AMOUNT,
+        // The operation was valid, but the batch was not applied because another operation failed
+        NOT_APPLIED
+    }
+
+    // Position of the operation in the request
+    private final int index;
+
+    private final PartId id;
+
+    private final int delta;
+
+    private final Outcome outcome;
+
+    // Quantity of the part once the whole batch was applied; null if the operation was not applied
+    private final Integer quantity;
+
+    public AdjustmentResult(int index, PartId id, int delta, Outcome outcome, Integer quantity) {
+        this.index = index;
+        this.id = id;
+        this.delta = delta;
+        this.outcome = outcome;
+        this.quantity = quantity;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public PartId getId() {
+        return id;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+}
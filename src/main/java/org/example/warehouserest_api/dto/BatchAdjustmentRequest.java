@@ -0,0 +1,51 @@
+package org.example.warehouserest_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+
+import java.util.List;
+
+// Request body of the batch quantity adjustment endpoint.
+public class BatchAdjustmentRequest {
+
+    // Largest number of operations accepted in one batch
+    public static final int MAX_OPERATIONS = 1000;
+
+    // How failures of individual operations affect the rest of the batch
+    public enum Mode {
+        // Either every operation is applied or none is
+        ALL_OR_NOTHING,
+        // Valid operations are applied even if others fail
+        BEST_EFFORT
+    }
+
+    @NotNull
+    @Schema(description = "Batch semantics", example = "ALL_OR_NOTHING")
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    // Operations are applied in list order
+    @NotEmpty
+    @Size(max = MAX_OPERATIONS)
+    private List<@Valid @NotNull QuantityAdjustment> operations;
+
+    // Getters and setters
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public List<QuantityAdjustment> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<QuantityAdjustment> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.warehouserest_api.dto;
+
+import java.util.List;
+
+// Response of the batch quantity adjustment endpoint with one result per requested operation.
+public class BatchAdjustmentResponse {
+
+    private final BatchAdjustmentRequest.Mode mode;
+
+    // Number of operations that were applied and committed
+    private final int applied;
+
+    // Number of operations that were not applied
+    private final int failed;
+
+    // Results in the same order as the requested operations
+    private final List<AdjustmentResult> results;
+
+    public BatchAdjustmentResponse(BatchAdjustmentRequest.Mode mode, int applied, int failed, List<AdjustmentResult> results) {
+        this.mode = mode;
+        this.applied = applied;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    public BatchAdjustmentRequest.Mode getMode() {
+        return mode;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<AdjustmentResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.warehouserest_api.dto;
+
+// A move of one bucket of supplier numbers from one shard to another.
+public class BucketMove {
+
+    private final int bucket;
+
+    private final String source;
+
+    private final String target;
+
+    // Number of parts moved, or null for a move that has not run yet
+    private final Long parts;
+
+    public BucketMove(int bucket, String source, String target, Long parts) {
+        this.bucket = bucket;
+        this.source = source;
+        this.target = target;
+        this.parts = parts;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public Long getParts() {
+        return parts;
+    }
+}
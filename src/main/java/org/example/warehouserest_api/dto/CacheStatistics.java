@@ -0,0 +1,51 @@
+package org.example.warehouserest_api.dto;
+
+// Hit, miss and eviction statistics of the part cache.
+public class CacheStatistics {
+
+    private final long size;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final double hitRate;
+
+    private final long evictionCount;
+
+    // Cached entries that were found to be outdated by the version check
+    private final long staleCount;
+
+    public CacheStatistics(long size, long hitCount, long missCount, double hitRate, long evictionCount, long staleCount) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.evictionCount = evictionCount;
+        this.staleCount = staleCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getStaleCount() {
+        return staleCount;
+    }
+}
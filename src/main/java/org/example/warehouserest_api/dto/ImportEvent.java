@@ -0,0 +1,73 @@
+package org.example.warehouserest_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One line of the NDJSON response of a bulk import.
+// ERROR events report a rejected line, PROGRESS events follow every written chunk and SUMMARY ends the response.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+
+    public enum Type {
+        ERROR,
+        PROGRESS,
+        SUMMARY
+    }
+
+    private final Type type;
+
+    // Line number of a rejected line (ERROR only)
+    private final Long line;
+
+    // Reason a line was rejected (ERROR only)
+    private final String message;
+
+    // Counters so far (PROGRESS and SUMMARY only): data lines read, rows written, lines rejected
+    private final Long rowsRead;
+    private final Long imported;
+    private final Long failed;
+
+    private ImportEvent(Type type, Long line, String message, Long rowsRead, Long imported, Long failed) {
+        this.type = type;
+        this.line = line;
+        this.message = message;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.failed = failed;
+    }
+
+    public static ImportEvent error(long line, String message) {
+        return new ImportEvent(Type.ERROR, line, message, null, null, null);
+    }
+
+    public static ImportEvent progress(long rowsRead, long imported, long failed) {
+        return new ImportEvent(Type.PROGRESS, null, null, rowsRead, imported, failed);
+    }
+
+    public static ImportEvent summary(long rowsRead, long imported, long failed) {
+        return new ImportEvent(Type.SUMMARY, null, null, rowsRead, imported, failed);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Long getRowsRead() {
+        return rowsRead;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.warehouserest_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+// One page of a keyset (cursor) paginated result.
+// The next page is requested by passing nextCursor back as the cursor parameter; it is null on the last page.
+public class KeysetPage<T> {
+
+    // Items of this page in key order
+    private final List<T> items;
+
+    // Opaque cursor pointing after the last item, or null if there are no more items
+    @Schema(description = "Cursor for the next page, null on the last page", example = "AAZNQVQxMDAABlNFUjEwMAAGU1VQMTAw")
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.warehouserest_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.warehouserest_api.model.PartId;
+
+// A committed change of one part, pushed to the subscribers of the change stream.
+// ADDED and QUANTITY_CHANGED carry the new quantity; QUANTITY_CHANGED also carries the applied delta
+// unless the quantity was replaced by an import.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PartChangeEvent {
+
+    public enum Type {
+        ADDED,
+        QUANTITY_CHANGED,
+        DELETED
+    }
+
+    private final Type type;
+
+    private final PartId id;
+
+    private final Integer quantity;
+
+    private final Integer delta;
+
+    private PartChangeEvent(Type type, PartId id, Integer quantity, Integer delta) {
+        this.type = type;
+        this.id = id;
+        this.quantity = quantity;
+        this.delta = delta;
+    }
+
+    public static PartChangeEvent added(PartId id, int quantity) {
+        return new PartChangeEvent(Type.ADDED, id, quantity, null);
+    }
+
+    public static PartChangeEvent quantityChanged(PartId id, int quantity, Integer delta) {
+        return new PartChangeEvent(Type.QUANTITY_CHANGED, id, quantity, delta);
+    }
+
+    public static PartChangeEvent deleted(PartId id) {
+        return new PartChangeEvent(Type.DELETED, id, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public PartId getId() {
+        return id;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+}
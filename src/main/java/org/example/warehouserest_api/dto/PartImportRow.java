@@ -0,0 +1,58 @@
+package org.example.warehouserest_api.dto;
+
+// One line of a bulk import: a part identifier and, optionally, the quantity it should have.
+// NDJSON lines are read into this class; CSV lines use the same columns in this order.
+public class PartImportRow {
+
+    private String materialNumber;
+
+    private String serialNumber;
+
+    private String supplierNumber;
+
+    // Quantity to set; null when not given, in which case an existing part keeps its stock
+    private Integer quantity;
+
+    public PartImportRow() {
+    }
+
+    public PartImportRow(String materialNumber, String serialNumber, String supplierNumber, Integer quantity) {
+        this.materialNumber = materialNumber;
+        this.serialNumber = serialNumber;
+        this.supplierNumber = supplierNumber;
+        this.quantity = quantity;
+    }
+
+    // Getters and setters
+    public String getMaterialNumber() {
+        return materialNumber;
+    }
+
+    public void setMaterialNumber(String materialNumber) {
+        this.materialNumber = materialNumber;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public void setSerialNumber(String serialNumber) {
+        this.serialNumber = serialNumber;
+    }
+
+    public String getSupplierNumber() {
+        return supplierNumber;
+    }
+
+    public void setSupplierNumber(String supplierNumber) {
+        this.supplierNumber = supplierNumber;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.warehouserest_api.dto;
+
+import org.example.warehouserest_api.model.PartId;
+
+// Read-only projection of a part returned by the search endpoints: identifier and quantity only.
+// Has the same JSON shape as Part.
+public class PartSummary {
+
+    private final PartId id;
+
+    private final int quantity;
+
+    public PartSummary(PartId id, int quantity) {
+        this.id = id;
+        this.quantity = quantity;
+    }
+
+    public PartId getId() {
+        return id;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+}
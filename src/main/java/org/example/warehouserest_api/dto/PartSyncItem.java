@@ -0,0 +1,42 @@
+package org.example.warehouserest_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.warehouserest_api.model.PartId;
+
+// One entry of a delta sync: the current state of a created or changed part, or a deleted part (tombstone).
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PartSyncItem {
+
+    private final PartId id;
+
+    // Current quantity; null for deleted parts
+    private final Integer quantity;
+
+    // Change sequence of the write this entry reflects
+    private final long sequence;
+
+    private final boolean deleted;
+
+    public PartSyncItem(PartId id, Integer quantity, long sequence, boolean deleted) {
+        this.id = id;
+        this.quantity = quantity;
+        this.sequence = sequence;
+        this.deleted = deleted;
+    }
+
+    public PartId getId() {
+        return id;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.warehouserest_api.dto;
+
+import java.util.List;
+
+// One page of a delta sync, in change sequence order.
+// The client stores nextSince and passes it as since in the next sync; while hasMore is true it can continue right away.
+public class PartSyncPage {
+
+    private final List<PartSyncItem> changes;
+
+    private final long nextSince;
+
+    private final boolean hasMore;
+
+    public PartSyncPage(List<PartSyncItem> changes, long nextSince, boolean hasMore) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+
+    public List<PartSyncItem> getChanges() {
+        return changes;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.warehouserest_api.dto;
+
+import java.util.List;
+
+// Buckets of supplier numbers assigned to one shard.
+public class ShardStatus {
+
+    private final String name;
+
+    // Number of buckets assigned to the shard
+    private final int bucketCount;
+
+    // Buckets of the shard that are being moved
+    private final List<Integer> movingBuckets;
+
+    public ShardStatus(String name, int bucketCount, List<Integer> movingBuckets) {
+        this.name = name;
+        this.bucketCount = bucketCount;
+        this.movingBuckets = movingBuckets;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public List<Integer> getMovingBuckets() {
+        return movingBuckets;
+    }
+}
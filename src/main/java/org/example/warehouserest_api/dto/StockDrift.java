@@ -0,0 +1,53 @@
+package org.example.warehouserest_api.dto;
+
+import org.example.warehouserest_api.model.StockDimension;
+
+// A stock total whose recorded values differ from the ones computed from the parts table.
+public class StockDrift {
+
+    private final StockDimension dimension;
+
+    private final String groupKey;
+
+    private final long recordedQuantity;
+
+    private final long actualQuantity;
+
+    private final long recordedParts;
+
+    private final long actualParts;
+
+    public StockDrift(StockDimension dimension, String groupKey, long recordedQuantity, long actualQuantity,
+                      long recordedParts, long actualParts) {
+        this.dimension = dimension;
+        this.groupKey = groupKey;
+        this.recordedQuantity = recordedQuantity;
+        this.actualQuantity = actualQuantity;
+        this.recordedParts = recordedParts;
+        this.actualParts = actualParts;
+    }
+
+    public StockDimension getDimension() {
+        return dimension;
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public long getRecordedQuantity() {
+        return recordedQuantity;
+    }
+
+    public long getActualQuantity() {
+        return actualQuantity;
+    }
+
+    public long getRecordedParts() {
+        return recordedParts;
+    }
+
+    public long getActualParts() {
+        return actualParts;
+    }
+}
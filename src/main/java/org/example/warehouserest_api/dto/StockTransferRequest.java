@@ -0,0 +1,29 @@
+package org.example.warehouserest_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+
+import java.util.List;
+
+// Request body of the stock transfer endpoint.
+public class StockTransferRequest {
+
+    // The deltas of each part are added up and applied together; the order of the operations does not matter
+    @NotEmpty
+    @Size(max = BatchAdjustmentRequest.MAX_OPERATIONS)
+    @Schema(description = "Signed quantity changes, for example -5 on the source part and +5 on the target part")
+    private List<@Valid @NotNull QuantityAdjustment> operations;
+
+    // Getters and setters
+    public List<QuantityAdjustment> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<QuantityAdjustment> operations) {
+        this.operations = operations;
+    }
+}
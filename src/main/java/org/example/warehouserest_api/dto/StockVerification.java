@@ -0,0 +1,42 @@
+package org.example.warehouserest_api.dto;
+
+import java.util.List;
+
+// Result of comparing the stock totals with the parts table.
+public class StockVerification {
+
+    // Number of totals compared
+    private final long checked;
+
+    // Number of totals that had drifted
+    private final long driftCount;
+
+    // Whether the drifted totals were corrected
+    private final boolean repaired;
+
+    // The first drifted totals (at most StockTotalService.MAX_REPORTED_DRIFTS)
+    private final List<StockDrift> drifts;
+
+    public StockVerification(long checked, long driftCount, boolean repaired, List<StockDrift> drifts) {
+        this.checked = checked;
+        this.driftCount = driftCount;
+        this.repaired = repaired;
+        this.drifts = drifts;
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public long getDriftCount() {
+        return driftCount;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    public List<StockDrift> getDrifts() {
+        return drifts;
+    }
+}
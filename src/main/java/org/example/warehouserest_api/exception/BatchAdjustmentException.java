@@ -0,0 +1,20 @@
+package org.example.warehouserest_api.exception;
+
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
+
+// Thrown when an all-or-nothing batch adjustment cannot be applied completely.
+// Throwing it rolls back the surrounding transaction; the per-operation results are returned to the client.
+public class BatchAdjustmentException extends RuntimeException {
+
+    private final transient BatchAdjustmentResponse response;
+
+    public BatchAdjustmentException(BatchAdjustmentResponse response) {
+        super(String.format("Batch adjustment rejected: %d of %d operations failed",
+                response.getFailed(), response.getResults().size()));
+        this.response = response;
+    }
+
+    public BatchAdjustmentResponse getResponse() {
+        return response;
+    }
+}
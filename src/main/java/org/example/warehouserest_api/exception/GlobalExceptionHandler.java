@@ -1,13 +1,18 @@
 package org.example.warehouserest_api.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.persistence.OptimisticLockException;
 
@@ -17,10 +22,18 @@ import java.util.Map;
 
 // Global exception handler for the entire application.
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Registry for the optimistic locking failure counters
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     // Handles Spring's ResponseStatusException which is used throughout the application
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException ex) {
@@ -57,10 +70,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    // Handles all-or-nothing batch adjustments that were rolled back.
+    // Returns the per-operation results so the client can see which operations failed.
+    @ExceptionHandler(BatchAdjustmentException.class)
+    public ResponseEntity<BatchAdjustmentResponse> handleBatchAdjustmentException(BatchAdjustmentException ex) {
+        logger.error("Batch adjustment exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getResponse(), HttpStatus.CONFLICT);
+    }
+
     // Handles OptimisticLockException exception that is thrown when a version conflict occurs
-    @ExceptionHandler(OptimisticLockException.class)
-    public ResponseEntity<ErrorResponse> handleOptimisticLockException(OptimisticLockException ex) {
+    // and persisted through the server-side retries (ConflictRetryAspect).
+    // Spring translates it to OptimisticLockingFailureException when it leaves a repository, so both are handled.
+    // Failures are counted per operation (controller method).
+    @ExceptionHandler({OptimisticLockException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleOptimisticLockException(Exception ex, HandlerMethod handlerMethod) {
         logger.error("Optimistic lock exception: {}", ex.getMessage());
+        meterRegistry.counter("warehouse.optimistic.lock.failures", "operation", handlerMethod.getMethod().getName()).increment();
 
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.CONFLICT.value(),
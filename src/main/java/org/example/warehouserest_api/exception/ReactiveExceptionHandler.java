@@ -0,0 +1,71 @@
+package org.example.warehouserest_api.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Exception handler of the reactive API, with the same status codes and response bodies as GlobalExceptionHandler.
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Validation errors of @Valid request bodies; WebFlux reports them as a ResponseStatusException subclass
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<GlobalExceptionHandler.ValidationErrorResponse> handleValidationExceptions(WebExchangeBindException ex) {
+        logger.error("Validation error occurred: {}", ex.getMessage());
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach(error -> errors.put(((FieldError) error).getField(), error.getDefaultMessage()));
+        return new ResponseEntity<>(new GlobalExceptionHandler.ValidationErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), "Validation failed", LocalDateTime.now(), errors), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<GlobalExceptionHandler.ErrorResponse> handleResponseStatusException(ResponseStatusException ex) {
+        logger.error("Handling ResponseStatusException: {}", ex.getMessage());
+        return new ResponseEntity<>(new GlobalExceptionHandler.ErrorResponse(
+                ex.getStatusCode().value(), ex.getReason(), LocalDateTime.now()), ex.getStatusCode());
+    }
+
+    // Version conflicts that persisted through the retries, counted per operation like in the servlet API
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<GlobalExceptionHandler.ErrorResponse> handleOptimisticLockException(Exception ex, ServerWebExchange exchange) {
+        logger.error("Optimistic lock exception: {}", ex.getMessage());
+        Object handler = exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        String operation = handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : "unknown";
+        meterRegistry.counter("warehouse.optimistic.lock.failures", "operation", operation).increment();
+        return new ResponseEntity<>(new GlobalExceptionHandler.ErrorResponse(HttpStatus.CONFLICT.value(),
+                "Cannot update the part because it was modified by another transaction. Please try again.",
+                LocalDateTime.now()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<GlobalExceptionHandler.ErrorResponse> handleGeneralException(Exception ex) {
+        logger.error("Unhandled exception occurred", ex);
+        return new ResponseEntity<>(new GlobalExceptionHandler.ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "An unexpected error occurred", LocalDateTime.now()), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.warehouserest_api.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Asynchronous appender that leaves message formatting to the worker thread.
+// Logback's AsyncAppender formats every message on the logging thread before queueing it; this one only captures
+// what has to be taken from the calling thread (thread name and MDC), so the request thread just enqueues the event.
+// Log arguments are therefore rendered later and must not be mutated after logging (the service only logs
+// identifiers, amounts and quantities).
+// Events are held in a bounded queue; see logback-spring.xml for the discard policy. Dropped events are counted.
+public class DeferredFormattingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder droppedEvents = new LongAdder();
+
+    // Number of events dropped because the queue was full or above the discarding threshold
+    public static long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    protected void preprocess(ILoggingEvent event) {
+        event.getThreadName();
+        event.getMDCPropertyMap();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (remaining == 0 && isNeverBlock())) {
+            droppedEvents.increment();
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.warehouserest_api.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Enables SQL statement and parameter logging only for requests picked by SqlLogSamplingFilter.
+// The SQL loggers stay at INFO, so for every other request Hibernate and JdbcTemplate skip building the log lines.
+public class SampledSqlTurboFilter extends TurboFilter {
+
+    // MDC key set for the duration of a sampled request
+    public static final String SAMPLED_KEY = "sqlSampled";
+
+    private static final String[] SQL_LOGGERS = {
+            "org.hibernate.SQL",
+            "org.hibernate.orm.jdbc.bind",
+            "org.springframework.jdbc.core.JdbcTemplate",
+            "org.springframework.jdbc.core.StatementCreatorUtils"
+    };
+
+    // Resolved SQL loggers, compared by identity
+    private Logger[] sqlLoggers = new Logger[0];
+
+    @Override
+    public void start() {
+        LoggerContext loggerContext = (LoggerContext) getContext();
+        sqlLoggers = new Logger[SQL_LOGGERS.length];
+        for (int i = 0; i < SQL_LOGGERS.length; i++) {
+            sqlLoggers[i] = loggerContext.getLogger(SQL_LOGGERS[i]);
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        for (Logger sqlLogger : sqlLoggers) {
+            if (sqlLogger == logger) {
+                return MDC.get(SAMPLED_KEY) != null ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
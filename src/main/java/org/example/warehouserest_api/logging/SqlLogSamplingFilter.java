@@ -0,0 +1,43 @@
+package org.example.warehouserest_api.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.warehouserest_api.config.LoggingProperties;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Picks a sample of requests (warehouse.logging.sql-sample-rate) whose SQL statements are logged.
+// The choice is marked in the MDC, where SampledSqlTurboFilter reads it.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SqlLogSamplingFilter extends OncePerRequestFilter {
+
+    private final LoggingProperties properties;
+
+    public SqlLogSamplingFilter(LoggingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        double sampleRate = properties.getSqlSampleRate();
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(SampledSqlTurboFilter.SAMPLED_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SampledSqlTurboFilter.SAMPLED_KEY);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.warehouserest_api.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Adds up the time the current thread spends in repository calls.
+// Installed as an interceptor on the repository proxies, so it reuses the invocation the proxy already creates;
+// the request filter resets and reads it per request to split database time from total time.
+public final class DatabaseTime implements MethodInterceptor {
+
+    private static final ThreadLocal<Accumulator> CURRENT = ThreadLocal.withInitial(Accumulator::new);
+
+    // Starts a new measurement on the current thread
+    static void reset() {
+        Accumulator accumulator = CURRENT.get();
+        accumulator.nanos = 0;
+        accumulator.depth = 0;
+    }
+
+    // Database time of the current thread since the last reset
+    static long elapsedNanos() {
+        return CURRENT.get().nanos;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Accumulator accumulator = CURRENT.get();
+        // Only the outermost repository call is timed
+        if (accumulator.depth++ > 0) {
+            try {
+                return invocation.proceed();
+            } finally {
+                accumulator.depth--;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            accumulator.nanos += System.nanoTime() - start;
+            accumulator.depth--;
+        }
+    }
+
+    private static final class Accumulator {
+        long nanos;
+        int depth;
+    }
+}
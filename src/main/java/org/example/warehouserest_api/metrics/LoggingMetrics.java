@@ -0,0 +1,20 @@
+package org.example.warehouserest_api.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.warehouserest_api.logging.DeferredFormattingAsyncAppender;
+import org.springframework.stereotype.Component;
+
+// Publishes the number of log events dropped by the asynchronous appender of the prod logging profile
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("warehouse.logging.dropped.events", DeferredFormattingAsyncAppender.class,
+                        appender -> DeferredFormattingAsyncAppender.getDroppedEvents())
+                .description("Log events dropped because the asynchronous log queue was full")
+                .register(registry);
+    }
+}
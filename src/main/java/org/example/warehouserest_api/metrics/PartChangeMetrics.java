@@ -0,0 +1,29 @@
+package org.example.warehouserest_api.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.warehouserest_api.service.PartChangeStream;
+import org.springframework.stereotype.Component;
+
+// Publishes the number of open part change streams and the events they dropped
+@Component
+public class PartChangeMetrics implements MeterBinder {
+
+    private final PartChangeStream changeStream;
+
+    public PartChangeMetrics(PartChangeStream changeStream) {
+        this.changeStream = changeStream;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("warehouse.changes.subscribers", changeStream, PartChangeStream::getSubscriberCount)
+                .description("Open Server-Sent Events streams of part changes")
+                .register(registry);
+        FunctionCounter.builder("warehouse.changes.dropped.events", changeStream, PartChangeStream::getDroppedEvents)
+                .description("Part change events not delivered because a subscriber's buffer was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.warehouserest_api.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+// Adds the DatabaseTime interceptor to every Spring Data repository proxy.
+// Covers the derived queries as well as the JDBC custom fragment (PartRepositoryCustomImpl).
+@Component
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+
+    private static final DatabaseTime DATABASE_TIME = new DatabaseTime();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(DATABASE_TIME)));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.warehouserest_api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.warehouserest_api.WarehouseRestApiApplication;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Records latency, database time and 404/409 responses per API endpoint.
+// All meters are registered at startup, one set per controller method (tagged Controller#method), and looked up
+// by the handler method of the request, so a successful request records without allocating tags or meters.
+// Replaces Spring Boot's http.server.requests observation, which is switched off in application.properties.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter implements SmartInitializingSingleton {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationContext applicationContext;
+
+    // Meters of each controller method
+    private final ConcurrentHashMap<Method, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry, ApplicationContext applicationContext) {
+        this.meterRegistry = meterRegistry;
+        this.applicationContext = applicationContext;
+    }
+
+    // Registers the meters of all application endpoints once the handler mappings exist
+    @Override
+    public void afterSingletonsInstantiated() {
+        String basePackage = WarehouseRestApiApplication.class.getPackageName();
+        RequestMappingHandlerMapping handlerMapping =
+                applicationContext.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        handlerMapping.getHandlerMethods().values().stream()
+                .filter(handlerMethod -> handlerMethod.getBeanType().getPackageName().startsWith(basePackage))
+                .forEach(handlerMethod -> endpoints.computeIfAbsent(handlerMethod.getMethod(),
+                        method -> new EndpointMeters(meterRegistry, endpointName(handlerMethod))));
+    }
+
+    // Tag value of an endpoint: controller and method, since method names repeat across controllers
+    private static String endpointName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        DatabaseTime.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            EndpointMeters meters = metersOf(request);
+            if (meters != null) {
+                if (request.isAsyncStarted()) {
+                    // Streamed responses are timed when the body has been written
+                    request.getAsyncContext().addListener(new CompletionListener(meters, start));
+                } else {
+                    meters.total.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    meters.database.record(DatabaseTime.elapsedNanos(), TimeUnit.NANOSECONDS);
+                    meters.countStatus(response.getStatus());
+                }
+            }
+        }
+    }
+
+    // Meters of the controller method that handled the request, or null for other requests
+    private EndpointMeters metersOf(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod handlerMethod ? endpoints.get(handlerMethod.getMethod()) : null;
+    }
+
+    // Pre-registered meters of one endpoint
+    private static final class EndpointMeters {
+        final Timer total;
+        final Timer database;
+        final Counter notFound;
+        final Counter conflict;
+
+        EndpointMeters(MeterRegistry registry, String endpoint) {
+            // Histogram buckets, so p50/p99/p999 can be computed with histogram_quantile across instances
+            this.total = Timer.builder("warehouse.http.requests")
+                    .description("Total time of API requests")
+                    .tag("endpoint", endpoint)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.database = Timer.builder("warehouse.http.requests.database")
+                    .description("Time API requests spent in repository calls")
+                    .tag("endpoint", endpoint)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry);
+            this.notFound = responses(registry, endpoint, "404");
+            this.conflict = responses(registry, endpoint, "409");
+        }
+
+        private static Counter responses(MeterRegistry registry, String endpoint, String status) {
+            return Counter.builder("warehouse.http.responses")
+                    .description("API responses by status")
+                    .tag("endpoint", endpoint)
+                    .tag("status", status)
+                    .register(registry);
+        }
+
+        void countStatus(int status) {
+            if (status == 404) {
+                notFound.increment();
+            } else if (status == 409) {
+                conflict.increment();
+            }
+        }
+    }
+
+    // Records a streamed request when its asynchronous processing is complete.
+    // The body is written on another thread, so no database time is recorded for it.
+    private static final class CompletionListener implements AsyncListener {
+        private final EndpointMeters meters;
+        private final long start;
+
+        CompletionListener(EndpointMeters meters, long start) {
+            this.meters = meters;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            meters.total.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.getSuppliedResponse() instanceof HttpServletResponse response) {
+                meters.countStatus(response.getStatus());
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
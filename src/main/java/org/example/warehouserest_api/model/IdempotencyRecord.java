@@ -0,0 +1,79 @@
+package org.example.warehouserest_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// Entity holding the response of a request made with an Idempotency-Key header, so a retry gets the same response
+// without the change being applied again. Written in the transaction of the change itself.
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    // Key chosen by the client
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // SHA-256 of the request, to reject reuse of a key for a different request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // HTTP status of the stored response
+    @Column(nullable = false)
+    private int status;
+
+    // ETag header of the stored response, if any
+    @Column(name = "etag", length = 100)
+    private String eTag;
+
+    // JSON body of the stored response
+    @Column(columnDefinition = "text")
+    private String body;
+
+    // When the response was stored; the record expires warehouse.idempotency.time-to-live later
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Default constructor required by JPA
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String requestHash, int status, String eTag, String body, Instant createdAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.status = status;
+        this.eTag = eTag;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public String getKey() {
+        return key;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -7,13 +7,29 @@ import jakarta.validation.constraints.NotNull;
 
 
 // Entity class representing a part in the warehouse inventory.
-// Each part has a composite identifier (PartId) and a quantity.
+// Each part has a composite business identifier (PartId) and a quantity.
+// Internally rows are keyed by a compact surrogate key; the business identifier is unique.
 @Entity
-@Table(name = "parts")
+// The unique index also serves searches by material number; idx_parts_supplier serves searches by supplier number
+// and idx_parts_sync_seq the delta sync.
+@Table(name = "parts",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_parts_part_id", columnNames = {"material_number", "serial_number", "supplier_number"}),
+        indexes = {
+                @Index(name = "idx_parts_supplier", columnList = "supplier_number, material_number, serial_number"),
+                @Index(name = "idx_parts_sync_seq", columnList = "sync_seq")
+        })
 public class Part {
 
-    // Composite primary key consisting of material number, serial number, and supplier number
-    @EmbeddedId
+    // Surrogate primary key, only used inside the service and never exposed through the API
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "part_key")
+    @JsonIgnore
+    private Long key;
+
+    // Business identifier consisting of material number, serial number, and supplier number
+    @Embedded
     private PartId id;
 
     // Current quantity of this part in the warehouse.
@@ -29,6 +45,19 @@ public class Part {
     @JsonIgnore
     private Long version;
 
+    // Value of the part_change_seq sequence taken by the last write of this part, which orders the writes
+    // that are sequenced for the delta sync together.
+    // Set once on insert; the JDBC updates take a new value, so JPA never writes it back.
+    @Column(name = "change_seq", updatable = false)
+    @JsonIgnore
+    private Long changeSeq;
+
+    // Position of the last write of this part in the commit-ordered change log read by the delta sync.
+    // Null until the committed write is sequenced (PartRepositoryCustom.sequenceChanges); every JDBC write resets it.
+    @Column(name = "sync_seq", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long syncSeq;
+
     // Default constructor required by JPA
     public Part() {
     }
@@ -40,6 +69,14 @@ public class Part {
     }
 
     // Getters and setters
+    public Long getKey() {
+        return key;
+    }
+
+    public void setKey(Long key) {
+        this.key = key;
+    }
+
     public PartId getId() {
         return id;
     }
@@ -63,4 +100,16 @@ public class Part {
     public void setVersion(Long version) {
         this.version = version;
     }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getSyncSeq() {
+        return syncSeq;
+    }
 }
@@ -1,23 +1,32 @@
 package org.example.warehouserest_api.model;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.io.Serializable;
+import java.util.Comparator;
 import java.util.Objects;
 
-// Embeddable class representing the composite primary key for a Part entity.
+// Embeddable class representing the composite business identifier of a Part entity.
 // Consists of material number, serial number, and supplier number.
+// Used as a hash key on hot paths, so the hash code is computed once and cached.
+// Ordered by material, serial and supplier number as Java strings, the key order of listings and search pages.
 @Embeddable
-public class PartId implements Serializable {
+public class PartId implements Serializable, Comparable<PartId> {
+
+    private static final Comparator<PartId> ORDER = Comparator.comparing(PartId::getMaterialNumber)
+            .thenComparing(PartId::getSerialNumber)
+            .thenComparing(PartId::getSupplierNumber);
 
     // Material number
     @NotNull
     @NotBlank
     @Size(min = 1, max = 50)
+    @Column(name = "material_number", nullable = false, length = 50)
     @Schema(description = "Material Number", example = "MAT100")
     private String materialNumber;
 
@@ -25,6 +34,7 @@ public class PartId implements Serializable {
     @NotNull
     @NotBlank
     @Size(min = 1, max = 50)
+    @Column(name = "serial_number", nullable = false, length = 50)
     @Schema(description = "Serial Number", example = "SER100")
     private String serialNumber;
 
@@ -32,9 +42,13 @@ public class PartId implements Serializable {
     @NotNull
     @NotBlank
     @Size(min = 1, max = 50)
+    @Column(name = "supplier_number", nullable = false, length = 50)
     @Schema(description = "Supplier Number", example = "SUP100")
     private String supplierNumber;
 
+    // Cached hash code, 0 until first computed; reset whenever a component changes
+    private transient int hash;
+
     // Default constructor required by JPA
     public PartId() {
     }
@@ -53,6 +67,7 @@ public class PartId implements Serializable {
 
     public void setMaterialNumber(String materialNumber) {
         this.materialNumber = materialNumber;
+        this.hash = 0;
     }
 
     public String getSerialNumber() {
@@ -61,6 +76,7 @@ public class PartId implements Serializable {
 
     public void setSerialNumber(String serialNumber) {
         this.serialNumber = serialNumber;
+        this.hash = 0;
     }
 
     public String getSupplierNumber() {
@@ -69,15 +85,23 @@ public class PartId implements Serializable {
 
     public void setSupplierNumber(String supplierNumber) {
         this.supplierNumber = supplierNumber;
+        this.hash = 0;
+    }
+
+    @Override
+    public int compareTo(PartId other) {
+        return ORDER.compare(this, other);
     }
 
     // Implements equals method for proper comparison of composite keys.
     // All three components must match for two PartId objects to be equal.
+    // Differing cached hash codes rule out equality without comparing the strings.
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof PartId)) return false;
         PartId partId = (PartId) o;
+        if (hash != 0 && partId.hash != 0 && hash != partId.hash) return false;
         return Objects.equals(materialNumber, partId.materialNumber) &&
                 Objects.equals(serialNumber, partId.serialNumber) &&
                 Objects.equals(supplierNumber, partId.supplierNumber);
@@ -85,9 +109,15 @@ public class PartId implements Serializable {
 
     // Generates hash code for the composite key.
     // Must be consistent with equals method for proper HashMap operation.
+    // Computed without the varargs array of Objects.hash and cached after the first call.
     @Override
     public int hashCode() {
-        return Objects.hash(materialNumber, serialNumber, supplierNumber);
+        int h = hash;
+        if (h == 0) {
+            h = 31 * (31 * Objects.hashCode(materialNumber) + Objects.hashCode(serialNumber)) + Objects.hashCode(supplierNumber);
+            hash = h;
+        }
+        return h;
     }
 
     // Creates a string representation of this PartId
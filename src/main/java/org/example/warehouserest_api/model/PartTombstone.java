@@ -0,0 +1,43 @@
+package org.example.warehouserest_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Entity recording that a part was deleted, so the delta sync can report deletions.
+// One row per business identifier; deleting a re-created part again moves its change sequence forward.
+@Entity
+@Table(name = "part_tombstones", indexes = @Index(name = "idx_part_tombstones_sync_seq", columnList = "sync_seq"))
+public class PartTombstone {
+
+    // Business identifier of the deleted part
+    @EmbeddedId
+    private PartId id;
+
+    // Value of the part_change_seq sequence taken by the deletion
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    // Position of the deletion in the commit-ordered change log, null until it is sequenced
+    @Column(name = "sync_seq")
+    private Long syncSeq;
+
+    // Default constructor required by JPA
+    public PartTombstone() {
+    }
+
+    // Getters
+    public PartId getId() {
+        return id;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public Long getSyncSeq() {
+        return syncSeq;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.warehouserest_api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+// A signed change to the quantity of one part.
+// A positive delta increases the quantity, a negative delta decreases it.
+public class QuantityAdjustment {
+
+    // Identifier of the part to adjust
+    @NotNull
+    @Valid
+    private PartId id;
+
+    // Amount to add (positive) or subtract (negative); must not be zero
+    @Schema(description = "Amount to add (positive) or subtract (negative)", example = "5")
+    private int delta;
+
+    // Default constructor required for JSON deserialization
+    public QuantityAdjustment() {
+    }
+
+    public QuantityAdjustment(PartId id, int delta) {
+        this.id = id;
+        this.delta = delta;
+    }
+
+    // Getters and setters
+    public PartId getId() {
+        return id;
+    }
+
+    public void setId(PartId id) {
+        this.id = id;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.warehouserest_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Entity assigning one hash bucket of supplier numbers to a shard (warehouse.sharding).
+// The bucket map is kept in the home shard's database, so all instances route the same way.
+@Entity
+@Table(name = "shard_buckets")
+public class ShardBucket {
+
+    // Bucket number, between 0 and warehouse.sharding.buckets - 1
+    @Id
+    private int bucket;
+
+    // Index of the shard holding the parts of the bucket
+    @Column(nullable = false)
+    private int shard;
+
+    // Set while the bucket is being moved; writes to its parts wait until it is cleared
+    @Column(nullable = false)
+    private boolean moving;
+
+    // Default constructor required by JPA
+    public ShardBucket() {
+    }
+
+    public ShardBucket(int bucket, int shard) {
+        this.bucket = bucket;
+        this.shard = shard;
+    }
+
+    // Getters and setters
+    public int getBucket() {
+        return bucket;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public boolean isMoving() {
+        return moving;
+    }
+
+    public void setMoving(boolean moving) {
+        this.moving = moving;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.warehouserest_api.model;
+
+// Part attribute by which stock totals are aggregated.
+public enum StockDimension {
+    MATERIAL,
+    SUPPLIER;
+
+    // Returns the value of this attribute for the given part
+    public String groupKeyOf(PartId partId) {
+        return this == MATERIAL ? partId.getMaterialNumber() : partId.getSupplierNumber();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.warehouserest_api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+// Entity holding the total quantity and number of parts of one material or supplier.
+// Maintained incrementally in the transaction of every part change, so reading a total is a primary key lookup.
+@Entity
+@Table(name = "stock_totals")
+public class StockTotal {
+
+    // Dimension and material or supplier number
+    @EmbeddedId
+    private StockTotalId id;
+
+    // Sum of the quantities of all parts in the group
+    @Column(nullable = false)
+    @Schema(description = "Total quantity", example = "120")
+    private long quantity;
+
+    // Number of parts in the group
+    @Column(nullable = false)
+    @Schema(description = "Number of parts", example = "3")
+    private long parts;
+
+    // Default constructor required by JPA
+    public StockTotal() {
+    }
+
+    public StockTotal(StockTotalId id, long quantity, long parts) {
+        this.id = id;
+        this.quantity = quantity;
+        this.parts = parts;
+    }
+
+    // Getters and setters
+    public StockTotalId getId() {
+        return id;
+    }
+
+    public void setId(StockTotalId id) {
+        this.id = id;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public long getParts() {
+        return parts;
+    }
+
+    public void setParts(long parts) {
+        this.parts = parts;
+    }
+}
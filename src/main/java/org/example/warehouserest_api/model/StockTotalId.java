@@ -0,0 +1,80 @@
+package org.example.warehouserest_api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Objects;
+
+// Embeddable identifier of a stock total: the dimension and the material or supplier number.
+// Ordered by dimension and then group key, which is the order in which totals are locked.
+@Embeddable
+public class StockTotalId implements Serializable, Comparable<StockTotalId> {
+
+    private static final Comparator<StockTotalId> ORDER =
+            Comparator.comparing(StockTotalId::getDimension).thenComparing(StockTotalId::getGroupKey);
+
+    // Attribute the total is aggregated by
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 16)
+    @Schema(description = "Aggregation dimension", example = "MATERIAL")
+    private StockDimension dimension;
+
+    // Material or supplier number, depending on the dimension
+    @Column(name = "group_key", nullable = false, length = 50)
+    @Schema(description = "Material or supplier number", example = "MAT100")
+    private String groupKey;
+
+    // Default constructor required by JPA
+    public StockTotalId() {
+    }
+
+    public StockTotalId(StockDimension dimension, String groupKey) {
+        this.dimension = dimension;
+        this.groupKey = groupKey;
+    }
+
+    // Getters and setters
+    public StockDimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(StockDimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    @Override
+    public int compareTo(StockTotalId other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockTotalId)) return false;
+        StockTotalId that = (StockTotalId) o;
+        return dimension == that.dimension && Objects.equals(groupKey, that.groupKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(dimension) + Objects.hashCode(groupKey);
+    }
+
+    @Override
+    public String toString() {
+        return dimension + ":" + groupKey;
+    }
+}
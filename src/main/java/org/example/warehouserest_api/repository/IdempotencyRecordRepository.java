@@ -0,0 +1,11 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repository for the stored responses of idempotent requests.
+// Lookups go through JpaRepository; inserts and the cleanup are JDBC operations from IdempotencyRecordRepositoryCustom.
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String>, IdempotencyRecordRepositoryCustom {
+}
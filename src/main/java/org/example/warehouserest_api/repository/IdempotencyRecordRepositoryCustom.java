@@ -0,0 +1,23 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.IdempotencyRecord;
+
+import java.time.Instant;
+
+// Custom idempotency key operations implemented with plain JDBC.
+public interface IdempotencyRecordRepositoryCustom {
+
+    // Inserts the record. Fails with DuplicateKeyException if the key exists; if another transaction
+    // is inserting the same key, the insert waits for it to commit or roll back first.
+    void insertRecord(IdempotencyRecord record);
+
+    // Deletes the record of the key if it was created before the given instant.
+    int deleteExpired(String key, Instant createdBefore);
+
+    // Deletes all records created before the given instant.
+    int deleteCreatedBefore(Instant createdBefore);
+
+    // Deletes the oldest records so that at most maximumEntries remain (records created at the same
+    // instant as the newest deleted one are deleted as well).
+    int trimTo(long maximumEntries);
+}
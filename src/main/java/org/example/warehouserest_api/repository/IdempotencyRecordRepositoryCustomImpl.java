@@ -0,0 +1,62 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.IdempotencyRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// JDBC implementation of the custom IdempotencyRecordRepository operations.
+class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    private static final String INSERT_RECORD =
+            "INSERT INTO idempotency_keys (idempotency_key, request_hash, status, etag, body, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND created_at < ?";
+
+    private static final String DELETE_CREATED_BEFORE =
+            "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    // Creation time of the newest record beyond the limit, found by walking the created_at index
+    private static final String NTH_NEWEST =
+            "SELECT created_at FROM idempotency_keys ORDER BY created_at DESC OFFSET ? ROWS FETCH FIRST 1 ROWS ONLY";
+
+    private static final String DELETE_UP_TO =
+            "DELETE FROM idempotency_keys WHERE created_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    IdempotencyRecordRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertRecord(IdempotencyRecord record) {
+        jdbcTemplate.update(INSERT_RECORD, record.getKey(), record.getRequestHash(), record.getStatus(),
+                record.getETag(), record.getBody(), timestamp(record.getCreatedAt()));
+    }
+
+    @Override
+    public int deleteExpired(String key, Instant createdBefore) {
+        return jdbcTemplate.update(DELETE_EXPIRED, key, timestamp(createdBefore));
+    }
+
+    @Override
+    public int deleteCreatedBefore(Instant createdBefore) {
+        return jdbcTemplate.update(DELETE_CREATED_BEFORE, timestamp(createdBefore));
+    }
+
+    @Override
+    public int trimTo(long maximumEntries) {
+        List<OffsetDateTime> cutoff = jdbcTemplate.query(NTH_NEWEST,
+                (rs, rowNum) -> rs.getObject(1, OffsetDateTime.class), maximumEntries);
+        return cutoff.isEmpty() ? 0 : jdbcTemplate.update(DELETE_UP_TO, cutoff.get(0));
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.warehouserest_api.repository;
+
+// Condition of a part search: one identifier column compared for equality or by prefix.
+// Results are ordered by the searched column first, so every search can be served from one index in key order.
+public class PartFilter {
+
+    public enum Field {
+        // Served by the unique index (material_number, serial_number, supplier_number),
+        // or idx_parts_material_prefix for a prefix
+        MATERIAL_NUMBER("material_number", "serial_number, supplier_number"),
+        // Served by idx_parts_supplier (supplier_number, material_number, serial_number),
+        // or idx_parts_supplier_prefix for a prefix
+        SUPPLIER_NUMBER("supplier_number", "material_number, serial_number");
+
+        final String column;
+
+        // Columns after the searched one in the sort order of the results, which is also the keyset of the paging
+        final String tieBreakColumns;
+
+        Field(String column, String tieBreakColumns) {
+            this.column = column;
+            this.tieBreakColumns = tieBreakColumns;
+        }
+    }
+
+    private final Field field;
+
+    private final String value;
+
+    private final boolean prefix;
+
+    private PartFilter(Field field, String value, boolean prefix) {
+        this.field = field;
+        this.value = value;
+        this.prefix = prefix;
+    }
+
+    // Parts whose field equals the value
+    public static PartFilter equalTo(Field field, String value) {
+        return new PartFilter(field, value, false);
+    }
+
+    // Parts whose field starts with the value
+    public static PartFilter startingWith(Field field, String value) {
+        return new PartFilter(field, value, true);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isPrefix() {
+        return prefix;
+    }
+}
@@ -2,11 +2,40 @@ package org.example.warehouserest_api.repository;
 
 import org.example.warehouserest_api.model.Part;
 import org.example.warehouserest_api.model.PartId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 // Repository interface for CRUD operations on Part entities.
-// Extends JpaRepository to inherit standard data access methods.
+// Extends JpaRepository to inherit standard data access methods by surrogate key
+// and PartRepositoryCustom for the JDBC-based bulk and streaming operations.
 @Repository
-public interface PartRepository extends JpaRepository<Part, PartId> {
+public interface PartRepository extends JpaRepository<Part, Long>, PartRepositoryCustom {
+
+    // Translates a business identifier into the surrogate key using the unique index
+    @Query("select p.key from Part p where p.id = :id")
+    Optional<Long> findKeyByPartId(@Param("id") PartId id);
+
+    // Returns only the version of a part, used to validate cached entries without loading the row
+    @Query("select p.version from Part p where p.key = :key")
+    Optional<Long> findVersionByKey(@Param("key") Long key);
+
+    // Returns the first keyset page of parts ordered by the composite ID
+    @Query("select p from Part p order by p.id.materialNumber, p.id.serialNumber, p.id.supplierNumber")
+    List<Part> findFirstPage(Limit limit);
+
+    // Returns the keyset page of parts that follow the given composite ID.
+    // Uses a row value comparison so the unique business key index can be scanned from the cursor position.
+    @Query("select p from Part p " +
+            "where (p.id.materialNumber, p.id.serialNumber, p.id.supplierNumber) > (:materialNumber, :serialNumber, :supplierNumber) " +
+            "order by p.id.materialNumber, p.id.serialNumber, p.id.supplierNumber")
+    List<Part> findPageAfter(@Param("materialNumber") String materialNumber,
+                             @Param("serialNumber") String serialNumber,
+                             @Param("supplierNumber") String supplierNumber,
+                             Limit limit);
 }
@@ -0,0 +1,96 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.dto.PartSyncItem;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Custom repository operations implemented with plain JDBC.
+// Used where going through the persistence context would cost too much memory or round trips.
+public interface PartRepositoryCustom {
+
+    // Streams all parts in composite ID order from a server-side cursor.
+    // Each row is handed to the action as a detached Part and is not kept in memory afterwards.
+    // Must be called inside a transaction so the JDBC driver can use a cursor instead of buffering the result.
+    // Returns the number of rows streamed.
+    long forEachPart(Consumer<Part> action);
+
+    // Atomically adds delta (which may be negative) to the quantity of the part with the given surrogate key
+    // in a single statement, but only if the resulting quantity stays non-negative. The version is incremented
+    // and a new change sequence value is taken as well.
+    // Returns the updated part (carrying the given business identifier), or empty if no row with that key and
+    // business identifier exists or the quantity would go negative.
+    Optional<Part> adjustQuantity(long key, PartId partId, int delta);
+
+    // Same as adjustQuantity, but only applied if the part still has the expected version (conditional write).
+    // Returns empty if the version differs as well.
+    Optional<Part> adjustQuantityIfVersion(long key, PartId partId, int delta, long expectedVersion);
+
+    // Applies the same conditional update as adjustQuantity to every (key, partId, delta) triple, in array order,
+    // using JDBC statement batching. Returns the number of updated rows per pair:
+    // 1 if it was applied, 0 if the part does not exist or the quantity would go negative or above the
+    // largest INTEGER. The range check is part of the condition, so an overflowing pair does not fail the batch.
+    int[] adjustQuantities(long[] keys, PartId[] partIds, int[] deltas);
+
+    // Inserts the given parts, or sets the quantity (and increments the version) of those that already exist,
+    // with one multi-row statement. The parts must have distinct business identifiers.
+    // Returns the number of inserted or updated rows.
+    int upsertParts(List<Part> parts);
+
+    // Creates the given parts with quantity 0 where they do not exist yet and leaves existing ones unchanged,
+    // with one multi-row statement. The identifiers must be distinct.
+    // Returns the number of inserted rows.
+    int insertMissingParts(List<PartId> partIds);
+
+    // Locks the existing parts among the given business identifiers (FOR UPDATE, in surrogate key order)
+    // and returns their quantities. Identifiers without a part are not in the result.
+    Map<PartId, Integer> lockQuantities(Collection<PartId> partIds);
+
+    // Same lock as lockQuantities, returning the locked parts (key, quantity, version) in surrogate key order.
+    // Every transaction locking its parts this way or updating them in key order (adjustQuantities with sorted
+    // keys) takes the row locks in the same order, so two of them can wait for each other but never deadlock.
+    // Keys are numbers, so the order does not depend on the database collation.
+    List<Part> lockParts(Collection<PartId> partIds);
+
+    // Returns up to limit parts matching the filter, in the filter's key order, as projections.
+    // If after is given, only parts following that part in key order are returned (keyset paging).
+    List<PartSummary> findParts(PartFilter filter, PartId after, int limit);
+
+    // Takes the next value of the change sequence, for a part inserted through JPA.
+    long nextChangeSeq();
+
+    // Gives the committed writes and deletions that have no position in the change log yet the next positions,
+    // in the order they were made, and returns the last position handed out (0 if there is none).
+    // Sequencing transactions are serialized by a lock held until they commit, so a position only becomes visible
+    // after all lower ones. Must run in a read-write transaction.
+    long sequenceChanges();
+
+    // Records the deletion of a part under a new change sequence value.
+    void recordTombstone(PartId partId);
+
+    // Returns up to limit sequenced parts and tombstones with a change log position greater than since,
+    // in change log order.
+    // Both are read through their sync_seq index, so the cost depends on the number of changes only.
+    List<PartSyncItem> findChangesSince(long since, int limit);
+
+    // Returns the distinct supplier numbers of all parts, read from the supplier index.
+    List<String> findSupplierNumbers();
+
+    // Returns up to limit parts of one supplier ordered by material and serial number, with their version.
+    // If after is given, only parts following that part are returned (keyset paging).
+    List<Part> findPartsOfSupplier(String supplierNumber, PartId after, int limit);
+
+    // Inserts copies of the given parts, keeping their quantity and version, under new surrogate keys and
+    // change sequence values, using JDBC statement batching. Used to move parts to another database.
+    void insertCopies(List<Part> parts);
+
+    // Deletes the parts with the given business identifiers without recording tombstones,
+    // for parts that were moved to another database. Returns the number of deleted rows.
+    int deleteMoved(List<PartId> partIds);
+}
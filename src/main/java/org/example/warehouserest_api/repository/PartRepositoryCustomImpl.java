@@ -0,0 +1,424 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.dto.PartSyncItem;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// JDBC implementation of the custom PartRepository operations.
+class PartRepositoryCustomImpl implements PartRepositoryCustom {
+
+    // Number of statements sent to the database per JDBC batch
+    static final int ADJUST_BATCH_SIZE = 200;
+
+    // Number of rows fetched from the database cursor per round trip while streaming
+    static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String SELECT_ALL_ORDERED =
+            "SELECT material_number, serial_number, supplier_number, quantity, version, part_key FROM parts " +
+            "ORDER BY material_number, serial_number, supplier_number";
+
+    // Projection used by the search queries; the WHERE condition on the filter column is appended
+    private static final String SELECT_SUMMARY =
+            "SELECT material_number, serial_number, supplier_number, quantity FROM parts WHERE ";
+
+    // Row lock on a set of parts by business identifier; the list of (?, ?, ?) rows is appended
+    private static final String LOCK_PARTS =
+            "SELECT material_number, serial_number, supplier_number, quantity, version, part_key FROM parts " +
+            "WHERE (material_number, serial_number, supplier_number) IN (";
+
+    // Conditional increment that only matches when the quantity stays non-negative. The business identifier is
+    // checked along with the surrogate key, so a stale key never changes another part.
+    private static final String ADJUST_QUANTITY =
+            "UPDATE parts SET quantity = quantity + ?, version = version + 1, change_seq = nextval('part_change_seq'), " +
+            "sync_seq = NULL " +
+            "WHERE part_key = ? AND material_number = ? AND serial_number = ? AND supplier_number = ? AND quantity + ? >= 0";
+
+    // Batched form of ADJUST_QUANTITY that also skips rows whose quantity would overflow; the sum is computed as
+    // BIGINT, so one such row does not abort the whole batch with an out-of-range error
+    private static final String ADJUST_QUANTITY_IN_RANGE =
+            "UPDATE parts SET quantity = quantity + ?, version = version + 1, change_seq = nextval('part_change_seq'), " +
+            "sync_seq = NULL " +
+            "WHERE part_key = ? AND material_number = ? AND serial_number = ? AND supplier_number = ? " +
+            "AND CAST(quantity AS BIGINT) + ? BETWEEN 0 AND 2147483647";
+
+    // Conditional increment that also requires the expected version
+    private static final String ADJUST_QUANTITY_IF_VERSION = ADJUST_QUANTITY + " AND version = ?";
+
+    private static final String NEXT_CHANGE_SEQ = "SELECT nextval('part_change_seq')";
+
+    private static final String PARTS_CHANGED_SINCE =
+            "SELECT material_number, serial_number, supplier_number, quantity, sync_seq FROM parts " +
+            "WHERE sync_seq > ? ORDER BY sync_seq LIMIT ?";
+
+    private static final String TOMBSTONES_SINCE =
+            "SELECT material_number, serial_number, supplier_number, sync_seq FROM part_tombstones " +
+            "WHERE sync_seq > ? ORDER BY sync_seq LIMIT ?";
+
+    // Whether a committed write is waiting to be sequenced; both lookups use the sync_seq indexes
+    private static final String HAS_UNSEQUENCED =
+            "SELECT EXISTS (SELECT 1 FROM parts WHERE sync_seq IS NULL) " +
+            "OR EXISTS (SELECT 1 FROM part_tombstones WHERE sync_seq IS NULL)";
+
+    private static final String SYNC_WATERMARK = "SELECT last_seq FROM part_sync_clock WHERE id = 1";
+
+    // Held until commit, so only one transaction at a time sequences writes
+    private static final String LOCK_SYNC_CLOCK = SYNC_WATERMARK + " FOR UPDATE";
+
+    private static final String ADVANCE_SYNC_CLOCK = "UPDATE part_sync_clock SET last_seq = ? WHERE id = 1";
+
+    // Rows locked by a running write are skipped instead of waited for: the write resets sync_seq again,
+    // so they are sequenced after it commits, behind anything sequenced now
+    private static final String LOCK_UNSEQUENCED_PARTS =
+            "SELECT part_key, change_seq FROM parts WHERE sync_seq IS NULL ORDER BY part_key FOR UPDATE SKIP LOCKED";
+
+    private static final String LOCK_UNSEQUENCED_TOMBSTONES =
+            "SELECT material_number, serial_number, supplier_number, change_seq FROM part_tombstones " +
+            "WHERE sync_seq IS NULL ORDER BY material_number, serial_number, supplier_number FOR UPDATE SKIP LOCKED";
+
+    private static final String SEQUENCE_PART = "UPDATE parts SET sync_seq = ? WHERE part_key = ?";
+
+    private static final String SEQUENCE_TOMBSTONE = "UPDATE part_tombstones SET sync_seq = ? " +
+            "WHERE material_number = ? AND serial_number = ? AND supplier_number = ?";
+
+    private static final String SUPPLIER_NUMBERS = "SELECT DISTINCT supplier_number FROM parts";
+
+    private static final String SELECT_OF_SUPPLIER =
+            "SELECT material_number, serial_number, supplier_number, quantity, version FROM parts WHERE supplier_number = ?";
+
+    private static final String INSERT_COPY =
+            "INSERT INTO parts (material_number, serial_number, supplier_number, quantity, version, change_seq) " +
+            "VALUES (?, ?, ?, ?, ?, nextval('part_change_seq'))";
+
+    private static final String DELETE_MOVED =
+            "DELETE FROM parts WHERE material_number = ? AND serial_number = ? AND supplier_number = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    // Database specific SQL, detected on first use
+    private volatile SqlDialect dialect;
+
+    // Upsert statements by number of rows
+    private final ConcurrentHashMap<Integer, String> upsertStatements = new ConcurrentHashMap<>();
+
+    // Insert-if-missing statements by number of rows
+    private final ConcurrentHashMap<Integer, String> insertStatements = new ConcurrentHashMap<>();
+
+    // Uses a dedicated JdbcTemplate for streaming so the fetch size does not leak into other JDBC users
+    PartRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+    }
+
+    private SqlDialect dialect() {
+        SqlDialect current = dialect;
+        if (current == null) {
+            current = SqlDialect.detect(jdbcTemplate);
+            dialect = current;
+        }
+        return current;
+    }
+
+    @Override
+    public long forEachPart(Consumer<Part> action) {
+        long[] count = {0};
+        streamingJdbcTemplate.query(SELECT_ALL_ORDERED, (RowCallbackHandler) rs -> {
+            Part part = new Part(new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), rs.getInt(4));
+            part.setVersion(rs.getLong(5));
+            part.setKey(rs.getLong(6));
+            action.accept(part);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    @Override
+    public Optional<Part> adjustQuantity(long key, PartId partId, int delta) {
+        List<Part> updated = jdbcTemplate.query(dialect().returning(ADJUST_QUANTITY, "quantity, version"), (rs, rowNum) -> {
+            Part part = new Part(partId, rs.getInt(1));
+            part.setVersion(rs.getLong(2));
+            part.setKey(key);
+            return part;
+        }, delta, key, partId.getMaterialNumber(), partId.getSerialNumber(), partId.getSupplierNumber(), delta);
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public Optional<Part> adjustQuantityIfVersion(long key, PartId partId, int delta, long expectedVersion) {
+        List<Part> updated = jdbcTemplate.query(dialect().returning(ADJUST_QUANTITY_IF_VERSION, "quantity, version"), (rs, rowNum) -> {
+            Part part = new Part(partId, rs.getInt(1));
+            part.setVersion(rs.getLong(2));
+            part.setKey(key);
+            return part;
+        }, delta, key, partId.getMaterialNumber(), partId.getSerialNumber(), partId.getSupplierNumber(), delta, expectedVersion);
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public int[] adjustQuantities(long[] keys, PartId[] partIds, int[] deltas) {
+        List<Integer> positions = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            positions.add(i);
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(ADJUST_QUANTITY_IN_RANGE, positions, ADJUST_BATCH_SIZE, (ps, i) -> {
+            ps.setInt(1, deltas[i]);
+            ps.setLong(2, keys[i]);
+            ps.setString(3, partIds[i].getMaterialNumber());
+            ps.setString(4, partIds[i].getSerialNumber());
+            ps.setString(5, partIds[i].getSupplierNumber());
+            ps.setInt(6, deltas[i]);
+        });
+        int[] updated = new int[keys.length];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                updated[i++] = count;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int upsertParts(List<Part> parts) {
+        if (parts.isEmpty()) {
+            return 0;
+        }
+        // Chunks usually have the same size, so the statement is built once per size and cached
+        String sql = upsertStatements.computeIfAbsent(parts.size(), rows -> dialect().upsertParts(rows));
+        return jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (Part part : parts) {
+                PartId id = part.getId();
+                ps.setString(index++, id.getMaterialNumber());
+                ps.setString(index++, id.getSerialNumber());
+                ps.setString(index++, id.getSupplierNumber());
+                ps.setInt(index++, part.getQuantity());
+            }
+        });
+    }
+
+    @Override
+    public int insertMissingParts(List<PartId> partIds) {
+        if (partIds.isEmpty()) {
+            return 0;
+        }
+        String sql = insertStatements.computeIfAbsent(partIds.size(), rows -> dialect().insertMissingParts(rows));
+        return jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (PartId id : partIds) {
+                ps.setString(index++, id.getMaterialNumber());
+                ps.setString(index++, id.getSerialNumber());
+                ps.setString(index++, id.getSupplierNumber());
+            }
+        });
+    }
+
+    @Override
+    public Map<PartId, Integer> lockQuantities(Collection<PartId> partIds) {
+        Map<PartId, Integer> quantities = new HashMap<>();
+        for (Part part : lockParts(partIds)) {
+            quantities.put(part.getId(), part.getQuantity());
+        }
+        return quantities;
+    }
+
+    @Override
+    public List<Part> lockParts(Collection<PartId> partIds) {
+        if (partIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder(LOCK_PARTS);
+        Object[] args = new Object[partIds.size() * 3];
+        int index = 0;
+        for (PartId id : partIds) {
+            sql.append(index == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args[index++] = id.getMaterialNumber();
+            args[index++] = id.getSerialNumber();
+            args[index++] = id.getSupplierNumber();
+        }
+        // Rows are locked in the order they are returned
+        sql.append(") ORDER BY part_key FOR UPDATE");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Part part = new Part(new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), rs.getInt(4));
+            part.setVersion(rs.getLong(5));
+            part.setKey(rs.getLong(6));
+            return part;
+        }, args);
+    }
+
+    @Override
+    public List<PartSummary> findParts(PartFilter filter, PartId after, int limit) {
+        PartFilter.Field field = filter.getField();
+        // A prefix search compares the column in byte order, so the match, the keyset and the sort are all served
+        // by the prefix index and only the page is read
+        String column = filter.isPrefix() ? dialect().byteOrder(field.column) : field.column;
+        String orderColumns = column + ", " + field.tieBreakColumns;
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARY).append(column);
+        List<Object> args = new ArrayList<>(5);
+        if (filter.isPrefix()) {
+            sql.append(" LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(filter.getValue()) + "%");
+        } else {
+            sql.append(" = ?");
+            args.add(filter.getValue());
+        }
+        if (after != null) {
+            sql.append(" AND (").append(orderColumns).append(") > (?, ?, ?)");
+            if (field == PartFilter.Field.SUPPLIER_NUMBER) {
+                args.add(after.getSupplierNumber());
+                args.add(after.getMaterialNumber());
+                args.add(after.getSerialNumber());
+            } else {
+                args.add(after.getMaterialNumber());
+                args.add(after.getSerialNumber());
+                args.add(after.getSupplierNumber());
+            }
+        }
+        sql.append(" ORDER BY ").append(orderColumns).append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new PartSummary(
+                new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), rs.getInt(4)), args.toArray());
+    }
+
+    @Override
+    public long nextChangeSeq() {
+        return jdbcTemplate.queryForObject(NEXT_CHANGE_SEQ, Long.class);
+    }
+
+    @Override
+    public long sequenceChanges() {
+        if (!jdbcTemplate.queryForObject(HAS_UNSEQUENCED, Boolean.class)) {
+            return jdbcTemplate.queryForObject(SYNC_WATERMARK, Long.class);
+        }
+        long last = jdbcTemplate.queryForObject(LOCK_SYNC_CLOCK, Long.class);
+        List<PendingChange> pending = new ArrayList<>(jdbcTemplate.query(LOCK_UNSEQUENCED_PARTS,
+                (rs, rowNum) -> new PendingChange(rs.getLong(2), new Object[]{rs.getLong(1)})));
+        pending.addAll(jdbcTemplate.query(LOCK_UNSEQUENCED_TOMBSTONES,
+                (rs, rowNum) -> new PendingChange(rs.getLong(4), new Object[]{rs.getString(1), rs.getString(2), rs.getString(3)})));
+        if (pending.isEmpty()) {
+            // Another transaction sequenced them while this one waited for the clock, or they are being written
+            return last;
+        }
+        // Writes that are sequenced together keep the order in which they were made
+        pending.sort(Comparator.comparingLong(change -> change.changeSeq));
+        List<Object[]> parts = new ArrayList<>();
+        List<Object[]> tombstones = new ArrayList<>();
+        for (PendingChange change : pending) {
+            Object[] args = new Object[change.key.length + 1];
+            args[0] = ++last;
+            System.arraycopy(change.key, 0, args, 1, change.key.length);
+            (change.key.length == 1 ? parts : tombstones).add(args);
+        }
+        jdbcTemplate.batchUpdate(SEQUENCE_PART, parts);
+        jdbcTemplate.batchUpdate(SEQUENCE_TOMBSTONE, tombstones);
+        jdbcTemplate.update(ADVANCE_SYNC_CLOCK, last);
+        return last;
+    }
+
+    @Override
+    public void recordTombstone(PartId partId) {
+        jdbcTemplate.update(dialect().upsertTombstone(),
+                partId.getMaterialNumber(), partId.getSerialNumber(), partId.getSupplierNumber());
+    }
+
+    @Override
+    public List<PartSyncItem> findChangesSince(long since, int limit) {
+        List<PartSyncItem> parts = jdbcTemplate.query(PARTS_CHANGED_SINCE, (rs, rowNum) -> new PartSyncItem(
+                new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), rs.getInt(4), rs.getLong(5), false), since, limit);
+        List<PartSyncItem> tombstones = jdbcTemplate.query(TOMBSTONES_SINCE, (rs, rowNum) -> new PartSyncItem(
+                new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), null, rs.getLong(4), true), since, limit);
+        // Merge the two sequence-ordered lists and keep the first limit entries
+        List<PartSyncItem> changes = new ArrayList<>(Math.min(limit, parts.size() + tombstones.size()));
+        int p = 0;
+        int t = 0;
+        while (changes.size() < limit && (p < parts.size() || t < tombstones.size())) {
+            if (t == tombstones.size() || (p < parts.size() && parts.get(p).getSequence() < tombstones.get(t).getSequence())) {
+                changes.add(parts.get(p++));
+            } else {
+                changes.add(tombstones.get(t++));
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public List<String> findSupplierNumbers() {
+        return jdbcTemplate.queryForList(SUPPLIER_NUMBERS, String.class);
+    }
+
+    @Override
+    public List<Part> findPartsOfSupplier(String supplierNumber, PartId after, int limit) {
+        String sql = SELECT_OF_SUPPLIER
+                + (after == null ? "" : " AND (material_number, serial_number) > (?, ?)")
+                + " ORDER BY material_number, serial_number LIMIT ?";
+        Object[] args = after == null
+                ? new Object[]{supplierNumber, limit}
+                : new Object[]{supplierNumber, after.getMaterialNumber(), after.getSerialNumber(), limit};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Part part = new Part(new PartId(rs.getString(1), rs.getString(2), rs.getString(3)), rs.getInt(4));
+            part.setVersion(rs.getLong(5));
+            return part;
+        }, args);
+    }
+
+    @Override
+    public void insertCopies(List<Part> parts) {
+        jdbcTemplate.batchUpdate(INSERT_COPY, parts, ADJUST_BATCH_SIZE, (ps, part) -> {
+            ps.setString(1, part.getId().getMaterialNumber());
+            ps.setString(2, part.getId().getSerialNumber());
+            ps.setString(3, part.getId().getSupplierNumber());
+            ps.setInt(4, part.getQuantity());
+            ps.setLong(5, part.getVersion());
+        });
+    }
+
+    @Override
+    public int deleteMoved(List<PartId> partIds) {
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_MOVED, partIds, ADJUST_BATCH_SIZE, (ps, id) -> {
+            ps.setString(1, id.getMaterialNumber());
+            ps.setString(2, id.getSerialNumber());
+            ps.setString(3, id.getSupplierNumber());
+        });
+        int deleted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers may report an unknown count for batched statements
+                deleted += Math.max(count, 0);
+            }
+        }
+        return deleted;
+    }
+
+    // Escapes the LIKE wildcards of a user supplied prefix
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // A committed write that has no position in the change log yet: its change sequence and its row key
+    private static final class PendingChange {
+
+        private final long changeSeq;
+
+        private final Object[] key;
+
+        private PendingChange(long changeSeq, Object[] key) {
+            this.changeSeq = changeSeq;
+            this.key = key;
+        }
+    }
+}
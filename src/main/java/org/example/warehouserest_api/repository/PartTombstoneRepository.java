@@ -0,0 +1,12 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.PartTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repository for the tombstones of deleted parts.
+// Tombstones are written and read with JDBC by PartRepositoryCustom together with the parts.
+@Repository
+public interface PartTombstoneRepository extends JpaRepository<PartTombstone, PartId> {
+}
@@ -0,0 +1,152 @@
+package org.example.warehouserest_api.repository;
+
+import io.r2dbc.spi.Readable;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.StockTotal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Non-blocking access to the parts for the reactive API, with the same SQL as the JDBC operations in
+// PartRepositoryCustomImpl. Parts are addressed by business identifier, since the reactive API has no key dictionary.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePartRepository {
+
+    private static final String PART_COLUMNS = "material_number, serial_number, supplier_number, quantity, version, part_key";
+
+    private static final String BY_ID = "material_number = $1 AND serial_number = $2 AND supplier_number = $3";
+
+    private static final String ORDER_BY_ID = " ORDER BY material_number, serial_number, supplier_number";
+
+    private static final String HAS_PARTS = "SELECT 1 FROM parts LIMIT 1";
+
+    private static final String SELECT_ALL_ORDERED = "SELECT " + PART_COLUMNS + " FROM parts" + ORDER_BY_ID;
+
+    private static final String SELECT_FIRST_PAGE = SELECT_ALL_ORDERED + " LIMIT $1";
+
+    private static final String SELECT_PAGE_AFTER = "SELECT " + PART_COLUMNS + " FROM parts"
+            + " WHERE (material_number, serial_number, supplier_number) > ($1, $2, $3)" + ORDER_BY_ID + " LIMIT $4";
+
+    private static final String SELECT_BY_ID = "SELECT " + PART_COLUMNS + " FROM parts WHERE " + BY_ID;
+
+    private static final String INSERT_PART =
+            "INSERT INTO parts (material_number, serial_number, supplier_number, quantity, version, change_seq)"
+            + " VALUES ($1, $2, $3, 0, 0, nextval('part_change_seq'))";
+
+    // Conditional increment that only matches when the quantity stays non-negative
+    private static final String ADJUST_QUANTITY =
+            "UPDATE parts SET quantity = quantity + $4, version = version + 1, change_seq = nextval('part_change_seq'),"
+            + " sync_seq = NULL"
+            + " WHERE " + BY_ID + " AND quantity + $4 >= 0";
+
+    private static final String ADJUST_QUANTITY_IF_VERSION = ADJUST_QUANTITY + " AND version = $5";
+
+    // Deletes an empty part, unless it was changed since it was read
+    private static final String DELETE_PART = "DELETE FROM parts WHERE " + BY_ID + " AND quantity = 0 AND version = $4";
+
+    private final DatabaseClient databaseClient;
+
+    // Database specific SQL, from the connection factory
+    private final SqlDialect dialect;
+
+    public ReactivePartRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.dialect = SqlDialect.of(databaseClient.getConnectionFactory().getMetadata().getName());
+    }
+
+    public Mono<Boolean> hasParts() {
+        return databaseClient.sql(HAS_PARTS).fetch().first().hasElement();
+    }
+
+    // Streams all parts in key order; rows are requested from the database as the subscriber consumes them
+    public Flux<Part> findAll() {
+        return databaseClient.sql(SELECT_ALL_ORDERED).map(ReactivePartRepository::toPart).all();
+    }
+
+    public Flux<Part> findFirstPage(int limit) {
+        return databaseClient.sql(SELECT_FIRST_PAGE).bind(0, limit).map(ReactivePartRepository::toPart).all();
+    }
+
+    public Flux<Part> findPageAfter(PartId after, int limit) {
+        return bindId(databaseClient.sql(SELECT_PAGE_AFTER), after).bind(3, limit)
+                .map(ReactivePartRepository::toPart).all();
+    }
+
+    public Mono<Part> findById(PartId partId) {
+        return bindId(databaseClient.sql(SELECT_BY_ID), partId).map(ReactivePartRepository::toPart).one();
+    }
+
+    // Inserts a new part with quantity zero; fails with DataIntegrityViolationException if it exists
+    public Mono<Void> insert(PartId partId) {
+        return bindId(databaseClient.sql(INSERT_PART), partId).then();
+    }
+
+    // Adds delta to the quantity in one statement and returns the changed part, or nothing if the part
+    // does not exist, the quantity would become negative or the part has another version than expectedVersion
+    public Mono<Part> adjustQuantity(PartId partId, int delta, Long expectedVersion) {
+        String update = expectedVersion == null ? ADJUST_QUANTITY : ADJUST_QUANTITY_IF_VERSION;
+        DatabaseClient.GenericExecuteSpec spec = bindId(databaseClient.sql(dialect.returning(update, PART_COLUMNS)), partId)
+                .bind(3, delta);
+        if (expectedVersion != null) {
+            spec = spec.bind(4, expectedVersion);
+        }
+        return spec.map(ReactivePartRepository::toPart).one();
+    }
+
+    // Deletes the part if it is empty and still has the given version; returns the number of deleted rows
+    public Mono<Long> delete(PartId partId, long version) {
+        return bindId(databaseClient.sql(DELETE_PART), partId).bind(3, version).fetch().rowsUpdated();
+    }
+
+    public Mono<Void> recordTombstone(PartId partId) {
+        return bindId(databaseClient.sql(bindMarkers(dialect.upsertTombstone())), partId).then();
+    }
+
+    // Adds the deltas to the stock totals one by one, in the given (lock) order
+    public Mono<Void> addToTotals(Collection<StockTotal> deltas) {
+        String sql = bindMarkers(dialect.upsertStockTotal(true));
+        return Flux.fromIterable(deltas)
+                .concatMap(delta -> databaseClient.sql(sql)
+                        .bind(0, delta.getId().getDimension().name())
+                        .bind(1, delta.getId().getGroupKey())
+                        .bind(2, delta.getQuantity())
+                        .bind(3, delta.getParts())
+                        .then())
+                .then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindId(DatabaseClient.GenericExecuteSpec spec, PartId partId) {
+        return spec.bind(0, partId.getMaterialNumber())
+                .bind(1, partId.getSerialNumber())
+                .bind(2, partId.getSupplierNumber());
+    }
+
+    private static Part toPart(Readable row) {
+        Part part = new Part(new PartId(row.get(0, String.class), row.get(1, String.class), row.get(2, String.class)),
+                row.get(3, Integer.class));
+        part.setVersion(row.get(4, Long.class));
+        part.setKey(row.get(5, Long.class));
+        return part;
+    }
+
+    // Replaces the JDBC ? placeholders of the shared SqlDialect statements with numbered R2DBC bind markers
+    private static String bindMarkers(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.ShardBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repository for the bucket map of the sharding by supplier, only used on the home shard.
+@Repository
+public interface ShardBucketRepository extends JpaRepository<ShardBucket, Integer> {
+}
@@ -0,0 +1,159 @@
+package org.example.warehouserest_api.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// SQL flavours supported by the hand-written JDBC statements.
+// PostgreSQL is the production database; H2 (in PostgreSQL mode) is used for development and tests.
+enum SqlDialect {
+
+    POSTGRESQL {
+        @Override
+        String byteOrder(String column) {
+            return column + " COLLATE \"C\"";
+        }
+
+        @Override
+        String returning(String update, String columns) {
+            return update + " RETURNING " + columns;
+        }
+
+        @Override
+        String upsertParts(int rows) {
+            return "INSERT INTO parts (material_number, serial_number, supplier_number, quantity, version, change_seq) VALUES "
+                    + repeat("(?, ?, ?, ?, 0, nextval('part_change_seq'))", rows)
+                    + " ON CONFLICT (material_number, serial_number, supplier_number)"
+                    + " DO UPDATE SET quantity = EXCLUDED.quantity, version = parts.version + 1, change_seq = EXCLUDED.change_seq,"
+                    + " sync_seq = NULL";
+        }
+
+        @Override
+        String insertMissingParts(int rows) {
+            return "INSERT INTO parts (material_number, serial_number, supplier_number, quantity, version, change_seq) VALUES "
+                    + repeat("(?, ?, ?, 0, 0, nextval('part_change_seq'))", rows)
+                    + " ON CONFLICT (material_number, serial_number, supplier_number) DO NOTHING";
+        }
+
+        @Override
+        String upsertTombstone() {
+            return "INSERT INTO part_tombstones (material_number, serial_number, supplier_number, change_seq)"
+                    + " VALUES (?, ?, ?, nextval('part_change_seq'))"
+                    + " ON CONFLICT (material_number, serial_number, supplier_number)"
+                    + " DO UPDATE SET change_seq = EXCLUDED.change_seq, sync_seq = NULL";
+        }
+
+        @Override
+        String upsertStockTotal(boolean add) {
+            return "INSERT INTO stock_totals (dimension, group_key, quantity, parts) VALUES (?, ?, ?, ?)"
+                    + " ON CONFLICT (dimension, group_key) DO UPDATE SET "
+                    + (add ? "quantity = stock_totals.quantity + EXCLUDED.quantity, parts = stock_totals.parts + EXCLUDED.parts"
+                           : "quantity = EXCLUDED.quantity, parts = EXCLUDED.parts");
+        }
+    },
+
+    H2 {
+        // H2 compares strings by their characters unless the database was given a collation
+        @Override
+        String byteOrder(String column) {
+            return column;
+        }
+
+        // H2 has no RETURNING clause, but can select from the rows changed by a data change statement
+        @Override
+        String returning(String update, String columns) {
+            return "SELECT " + columns + " FROM FINAL TABLE (" + update + ")";
+        }
+
+        // H2 only supports ON CONFLICT DO NOTHING, so the upsert is a standard MERGE
+        @Override
+        String upsertParts(int rows) {
+            return "MERGE INTO parts p USING (VALUES "
+                    + repeat("(CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(50)), CAST(? AS INTEGER))", rows)
+                    + ") AS s (material_number, serial_number, supplier_number, quantity)"
+                    + " ON p.material_number = s.material_number AND p.serial_number = s.serial_number"
+                    + " AND p.supplier_number = s.supplier_number"
+                    + " WHEN MATCHED THEN UPDATE SET quantity = s.quantity, version = p.version + 1,"
+                    + " change_seq = nextval('part_change_seq'), sync_seq = NULL"
+                    + " WHEN NOT MATCHED THEN INSERT (material_number, serial_number, supplier_number, quantity, version, change_seq)"
+                    + " VALUES (s.material_number, s.serial_number, s.supplier_number, s.quantity, 0, nextval('part_change_seq'))";
+        }
+
+        @Override
+        String insertMissingParts(int rows) {
+            return "MERGE INTO parts p USING (VALUES "
+                    + repeat("(CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(50)))", rows)
+                    + ") AS s (material_number, serial_number, supplier_number)"
+                    + " ON p.material_number = s.material_number AND p.serial_number = s.serial_number"
+                    + " AND p.supplier_number = s.supplier_number"
+                    + " WHEN NOT MATCHED THEN INSERT (material_number, serial_number, supplier_number, quantity, version, change_seq)"
+                    + " VALUES (s.material_number, s.serial_number, s.supplier_number, 0, 0, nextval('part_change_seq'))";
+        }
+
+        @Override
+        String upsertTombstone() {
+            return "MERGE INTO part_tombstones (material_number, serial_number, supplier_number, change_seq, sync_seq)"
+                    + " KEY (material_number, serial_number, supplier_number)"
+                    + " VALUES (?, ?, ?, nextval('part_change_seq'), NULL)";
+        }
+
+        @Override
+        String upsertStockTotal(boolean add) {
+            return "MERGE INTO stock_totals t USING (VALUES (CAST(? AS VARCHAR(16)), CAST(? AS VARCHAR(50)),"
+                    + " CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (dimension, group_key, quantity, parts)"
+                    + " ON t.dimension = s.dimension AND t.group_key = s.group_key"
+                    + " WHEN MATCHED THEN UPDATE SET "
+                    + (add ? "quantity = t.quantity + s.quantity, parts = t.parts + s.parts"
+                           : "quantity = s.quantity, parts = s.parts")
+                    + " WHEN NOT MATCHED THEN INSERT (dimension, group_key, quantity, parts)"
+                    + " VALUES (s.dimension, s.group_key, s.quantity, s.parts)";
+        }
+    };
+
+    // Expression comparing a text column in byte (code point) order whatever the database collation
+    abstract String byteOrder(String column);
+
+    // Wraps a single-row data change statement so that it returns the given columns of the changed row
+    abstract String returning(String update, String columns);
+
+    // Multi-row upsert by business identifier with (material number, serial number, supplier number, quantity)
+    // parameters per row: new parts are inserted, existing parts get the given quantity, a new version
+    // and a new change sequence value, and wait to be sequenced again.
+    // The rows must not contain the same part twice.
+    abstract String upsertParts(int rows);
+
+    // Multi-row insert with (material number, serial number, supplier number) parameters per row: parts that do
+    // not exist yet are created with quantity 0, existing parts are left unchanged.
+    // The rows must not contain the same part twice.
+    abstract String insertMissingParts(int rows);
+
+    // Records the deletion of the part with (material number, serial number, supplier number) parameters
+    // under a new change sequence value
+    abstract String upsertTombstone();
+
+    // Single-row upsert of a stock total with (dimension, group key, quantity, parts) parameters.
+    // If add is true the quantity and parts are added to an existing total, otherwise they replace it.
+    abstract String upsertStockTotal(boolean add);
+
+    private static String repeat(String row, int rows) {
+        StringBuilder values = new StringBuilder(rows * (row.length() + 2));
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append(row);
+        }
+        return values.toString();
+    }
+
+    // Detects the dialect from the database product name of the connected database
+    static SqlDialect detect(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return of(product);
+    }
+
+    // Returns the dialect of a database product name (JDBC metadata or R2DBC connection factory name)
+    static SqlDialect of(String product) {
+        return "H2".equalsIgnoreCase(product) ? H2 : POSTGRESQL;
+    }
+}
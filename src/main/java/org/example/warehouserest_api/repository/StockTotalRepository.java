@@ -0,0 +1,13 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repository for the stock totals per material and supplier.
+// Reads go through JpaRepository; the incremental updates and the drift check are JDBC operations
+// from StockTotalRepositoryCustom.
+@Repository
+public interface StockTotalRepository extends JpaRepository<StockTotal, StockTotalId>, StockTotalRepositoryCustom {
+}
@@ -0,0 +1,32 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Custom stock total operations implemented with plain JDBC.
+public interface StockTotalRepositoryCustom {
+
+    // Adds the quantity and parts of every given delta to the matching total, creating missing totals,
+    // using JDBC statement batching. Totals are locked in iteration order, so callers should pass them sorted.
+    void addToTotals(Collection<StockTotal> deltas);
+
+    // Streams every recorded total of the dimension.
+    void forEachTotal(StockDimension dimension, Consumer<StockTotal> action);
+
+    // Streams the totals of the dimension as computed from the parts table (a full scan).
+    void forEachActualTotal(StockDimension dimension, Consumer<StockTotal> action);
+
+    // Locks the recorded total (FOR UPDATE) and returns it, or null if there is none.
+    // Transactions that already changed the total are waited for; later ones wait for the caller's transaction.
+    StockTotal lockTotal(StockTotalId id);
+
+    // Computes the total of one group from the parts table using the material or supplier index.
+    StockTotal computeTotal(StockTotalId id);
+
+    // Replaces the recorded total, creating it if missing.
+    void setTotal(StockTotal total);
+}
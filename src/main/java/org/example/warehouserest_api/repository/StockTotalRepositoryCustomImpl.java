@@ -0,0 +1,96 @@
+package org.example.warehouserest_api.repository;
+
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// JDBC implementation of the custom StockTotalRepository operations.
+class StockTotalRepositoryCustomImpl implements StockTotalRepositoryCustom {
+
+    private static final String SELECT_TOTALS =
+            "SELECT group_key, quantity, parts FROM stock_totals WHERE dimension = ?";
+
+    private static final String LOCK_TOTAL =
+            "SELECT quantity, parts FROM stock_totals WHERE dimension = ? AND group_key = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    // Database specific SQL, detected on first use
+    private volatile SqlDialect dialect;
+
+    // Uses a dedicated JdbcTemplate for streaming so the fetch size does not leak into other JDBC users
+    StockTotalRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(PartRepositoryCustomImpl.STREAM_FETCH_SIZE);
+    }
+
+    private SqlDialect dialect() {
+        SqlDialect current = dialect;
+        if (current == null) {
+            current = SqlDialect.detect(jdbcTemplate);
+            dialect = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void addToTotals(Collection<StockTotal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(dialect().upsertStockTotal(true), deltas, PartRepositoryCustomImpl.ADJUST_BATCH_SIZE, (ps, delta) -> {
+            ps.setString(1, delta.getId().getDimension().name());
+            ps.setString(2, delta.getId().getGroupKey());
+            ps.setLong(3, delta.getQuantity());
+            ps.setLong(4, delta.getParts());
+        });
+    }
+
+    @Override
+    public void forEachTotal(StockDimension dimension, Consumer<StockTotal> action) {
+        streamingJdbcTemplate.query(SELECT_TOTALS, (RowCallbackHandler) rs -> action.accept(
+                new StockTotal(new StockTotalId(dimension, rs.getString(1)), rs.getLong(2), rs.getLong(3))), dimension.name());
+    }
+
+    @Override
+    public void forEachActualTotal(StockDimension dimension, Consumer<StockTotal> action) {
+        String column = column(dimension);
+        String sql = "SELECT " + column + ", SUM(quantity), COUNT(*) FROM parts GROUP BY " + column;
+        streamingJdbcTemplate.query(sql, (RowCallbackHandler) rs -> action.accept(
+                new StockTotal(new StockTotalId(dimension, rs.getString(1)), rs.getLong(2), rs.getLong(3))));
+    }
+
+    @Override
+    public StockTotal lockTotal(StockTotalId id) {
+        List<StockTotal> locked = jdbcTemplate.query(LOCK_TOTAL, (rs, rowNum) -> new StockTotal(id, rs.getLong(1), rs.getLong(2)),
+                id.getDimension().name(), id.getGroupKey());
+        return locked.isEmpty() ? null : locked.get(0);
+    }
+
+    @Override
+    public StockTotal computeTotal(StockTotalId id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0), COUNT(*) FROM parts WHERE " + column(id.getDimension()) + " = ?",
+                (rs, rowNum) -> new StockTotal(id, rs.getLong(1), rs.getLong(2)), id.getGroupKey());
+    }
+
+    @Override
+    public void setTotal(StockTotal total) {
+        jdbcTemplate.update(dialect().upsertStockTotal(false),
+                total.getId().getDimension().name(), total.getId().getGroupKey(), total.getQuantity(), total.getParts());
+    }
+
+    // Column of the parts table that holds the group key of the dimension
+    private static String column(StockDimension dimension) {
+        return dimension == StockDimension.MATERIAL ? "material_number" : "supplier_number";
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.warehouserest_api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.warehouserest_api.config.RetryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Retries @RetryOnConflict methods that fail with an optimistic locking conflict, so a client sees the conflict
+// only if it persists. Ordered before the transaction advice, so every attempt runs in a new transaction.
+// Between attempts it waits a random time up to an exponentially growing bound (full jitter), which spreads
+// out writers that collided on the same part. Inside a caller's transaction there is nothing to retry,
+// since the failed transaction is rolled back as a whole, so the method then runs once.
+// Retries and give-ups are counted per operation (warehouse.retry.retries, warehouse.retry.exhausted).
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    private final RetryProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public ConflictRetryAspect(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (!properties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String operation = retryOnConflict.value().isEmpty() ? joinPoint.getSignature().getName() : retryOnConflict.value();
+        RetryProperties.Policy policy = properties.policyFor(operation);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= policy.getMaxAttempts()) {
+                    logger.warn("Giving up {} after {} conflicting attempts", operation, attempt);
+                    counter("warehouse.retry.exhausted", operation).increment();
+                    throw e;
+                }
+                long backoff = backoffMillis(policy, attempt);
+                logger.info("Retrying {} in {} ms after conflict {}: {}", operation, backoff, attempt, e.getMessage());
+                counter("warehouse.retry.retries", operation).increment();
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // Random wait before the given retry, up to initialBackoff * multiplier^(retry - 1) capped at maxBackoff
+    static long backoffMillis(RetryProperties.Policy policy, int retry) {
+        Duration initial = policy.getInitialBackoff();
+        double bound = Math.min(policy.getMaxBackoff().toMillis(), initial.toMillis() * Math.pow(policy.getMultiplier(), retry - 1));
+        return bound < 1 ? 0 : ThreadLocalRandom.current().nextLong((long) bound + 1);
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.warehouserest_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.IdempotencyProperties;
+import org.example.warehouserest_api.model.IdempotencyRecord;
+import org.example.warehouserest_api.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Service for requests made with an Idempotency-Key header.
+// The response of the first request is stored in the same transaction as its change, so a retry with the same
+// key replays it and never applies the change twice. Only successful responses are stored; a failed request
+// changed nothing and is simply evaluated again when retried.
+// Keys live in the idempotency_keys table for warehouse.idempotency.time-to-live, the table is capped at
+// warehouse.idempotency.maximum-entries rows, and recent responses are also kept in a bounded in-memory cache.
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    // Request header carrying the key
+    public static final String HEADER = "Idempotency-Key";
+
+    // Response header marking a replayed response
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Longest accepted key, the size of the key column
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+
+    private final IdempotencyProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    // Transaction shared by the change and the stored response
+    private final TransactionTemplate transaction;
+
+    // Recently stored responses, so most retries are answered without a query
+    private final Cache<String, IdempotencyRecord> cache;
+
+    private ScheduledExecutorService purger;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, IdempotencyProperties properties,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .build();
+    }
+
+    // Starts the periodic cleanup unless its interval is zero
+    @PostConstruct
+    void start() {
+        if (properties.getPurgeInterval().isZero()) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                logger.error("Idempotency key cleanup failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    // Runs the action, or replays the stored response if the key was used before.
+    // Without a key the action simply runs. The request (an identifier of the operation and its arguments)
+    // is fingerprinted, so reusing a key for a different request is rejected with 422.
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("%s must have between 1 and %d characters", HEADER, MAX_KEY_LENGTH));
+        }
+        String requestHash = hash(request);
+        IdempotencyRecord stored = find(key);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+        try {
+            return runAndStore(key, requestHash, action);
+        } catch (DuplicateKeyException e) {
+            // A concurrent request with the same key committed first, or an expired record was not purged yet
+            stored = findOnPrimary(key);
+            if (stored != null && !isExpired(stored)) {
+                cache.put(key, stored);
+                return replay(stored, requestHash);
+            }
+            transaction.executeWithoutResult(status -> repository.deleteExpired(key, expiry()));
+            return runAndStore(key, requestHash, action);
+        }
+    }
+
+    // Deletes expired keys and the oldest keys beyond the maximum number of entries
+    public void purge() {
+        int expired = repository.deleteCreatedBefore(expiry());
+        int surplus = repository.trimTo(properties.getMaximumEntries());
+        if (expired + surplus > 0) {
+            logger.info("Removed {} expired and {} surplus idempotency keys", expired, surplus);
+        }
+    }
+
+    private ResponseEntity<?> runAndStore(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        IdempotencyRecord[] stored = new IdempotencyRecord[1];
+        ResponseEntity<?> response = transaction.execute(status -> {
+            ResponseEntity<?> result = action.get();
+            stored[0] = new IdempotencyRecord(key, requestHash, result.getStatusCode().value(),
+                    result.getHeaders().getETag(), toJson(result.getBody()), Instant.now());
+            // A concurrent insert of the same key waits here until the other transaction ends
+            repository.insertRecord(stored[0]);
+            return result;
+        });
+        cache.put(key, stored[0]);
+        return response;
+    }
+
+    private IdempotencyRecord find(String key) {
+        IdempotencyRecord stored = cache.getIfPresent(key);
+        if (stored == null) {
+            stored = findOnPrimary(key);
+            if (stored != null) {
+                cache.put(key, stored);
+            }
+        }
+        return stored == null || isExpired(stored) ? null : stored;
+    }
+
+    // Loads a stored record in a read-write transaction, so it comes from the primary: a replica may not have
+    // replayed a key that was stored a moment ago, and the request would then run a second time
+    private IdempotencyRecord findOnPrimary(String key) {
+        return transaction.execute(status -> repository.findById(key).orElse(null));
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    String.format("%s '%s' was already used for a different request", HEADER, stored.getKey()));
+        }
+        logger.info("Replaying stored response for {} '{}'", HEADER, stored.getKey());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getETag() != null) {
+            response.eTag(stored.getETag());
+        }
+        if (stored.getBody() == null) {
+            return response.build();
+        }
+        // The stored JSON is written as is
+        return response.contentType(MediaType.APPLICATION_JSON).body(stored.getBody());
+    }
+
+    private boolean isExpired(IdempotencyRecord stored) {
+        return stored.getCreatedAt().isBefore(expiry());
+    }
+
+    private Instant expiry() {
+        return Instant.now().minus(properties.getTimeToLive());
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for replay", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
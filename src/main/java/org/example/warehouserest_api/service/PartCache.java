@@ -0,0 +1,178 @@
+package org.example.warehouserest_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.warehouserest_api.config.PartCacheProperties;
+import org.example.warehouserest_api.dto.CacheStatistics;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded in-process cache of parts keyed by PartId, with size and time-to-live eviction.
+// Entries are immutable snapshots; every read hands out a fresh Part copy.
+// Writes invalidate the entry immediately and store the new state once the transaction has committed,
+// so uncommitted data is never cached. Deletes and imports leave a fence after commit instead: a row read before
+// the fence (stamped with readStamp) may predate the commit and is not cached over it.
+@Component
+public class PartCache {
+
+    private final PartCacheProperties properties;
+
+    private final Cache<PartId, Snapshot> cache;
+
+    // Entries discarded because the version check found a newer row
+    private final LongAdder staleCount = new LongAdder();
+
+    // Orders reads against fences: each fence takes the next value
+    private final AtomicLong clock = new AtomicLong();
+
+    public PartCache(PartCacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isVersionChecked() {
+        return properties.isVersionChecked();
+    }
+
+    // Returns a copy of the cached part, or null on a miss
+    public Part get(PartId partId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Snapshot snapshot = cache.getIfPresent(partId);
+        return snapshot == null || snapshot.fence ? null : snapshot.toPart(partId);
+    }
+
+    // Stamp to take before reading a part from the database, for put
+    public long readStamp() {
+        return clock.get();
+    }
+
+    // Caches a part that was read from the database after the given readStamp.
+    // Never replaces an entry with a newer version that a concurrent write may have stored,
+    // nor a fence set after the read started.
+    public void put(Part part, long stamp) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(part, stamp);
+        cache.asMap().merge(part.getId(), snapshot, (cached, loaded) -> {
+            if (cached.fence) {
+                return loaded.stamp >= cached.stamp ? loaded : cached;
+            }
+            return loaded.version >= cached.version ? loaded : cached;
+        });
+    }
+
+    // Records the new state of a part changed by the current transaction
+    public void update(Part part) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        PartId partId = part.getId();
+        cache.invalidate(partId);
+        // The committed state is current, so it replaces any fence
+        afterCommit(() -> put(part, clock.get()));
+    }
+
+    // Removes a part changed or deleted by the current transaction
+    public void evict(PartId partId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.invalidate(partId);
+        afterCommit(() -> cache.put(partId, Snapshot.fence(clock.incrementAndGet())));
+    }
+
+    // Removes parts changed by the current transaction, with one synchronization for all of them
+    public void evictAll(Collection<PartId> partIds) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.invalidateAll(partIds);
+        afterCommit(() -> {
+            Snapshot fence = Snapshot.fence(clock.incrementAndGet());
+            for (PartId partId : partIds) {
+                cache.put(partId, fence);
+            }
+        });
+    }
+
+    // Discards an entry that the version check found to be outdated
+    public void evictStale(PartId partId) {
+        staleCount.increment();
+        cache.invalidate(partId);
+    }
+
+    public CacheStatistics statistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), staleCount.sum());
+    }
+
+    // Runs the action after the current transaction commits, or right away outside a transaction
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Immutable cached state of a part, or a fence that only rows read from its stamp on may replace
+    private static final class Snapshot {
+        final Long key;
+        final int quantity;
+        final long version;
+        final long stamp;
+        final boolean fence;
+
+        Snapshot(Part part, long stamp) {
+            this.key = part.getKey();
+            this.quantity = part.getQuantity();
+            this.version = part.getVersion() == null ? 0 : part.getVersion();
+            this.stamp = stamp;
+            this.fence = false;
+        }
+
+        private Snapshot(long stamp) {
+            this.key = null;
+            this.quantity = 0;
+            this.version = 0;
+            this.stamp = stamp;
+            this.fence = true;
+        }
+
+        static Snapshot fence(long stamp) {
+            return new Snapshot(stamp);
+        }
+
+        Part toPart(PartId partId) {
+            Part part = new Part(partId, quantity);
+            part.setKey(key);
+            part.setVersion(version);
+            return part;
+        }
+    }
+}
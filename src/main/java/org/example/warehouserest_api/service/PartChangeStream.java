@@ -0,0 +1,291 @@
+package org.example.warehouserest_api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.ChangeStreamProperties;
+import org.example.warehouserest_api.dto.PartChangeEvent;
+import org.example.warehouserest_api.model.PartId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fan-out of committed part changes to Server-Sent Events subscribers.
+// PartService hands over the events of a transaction, which are numbered and published once it commits.
+// Recent events are kept in a replay buffer, so a reconnecting client resumes after its Last-Event-ID.
+// Every subscriber has a bounded queue drained by its own task, so a slow client never blocks writers
+// or other subscribers; on overflow its events are dropped or its stream is closed (warehouse.changes.overflow).
+@Component
+public class PartChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartChangeStream.class);
+
+    // Reconnection delay suggested to clients in the first message of a stream
+    private static final long RECONNECT_MILLIS = 3000;
+
+    // Event ids are "<epoch>-<sequence>"; the epoch tells ids of an earlier run of the application apart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ChangeStreamProperties properties;
+
+    // Recent events in sequence order, guarded by this
+    private final ArrayDeque<Entry> replay = new ArrayDeque<>();
+
+    // Sequence number of the last published event, guarded by this
+    private long sequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Writes events to the subscribers' connections
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "part-change-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    public PartChangeStream(ChangeStreamProperties properties) {
+        this.properties = properties;
+    }
+
+    // Closes all streams when shutdown begins; open streams would otherwise hold up the web server's graceful shutdown
+    @EventListener(ContextClosedEvent.class)
+    void closeStreams() {
+        subscribers.forEach(subscriber -> subscriber.close(null));
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+    }
+
+    // Publishes the events once the current transaction commits (nothing is published on rollback),
+    // or right away outside a transaction
+    public void publishAfterCommit(List<PartChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(events);
+                }
+            });
+        } else {
+            publish(events);
+        }
+    }
+
+    public void publishAfterCommit(PartChangeEvent event) {
+        publishAfterCommit(List.of(event));
+    }
+
+    // Opens a stream of the changes of one part (partId), of one material (materialNumber) or of all parts.
+    // With lastEventId the events after it are replayed first; if they are no longer available,
+    // a reset event tells the client to reload the state it tracks.
+    public SseEmitter subscribe(PartId partId, String materialNumber, String lastEventId) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open change streams");
+        }
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, partId, materialNumber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscriber.close(null));
+        emitter.onError(error -> subscriber.close(null));
+        synchronized (this) {
+            // Registered and replayed under the lock, so no event is missed or delivered twice
+            if (lastEventId != null) {
+                long after = parseSequence(lastEventId);
+                Entry oldest = replay.peekFirst();
+                long firstAvailable = oldest == null ? sequence + 1 : oldest.sequence;
+                if (after < 0 || after > sequence || after + 1 < firstAvailable) {
+                    subscriber.reset = true;
+                } else {
+                    for (Entry entry : replay) {
+                        if (entry.sequence > after && subscriber.matches(entry.event)) {
+                            subscriber.offer(entry);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        logger.info("Opened part change stream ({} subscribers)", subscribers.size());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Events not delivered because a subscriber's buffer was full
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    private synchronized void publish(List<PartChangeEvent> events) {
+        for (PartChangeEvent event : events) {
+            Entry entry = new Entry(++sequence, event);
+            replay.addLast(entry);
+            if (replay.size() > properties.getReplaySize()) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.matches(event)) {
+                    subscriber.offer(entry);
+                }
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.schedule();
+        }
+    }
+
+    // Returns the sequence number of an event id of this run, or -1 for an unknown id
+    private long parseSequence(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // A published event and its sequence number
+    private static final class Entry {
+        final long sequence;
+        final PartChangeEvent event;
+
+        Entry(long sequence, PartChangeEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    // One open stream with its filter and pending events
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final PartId partId;
+        final String materialNumber;
+        final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<>(properties.getSubscriberBuffer());
+        // Set while a sender task runs for this subscriber
+        final AtomicBoolean sending = new AtomicBoolean();
+        // Set when events were dropped; no events are queued until the gap event has been sent
+        final AtomicBoolean gap = new AtomicBoolean();
+        final AtomicInteger dropped = new AtomicInteger();
+        volatile boolean reset;
+        volatile boolean closed;
+        // Whether the first message was written, only accessed by the sender task
+        boolean opened;
+
+        Subscriber(SseEmitter emitter, PartId partId, String materialNumber) {
+            this.emitter = emitter;
+            this.partId = partId;
+            this.materialNumber = materialNumber;
+        }
+
+        boolean matches(PartChangeEvent event) {
+            if (partId != null) {
+                return partId.equals(event.getId());
+            }
+            return materialNumber == null || materialNumber.equals(event.getId().getMaterialNumber());
+        }
+
+        // Queues an event without blocking; called by the publisher only
+        void offer(Entry entry) {
+            if (closed) {
+                return;
+            }
+            if (gap.get() || !queue.offer(entry)) {
+                droppedEvents.increment();
+                if (properties.getOverflow() == ChangeStreamProperties.Overflow.DISCONNECT) {
+                    logger.warn("Closing part change stream because its buffer of {} events is full", queue.size());
+                    close(null);
+                } else {
+                    dropped.incrementAndGet();
+                    gap.set(true);
+                }
+            }
+        }
+
+        // Starts a sender task unless one is running
+        void schedule() {
+            if (!closed && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                if (!opened) {
+                    // Writes the response headers right away instead of with the first change
+                    opened = true;
+                    emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("part changes"));
+                }
+                if (reset) {
+                    reset = false;
+                    emitter.send(SseEmitter.event().name("reset").data(Map.of("type", "RESET"), MediaType.APPLICATION_JSON));
+                }
+                Entry entry;
+                while (!closed && (entry = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event().id(epoch + "-" + entry.sequence).name("part")
+                            .data(entry.event, MediaType.APPLICATION_JSON));
+                }
+                if (!closed && gap.get()) {
+                    // The client can reconnect with its last event id to replay what was dropped
+                    emitter.send(SseEmitter.event().name("gap")
+                            .data(Map.of("type", "GAP", "dropped", dropped.getAndSet(0)), MediaType.APPLICATION_JSON));
+                    gap.set(false);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away
+                close(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            if (!queue.isEmpty() || reset) {
+                schedule();
+            }
+        }
+
+        void close(Throwable error) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+        }
+    }
+}
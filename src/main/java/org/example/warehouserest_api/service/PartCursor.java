@@ -0,0 +1,43 @@
+package org.example.warehouserest_api.service;
+
+import org.example.warehouserest_api.model.PartId;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+// Encodes and decodes opaque keyset cursors.
+// A cursor is the last PartId of a page, written as three length-prefixed strings and Base64 (URL-safe) encoded.
+public final class PartCursor {
+
+    private PartCursor() {
+    }
+
+    // Encodes the given PartId into a cursor string
+    public static String encode(PartId partId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(partId.getMaterialNumber());
+            out.writeUTF(partId.getSerialNumber());
+            out.writeUTF(partId.getSupplierNumber());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    // Decodes a cursor string back into a PartId.
+    // Returns null if the cursor is malformed.
+    public static PartId decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            PartId partId = new PartId(in.readUTF(), in.readUTF(), in.readUTF());
+            return in.available() == 0 ? partId : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+}
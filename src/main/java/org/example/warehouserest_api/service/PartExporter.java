@@ -0,0 +1,167 @@
+package org.example.warehouserest_api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Streams the whole inventory to an output stream in NDJSON, CSV or a length-prefixed binary format.
+// Rows come from the database cursor of PartService.streamAllParts and are written one by one,
+// so memory use does not depend on the number of parts.
+@Component
+public class PartExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartExporter.class);
+
+    // Output buffer between the row writer and the response (and the gzip step)
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // First bytes of the binary format
+    static final byte[] BINARY_MAGIC = {'W', 'P', 'X', '1'};
+
+    public enum Format {
+        // One Part JSON object per line
+        NDJSON("application/x-ndjson", "ndjson"),
+        // Header line, then materialNumber,serialNumber,supplierNumber,quantity per line
+        CSV("text/csv", "csv"),
+        // BINARY_MAGIC, then per part: int32 record length, three strings (uint16 byte length + UTF-8 bytes)
+        // and an int32 quantity; all numbers big-endian
+        BINARY("application/octet-stream", "bin");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final PartService partService;
+
+    private final ObjectMapper objectMapper;
+
+    public PartExporter(PartService partService, ObjectMapper objectMapper) {
+        this.partService = partService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Writes all parts to the output stream, gzip-compressed if requested. Returns the number of parts written.
+    public long export(OutputStream out, Format format, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+        long count;
+        try {
+            count = switch (format) {
+                case NDJSON -> writeNdjson(target);
+                case CSV -> writeCsv(target);
+                case BINARY -> writeBinary(target);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        target.close();
+        logger.info("Exported {} parts as {}{}", count, format, gzip ? " (gzip)" : "");
+        return count;
+    }
+
+    private long writeNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.setRootValueSeparator(null);
+        long count = partService.streamAllParts(part -> {
+            try {
+                generator.writeObject(part);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write("materialNumber,serialNumber,supplierNumber,quantity\n");
+        long count = partService.streamAllParts(part -> {
+            try {
+                PartId id = part.getId();
+                writeCsvField(writer, id.getMaterialNumber());
+                writer.write(',');
+                writeCsvField(writer, id.getSerialNumber());
+                writer.write(',');
+                writeCsvField(writer, id.getSupplierNumber());
+                writer.write(',');
+                writer.write(Integer.toString(part.getQuantity()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return count;
+    }
+
+    // Quotes a field only if it contains a separator, quote or line break
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeBinary(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(BINARY_MAGIC);
+        long count = partService.streamAllParts(part -> {
+            try {
+                PartId id = part.getId();
+                byte[] materialNumber = id.getMaterialNumber().getBytes(StandardCharsets.UTF_8);
+                byte[] serialNumber = id.getSerialNumber().getBytes(StandardCharsets.UTF_8);
+                byte[] supplierNumber = id.getSupplierNumber().getBytes(StandardCharsets.UTF_8);
+                data.writeInt(6 + materialNumber.length + serialNumber.length + supplierNumber.length + 4);
+                writeBinaryString(data, materialNumber);
+                writeBinaryString(data, serialNumber);
+                writeBinaryString(data, supplierNumber);
+                data.writeInt(part.getQuantity());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        data.flush();
+        return count;
+    }
+
+    private static void writeBinaryString(DataOutputStream data, byte[] value) throws IOException {
+        data.writeShort(value.length);
+        data.write(value);
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.warehouserest_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.warehouserest_api.config.ImportProperties;
+import org.example.warehouserest_api.dto.ImportEvent;
+import org.example.warehouserest_api.dto.PartImportRow;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Streaming bulk import of parts from CSV or NDJSON.
+// The input is read line by line and written in chunks (warehouse.import.chunk-size), each with one multi-row
+// upsert in its own transaction, so only the current chunk is held in memory.
+// Rejected lines and progress are reported through the event consumer while the import runs.
+@Component
+public class PartImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartImporter.class);
+
+    public enum Format {
+        // materialNumber,serialNumber,supplierNumber[,quantity]; an optional header line is skipped
+        CSV,
+        // one JSON object per line with the fields of PartImportRow
+        NDJSON
+    }
+
+    private final PartService partService;
+
+    private final Validator validator;
+
+    private final ImportProperties properties;
+
+    private final ObjectReader rowReader;
+
+    public PartImporter(PartService partService, Validator validator, ImportProperties properties, ObjectMapper objectMapper) {
+        this.partService = partService;
+        this.validator = validator;
+        this.properties = properties;
+        this.rowReader = objectMapper.readerFor(PartImportRow.class);
+    }
+
+    // Imports all lines of the input and returns the final summary event (which is also passed to the consumer)
+    public ImportEvent importParts(InputStream input, Format format, Consumer<ImportEvent> events) throws IOException {
+        int chunkSize = properties.getChunkSize();
+        // A later line for the same part replaces an earlier one of the same chunk
+        Map<PartId, Part> chunk = new LinkedHashMap<>();
+        // Parts of the chunk whose lines gave no quantity
+        Set<PartId> keepQuantity = new HashSet<>();
+        long firstLineOfChunk = 0;
+        long lineNumber = 0;
+        long rowsRead = 0;
+        long imported = 0;
+        long failed = 0;
+        long chunkRows = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+            rowsRead++;
+            PartImportRow row;
+            Part part;
+            try {
+                row = format == Format.CSV ? parseCsv(line) : parseJson(line);
+                part = toPart(row);
+            } catch (IllegalArgumentException e) {
+                failed++;
+                events.accept(ImportEvent.error(lineNumber, e.getMessage()));
+                continue;
+            }
+            if (chunk.isEmpty()) {
+                firstLineOfChunk = lineNumber;
+            }
+            if (row.getQuantity() != null) {
+                chunk.put(part.getId(), part);
+                keepQuantity.remove(part.getId());
+            } else if (!chunk.containsKey(part.getId())) {
+                // A line without a quantity does not undo the quantity of an earlier line
+                chunk.put(part.getId(), part);
+                keepQuantity.add(part.getId());
+            }
+            chunkRows++;
+            if (chunk.size() >= chunkSize) {
+                if (write(chunk, keepQuantity, firstLineOfChunk, lineNumber, events)) {
+                    imported += chunkRows;
+                } else {
+                    failed += chunkRows;
+                }
+                chunkRows = 0;
+                events.accept(ImportEvent.progress(rowsRead, imported, failed));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            if (write(chunk, keepQuantity, firstLineOfChunk, lineNumber, events)) {
+                imported += chunkRows;
+            } else {
+                failed += chunkRows;
+            }
+        }
+        logger.info("Imported {} of {} part rows ({} rejected)", imported, rowsRead, failed);
+        ImportEvent summary = ImportEvent.summary(rowsRead, imported, failed);
+        events.accept(summary);
+        return summary;
+    }
+
+    // Writes and clears a chunk. Returns false if the chunk was rolled back; its lines are then reported as one error.
+    // Lines replaced by a later line for the same part count as imported.
+    private boolean write(Map<PartId, Part> chunk, Set<PartId> keepQuantity, long firstLine, long lastLine,
+                          Consumer<ImportEvent> events) {
+        List<Part> parts = new ArrayList<>(chunk.values());
+        Set<PartId> keep = new HashSet<>(keepQuantity);
+        chunk.clear();
+        keepQuantity.clear();
+        try {
+            partService.importChunk(parts, keep);
+            return true;
+        } catch (DataAccessException e) {
+            logger.error("Failed to import lines {}-{}", firstLine, lastLine, e);
+            events.accept(ImportEvent.error(firstLine, String.format(
+                    "Lines %d-%d were not imported: %s", firstLine, lastLine, e.getMostSpecificCause().getMessage())));
+            return false;
+        }
+    }
+
+    private Part toPart(PartImportRow row) {
+        PartId partId = new PartId(row.getMaterialNumber(), row.getSerialNumber(), row.getSupplierNumber());
+        Set<ConstraintViolation<PartId>> violations = validator.validate(partId);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        if (row.getQuantity() != null && row.getQuantity() < 0) {
+            throw new IllegalArgumentException("quantity cannot be negative");
+        }
+        return new Part(partId, row.getQuantity() == null ? 0 : row.getQuantity());
+    }
+
+    private PartImportRow parseJson(String line) {
+        try {
+            return rowReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.trim().regionMatches(true, 0, "materialNumber", 0, "materialNumber".length())
+                || line.trim().regionMatches(true, 0, "\"materialNumber\"", 0, "\"materialNumber\"".length());
+    }
+
+    // Parses one CSV line; fields may be quoted with double quotes ("" inside quotes is a literal quote)
+    static PartImportRow parseCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        if (fields.size() < 3 || fields.size() > 4) {
+            throw new IllegalArgumentException("Expected 3 or 4 fields but found " + fields.size());
+        }
+        Integer quantity = null;
+        if (fields.size() == 4 && !fields.get(3).isEmpty()) {
+            try {
+                quantity = Integer.parseInt(fields.get(3));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("quantity is not a number: " + fields.get(3));
+            }
+        }
+        return new PartImportRow(fields.get(0), fields.get(1), fields.get(2), quantity);
+    }
+}
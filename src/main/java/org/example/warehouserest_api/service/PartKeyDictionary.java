@@ -0,0 +1,93 @@
+package org.example.warehouserest_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.warehouserest_api.config.PartCacheProperties;
+import org.example.warehouserest_api.datasource.ShardContext;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.repository.PartRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+// In-memory dictionary translating business identifiers (PartId) into surrogate keys.
+// A part keeps its key for its whole life, so entries never change; they can only become stale
+// when a part is deleted (and possibly re-created) by another instance, which refresh() repairs.
+// Surrogate keys are only unique within a shard, and a part gets a new one when its bucket is moved,
+// so entries are kept per shard (the one selected in ShardContext, the home shard without sharding).
+@Component
+public class PartKeyDictionary {
+
+    private final PartRepository partRepository;
+
+    private final Cache<ShardPartId, Long> keys;
+
+    public PartKeyDictionary(PartRepository partRepository, PartCacheProperties properties) {
+        this.partRepository = partRepository;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(properties.getKeyDictionarySize())
+                .build();
+    }
+
+    // Returns the surrogate key of a part, or null if the part does not exist
+    public Long resolve(PartId partId) {
+        ShardPartId entry = ShardPartId.of(partId);
+        Long key = keys.getIfPresent(entry);
+        if (key != null) {
+            return key;
+        }
+        key = partRepository.findKeyByPartId(partId).orElse(null);
+        if (key != null) {
+            keys.put(entry, key);
+        }
+        return key;
+    }
+
+    // Looks the key up again after the remembered key did not match any row
+    public Long refresh(PartId partId) {
+        keys.invalidate(ShardPartId.of(partId));
+        return resolve(partId);
+    }
+
+    // Remembers the key of a newly created part
+    public void register(PartId partId, long key) {
+        keys.put(ShardPartId.of(partId), key);
+    }
+
+    // Forgets the key of a deleted part
+    public void forget(PartId partId) {
+        keys.invalidate(ShardPartId.of(partId));
+    }
+
+    // Business identifier of a part on the shard selected for the current thread
+    private static final class ShardPartId {
+        private final int shard;
+        private final PartId partId;
+
+        private ShardPartId(int shard, PartId partId) {
+            this.shard = shard;
+            this.partId = partId;
+        }
+
+        static ShardPartId of(PartId partId) {
+            Integer shard = ShardContext.current();
+            return new ShardPartId(shard == null ? ShardContext.HOME : shard, partId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ShardPartId other)) {
+                return false;
+            }
+            return shard == other.shard && partId.equals(other.partId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shard, partId);
+        }
+    }
+}
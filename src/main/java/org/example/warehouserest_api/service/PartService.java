@@ -1,80 +1,265 @@
 package org.example.warehouserest_api.service;
 
+import org.example.warehouserest_api.dto.AdjustmentResult;
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.dto.PartChangeEvent;
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.dto.PartSyncItem;
+import org.example.warehouserest_api.dto.PartSyncPage;
+import org.example.warehouserest_api.exception.BatchAdjustmentException;
 import org.example.warehouserest_api.model.Part;
 import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+import org.example.warehouserest_api.repository.PartFilter;
 import org.example.warehouserest_api.repository.PartRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 // Service class responsible for business logic related to part inventory management.
 // Handles CRUD operations and quantity adjustments for parts in the warehouse.
+// Writes that lose an optimistic locking race are run again by ConflictRetryAspect (@RetryOnConflict).
 @Service
 public class PartService {
 
     // Logger for recording service operations and errors
     private static final Logger logger = LoggerFactory.getLogger(PartService.class);
 
+    // Largest page size accepted by the keyset pagination endpoint
+    public static final int MAX_PAGE_SIZE = 1000;
+
     // Repository for database interactions with Part entities
     private final PartRepository partRepository;
 
-    // Constructor-based dependency injection for PartRepository
-    public PartService(PartRepository partRepository) {
+    // Cache of parts for getPartById, kept up to date by every write in this service
+    private final PartCache partCache;
+
+    // Translates business identifiers into surrogate keys
+    private final PartKeyDictionary partKeys;
+
+    // Stock totals per material and supplier, updated in the transaction of every write
+    private final StockTotalService stockTotals;
+
+    // Subscribers of committed part changes
+    private final PartChangeStream changeStream;
+
+    // Constructor-based dependency injection for the repository, cache, key dictionary, stock totals and change stream
+    public PartService(PartRepository partRepository, PartCache partCache, PartKeyDictionary partKeys,
+                       StockTotalService stockTotals, PartChangeStream changeStream) {
         this.partRepository = partRepository;
+        this.partCache = partCache;
+        this.partKeys = partKeys;
+        this.stockTotals = stockTotals;
+        this.changeStream = changeStream;
+    }
+
+    // Streams all parts from the warehouse inventory in composite ID order.
+    // Rows are read from a server-side cursor and passed to the action one by one,
+    // so memory use does not depend on the number of parts.
+    @Transactional(readOnly = true)
+    public long streamAllParts(Consumer<Part> action) {
+        long count = partRepository.forEachPart(action);
+        logger.info("Streamed {} parts from inventory (Get all parts from warehouse)", count);
+        return count;
+    }
+
+    // Returns a number that changes with every committed write or deletion of any part, used as the validator of
+    // collection responses: the last change log position, after the committed writes have been sequenced.
+    // Unlike the highest change sequence it also moves when a write commits after a higher-numbered one.
+    @Transactional
+    public long getCollectionVersion() {
+        return partRepository.sequenceChanges();
+    }
+
+    // Checks whether the warehouse contains at least one part without counting the whole table
+    @Transactional(readOnly = true)
+    public boolean hasParts() {
+        return !partRepository.findFirstPage(Limit.of(1)).isEmpty();
     }
 
-    // Retrieves all parts from the warehouse inventory
+    // Retrieves one keyset page of parts ordered by their composite ID.
+    // The cursor is the nextCursor of the previous page, or null for the first page.
     @Transactional(readOnly = true)
-    public List<Part> getAllParts() {
-        List<Part> parts = partRepository.findAll();
-        logger.info("Retrieved {} parts from inventory (Get all parts from warehouse)", parts.size());
-        if (parts.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No parts found in the warehouse");
+    public KeysetPage<Part> getPartsPage(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
         }
-        return parts;
+        // Fetch one extra row to find out whether another page follows
+        List<Part> parts;
+        if (cursor == null) {
+            parts = partRepository.findFirstPage(Limit.of(limit + 1));
+            if (parts.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No parts found in the warehouse");
+            }
+        } else {
+            PartId after = PartCursor.decode(cursor);
+            if (after == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Invalid cursor '%s'", cursor));
+            }
+            parts = partRepository.findPageAfter(after.getMaterialNumber(), after.getSerialNumber(), after.getSupplierNumber(), Limit.of(limit + 1));
+        }
+        String nextCursor = null;
+        if (parts.size() > limit) {
+            parts = parts.subList(0, limit);
+            nextCursor = PartCursor.encode(parts.get(limit - 1).getId());
+        }
+        logger.info("Retrieved page of {} parts from inventory", parts.size());
+        return new KeysetPage<>(parts, nextCursor);
     }
 
-    // Retrieves a specific part by its composite ID (material, serial, supplier numbers)
+    // Searches parts by material number, supplier number or a prefix of one of them; exactly one must be given.
+    // Results are projections in key order (material or supplier first), one keyset page at a time.
     @Transactional(readOnly = true)
+    public KeysetPage<PartSummary> searchParts(String materialNumber, String materialPrefix, String supplierNumber,
+                                               String supplierPrefix, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        List<PartFilter> filters = new ArrayList<>(1);
+        addFilter(filters, materialNumber, PartFilter.Field.MATERIAL_NUMBER, false);
+        addFilter(filters, materialPrefix, PartFilter.Field.MATERIAL_NUMBER, true);
+        addFilter(filters, supplierNumber, PartFilter.Field.SUPPLIER_NUMBER, false);
+        addFilter(filters, supplierPrefix, PartFilter.Field.SUPPLIER_NUMBER, true);
+        if (filters.size() != 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one of materialNumber, materialPrefix, supplierNumber and supplierPrefix must be given");
+        }
+        PartId after = null;
+        if (cursor != null) {
+            after = PartCursor.decode(cursor);
+            if (after == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Invalid cursor '%s'", cursor));
+            }
+        }
+        // Fetch one extra row to find out whether another page follows
+        List<PartSummary> parts = partRepository.findParts(filters.get(0), after, limit + 1);
+        String nextCursor = null;
+        if (parts.size() > limit) {
+            parts = parts.subList(0, limit);
+            nextCursor = PartCursor.encode(parts.get(limit - 1).getId());
+        }
+        logger.info("Found {} parts by {}", parts.size(), filters.get(0).getField());
+        return new KeysetPage<>(parts, nextCursor);
+    }
+
+    // Returns the parts created or changed and the parts deleted after the given change log position, oldest first.
+    // A client that stored nextSince of its last sync only receives what changed since then.
+    // Committed writes are sequenced first; positions are handed out in commit order, so a write that commits
+    // late still comes after the positions a client has already seen. Runs on the primary for that reason.
+    @Transactional
+    public PartSyncPage syncChanges(long since, int limit) {
+        if (since < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sequence must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        partRepository.sequenceChanges();
+        // Fetch one extra entry to find out whether more changes follow
+        List<PartSyncItem> changes = partRepository.findChangesSince(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        logger.info("Returned {} changes since sequence {}", changes.size(), since);
+        return new PartSyncPage(changes, nextSince, hasMore);
+    }
+
+    private static void addFilter(List<PartFilter> filters, String value, PartFilter.Field field, boolean prefix) {
+        if (value == null) {
+            return;
+        }
+        if (value.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Search value for %s must not be blank", field));
+        }
+        filters.add(prefix ? PartFilter.startingWith(field, value) : PartFilter.equalTo(field, value));
+    }
+
+    // Retrieves a specific part by its composite ID (material, serial, supplier numbers).
+    // Served from the part cache when possible. Not transactional itself, so a cache hit does not
+    // take a database connection; the repository lookups run in their own read-only transactions.
     public Part getPartById(String materialNumber, String serialNumber, String supplierNumber) {
         PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
+        Part cached = partCache.get(partId);
+        if (cached != null) {
+            if (!partCache.isVersionChecked()) {
+                return cached;
+            }
+            // Version-checked mode: only serve the entry if the stored row still has the same version
+            Optional<Long> version = partRepository.findVersionByKey(cached.getKey());
+            if (version.isPresent() && version.get().equals(cached.getVersion())) {
+                return cached;
+            }
+            partCache.evictStale(partId);
+        }
         // Find part or throw exception if not found
-        Part part = partRepository.findById(partId)
+        long stamp = partCache.readStamp();
+        Part part = findPart(partId)
                 .orElseThrow(() -> {
                     logger.warn("Part with ID {} not found", partId);
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", partId));
                 });
+        partCache.put(part, stamp);
         logger.info("Retrieved part {}", partId);
         return part;
     }
 
+    // Reads the committed row of a part, bypassing the part cache. Runs in a read-write transaction,
+    // so the row comes from the primary and not from a possibly lagging replica.
+    @Transactional
+    public Part getCommittedPart(String materialNumber, String serialNumber, String supplierNumber) {
+        PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
+        return findPart(partId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", partId)));
+    }
+
     // Adds a new part to the warehouse with initial quantity of zero
+    @RetryOnConflict
     @Transactional
     public Part addPart(String materialNumber, String serialNumber, String supplierNumber) {
         PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
-        // Check if part already exists to avoid duplicate entries
-        if (partRepository.existsById(partId)) {
+        // Check if part already exists to avoid duplicate entries (against the database, not a remembered key)
+        if (partKeys.refresh(partId) != null) {
             logger.warn("Cannot add part {} because it already exists", partId);
             throw new ResponseStatusException(HttpStatus.CONFLICT, String.format("Cannot add part '%s' because it already exists", partId));
         }
         // Create and save new part with initial quantity of 0
         Part newPart = new Part(partId, 0);
+        newPart.setChangeSeq(partRepository.nextChangeSeq());
         Part saved = partRepository.save(newPart);
+        partKeys.register(partId, saved.getKey());
+        stockTotals.record(StockChanges.of(partId, 0, 1));
+        partCache.update(saved);
+        changeStream.publishAfterCommit(PartChangeEvent.added(partId, saved.getQuantity()));
         logger.info("Added new part {} with initial quantity {}", partId, saved.getQuantity());
         return saved;
     }
 
     // Deletes a part from the warehouse, but only if its quantity is zero
+    @RetryOnConflict
     @Transactional
     public void deletePart(String materialNumber, String serialNumber, String supplierNumber) {
         PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
         // Find part or throw exception if not found
-        Part part = partRepository.findById(partId)
+        Part part = findPart(partId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", partId)));
         // Check if quantity is zero before allowing deletion
         if (part.getQuantity() != 0) {
@@ -83,62 +268,429 @@ public class PartService {
         }
         // Deletes a part
         partRepository.delete(part);
+        partRepository.recordTombstone(partId);
+        stockTotals.record(StockChanges.of(partId, 0, -1));
+        partKeys.forget(partId);
+        partCache.evict(partId);
+        changeStream.publishAfterCommit(PartChangeEvent.deleted(partId));
         logger.info("Deleted part {} from inventory", partId);
     }
 
-    // Increases the quantity of a part by the specified amount
+    // Increases the quantity of a part by the specified amount.
+    // The change is applied with a single conditional UPDATE, so concurrent adjustments never conflict.
+    @RetryOnConflict
     @Transactional
     public Part increaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount) {
+        return increaseQuantity(materialNumber, serialNumber, supplierNumber, amount, null);
+    }
+
+    // Increases the quantity only if the part still has the expected version (If-Match); null means unconditional.
+    // The version check is part of the UPDATE statement, so a conditional write needs no extra read.
+    @RetryOnConflict
+    @Transactional
+    public Part increaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount, Long expectedVersion) {
         PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
-        // Find part or throw exception if not found
-        Part part = partRepository.findById(partId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        String.format("Part with ID '%s' not found (increase operation)", partId)
-                ));
-        // Validate that amount is positive
-        if (amount < 1) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    String.format("Amount must be greater than 0 for part '%s' (during increase operation)", partId)
-            );
+        validateAmount(partId, amount, "increase");
+        // Increase quantity in one round trip, or fail if the part does not exist or has another version
+        Optional<Part> adjusted = adjust(partId, amount, expectedVersion);
+        if (adjusted.isEmpty()) {
+            // Without a version condition an increase only fails for a missing part
+            Part part = (expectedVersion == null ? Optional.<Part>empty() : findPart(partId))
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND,
+                            String.format("Part with ID '%s' not found (increase operation)", partId)
+                    ));
+            throw versionMismatch(partId, part, expectedVersion);
         }
-        // Increase quantity
-        part.setQuantity(part.getQuantity() + amount);
-        Part saved = partRepository.save(part);
+        Part saved = adjusted.get();
+        stockTotals.record(StockChanges.of(partId, amount, 0));
+        partCache.update(saved);
+        changeStream.publishAfterCommit(PartChangeEvent.quantityChanged(partId, saved.getQuantity(), amount));
         logger.info("Increased quantity for part {} by {} (new quantity: {})", partId, amount, saved.getQuantity());
         return saved;
     }
 
-    // Decreases the quantity of a part by the specified amount, but never below zero
+    // Decreases the quantity of a part by the specified amount, but never below zero.
+    // The non-negative check is part of the UPDATE statement, so there is no window for lost updates.
+    @RetryOnConflict
     @Transactional
     public Part decreaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount) {
+        return decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount, null);
+    }
+
+    // Decreases the quantity only if the part still has the expected version (If-Match); null means unconditional.
+    @RetryOnConflict
+    @Transactional
+    public Part decreaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount, Long expectedVersion) {
         PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
-        // Find part or throw exception if not found
-        Part part = partRepository.findById(partId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        String.format("Part with ID '%s' not found (decrease operation)", partId)
-                ));
-        // Validate that amount is positive
-        if (amount < 1) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    String.format("Amount must be greater than 0 for part '%s' (during decrease operation)", partId)
-            );
-        }
-        // Check if there's enough quantity to subtract
-        if (amount > part.getQuantity()) {
+        validateAmount(partId, amount, "decrease");
+        Optional<Part> adjusted = adjust(partId, -amount, expectedVersion);
+        if (adjusted.isEmpty()) {
+            // Nothing was updated: find out whether the part is missing, has another version or there is not enough quantity
+            Part part = findPart(partId)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND,
+                            String.format("Part with ID '%s' not found (decrease operation)", partId)
+                    ));
+            if (expectedVersion != null && !expectedVersion.equals(part.getVersion())) {
+                throw versionMismatch(partId, part, expectedVersion);
+            }
             logger.warn("Cannot subtract {} from part {} because current quantity is only {}", amount, partId, part.getQuantity());
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
                     String.format("Cannot subtract '%s' from part '%s' because current quantity is only '%s'", amount, partId, part.getQuantity())
             );
         }
-        // Decrease quantity, save and log operation
-        part.setQuantity(part.getQuantity() - amount);
-        Part saved = partRepository.save(part);
+        Part saved = adjusted.get();
+        stockTotals.record(StockChanges.of(partId, -amount, 0));
+        partCache.update(saved);
+        changeStream.publishAfterCommit(PartChangeEvent.quantityChanged(partId, saved.getQuantity(), -amount));
         logger.info("Decreased quantity for part {} by {} (new quantity: {})", partId, amount, saved.getQuantity());
         return saved;
     }
+
+    // Applies a signed quantity change whose amount was already validated by the caller.
+    // Used by the write-coalescing path to write the net change of many requests at once.
+    @RetryOnConflict
+    @Transactional
+    public Part applyDelta(PartId partId, int delta) {
+        Optional<Part> adjusted = adjust(partId, delta, null);
+        if (adjusted.isEmpty()) {
+            Part part = findPart(partId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", partId)));
+            logger.warn("Cannot apply delta {} to part {} because current quantity is only {}", delta, partId, part.getQuantity());
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    String.format("Cannot subtract '%s' from part '%s' because current quantity is only '%s'", -delta, partId, part.getQuantity())
+            );
+        }
+        Part saved = adjusted.get();
+        stockTotals.record(StockChanges.of(partId, delta, 0));
+        partCache.update(saved);
+        changeStream.publishAfterCommit(PartChangeEvent.quantityChanged(partId, saved.getQuantity(), delta));
+        logger.info("Applied delta {} to part {} (new quantity: {})", delta, partId, saved.getQuantity());
+        return saved;
+    }
+
+    // Applies a batch of quantity adjustments in one transaction, sending the UPDATE statements as JDBC batches.
+    // In ALL_OR_NOTHING mode the transaction is rolled back if any operation fails;
+    // in BEST_EFFORT mode the operations that succeeded are committed and the others are reported.
+    @RetryOnConflict
+    @Transactional
+    public BatchAdjustmentResponse adjustQuantities(BatchAdjustmentRequest.Mode mode, List<QuantityAdjustment> adjustments) {
+        int size = adjustments.size();
+        AdjustmentResult.Outcome[] outcomes = new AdjustmentResult.Outcome[size];
+        // Zero deltas are rejected up front and never sent to the database
+        List<QuantityAdjustment> valid = new ArrayList<>(size);
+        int[] validIndex = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (adjustments.get(i).getDelta() == 0) {
+                outcomes[i] = AdjustmentResult.Outcome.INVALID_AMOUNT;
+            } else {
+                validIndex[valid.size()] = i;
+                valid.add(adjustments.get(i));
+            }
+        }
+        Map<Long, Part> updatedParts = new HashMap<>();
+        long[] keys = new long[size];
+        boolean rejectedUpFront = mode == BatchAdjustmentRequest.Mode.ALL_OR_NOTHING && valid.size() < size;
+        if (!rejectedUpFront && !valid.isEmpty()) {
+            // Translate business identifiers to surrogate keys; unknown parts are not sent to the database
+            List<QuantityAdjustment> known = new ArrayList<>(valid.size());
+            int[] knownIndex = new int[valid.size()];
+            for (int j = 0; j < valid.size(); j++) {
+                Long key = partKeys.resolve(valid.get(j).getId());
+                if (key == null) {
+                    outcomes[validIndex[j]] = AdjustmentResult.Outcome.NOT_FOUND;
+                } else {
+                    keys[validIndex[j]] = key;
+                    knownIndex[known.size()] = validIndex[j];
+                    known.add(valid.get(j));
+                }
+            }
+            if (!(mode == BatchAdjustmentRequest.Mode.ALL_OR_NOTHING && known.size() < valid.size()) && !known.isEmpty()) {
+                // The statements run in surrogate key order, the order in which lockParts locks rows, so concurrent
+                // batches and transfers take their row locks in the same order and cannot deadlock; adjustments of
+                // the same part keep their request order
+                List<Integer> batchOrder = new ArrayList<>(known.size());
+                for (int j = 0; j < known.size(); j++) {
+                    batchOrder.add(j);
+                }
+                batchOrder.sort(Comparator.comparingLong(j -> keys[knownIndex[j]]));
+                long[] batchKeys = new long[known.size()];
+                PartId[] batchIds = new PartId[known.size()];
+                int[] batchDeltas = new int[known.size()];
+                Map<Long, PartId> keyOwners = new HashMap<>();
+                for (int b = 0; b < known.size(); b++) {
+                    int j = batchOrder.get(b);
+                    batchKeys[b] = keys[knownIndex[j]];
+                    batchIds[b] = known.get(j).getId();
+                    batchDeltas[b] = known.get(j).getDelta();
+                    keyOwners.put(batchKeys[b], batchIds[b]);
+                }
+                int[] batchUpdated = partRepository.adjustQuantities(batchKeys, batchIds, batchDeltas);
+                int[] updated = new int[known.size()];
+                for (int b = 0; b < known.size(); b++) {
+                    updated[batchOrder.get(b)] = batchUpdated[b];
+                }
+                // One query for the resulting quantities, which also tells missing parts apart from insufficient quantity
+                Set<Long> partKeySet = new HashSet<>();
+                for (long key : batchKeys) {
+                    partKeySet.add(key);
+                }
+                partRepository.findAllById(partKeySet).forEach(part -> {
+                    // A stale key may now belong to another part, which does not count as found
+                    if (part.getId().equals(keyOwners.get(part.getKey()))) {
+                        updatedParts.put(part.getKey(), part);
+                        partCache.update(part);
+                    }
+                });
+                for (int j = 0; j < known.size(); j++) {
+                    int i = knownIndex[j];
+                    if (updated[j] > 0) {
+                        outcomes[i] = AdjustmentResult.Outcome.APPLIED;
+                    } else if (updatedParts.containsKey(keys[i])) {
+                        // Only an increase can overflow, only a decrease can go negative
+                        outcomes[i] = known.get(j).getDelta() > 0
+                                ? AdjustmentResult.Outcome.QUANTITY_OUT_OF_RANGE
+                                : AdjustmentResult.Outcome.INSUFFICIENT_QUANTITY;
+                    } else {
+                        // The remembered key is gone; look it up again next time
+                        partKeys.forget(known.get(j).getId());
+                        outcomes[i] = AdjustmentResult.Outcome.NOT_FOUND;
+                    }
+                }
+            }
+        }
+        int applied = 0;
+        for (AdjustmentResult.Outcome outcome : outcomes) {
+            if (outcome == AdjustmentResult.Outcome.APPLIED) {
+                applied++;
+            }
+        }
+        boolean rollback = mode == BatchAdjustmentRequest.Mode.ALL_OR_NOTHING && applied < size;
+        if (!rollback && applied > 0) {
+            StockChanges changes = new StockChanges();
+            List<PartChangeEvent> events = new ArrayList<>(applied);
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i] == AdjustmentResult.Outcome.APPLIED) {
+                    QuantityAdjustment adjustment = adjustments.get(i);
+                    changes.add(adjustment.getId(), adjustment.getDelta(), 0);
+                    // A part adjusted more than once in the batch reports its final quantity each time
+                    events.add(PartChangeEvent.quantityChanged(adjustment.getId(), updatedParts.get(keys[i]).getQuantity(), adjustment.getDelta()));
+                }
+            }
+            stockTotals.record(changes);
+            changeStream.publishAfterCommit(events);
+        }
+        List<AdjustmentResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            QuantityAdjustment adjustment = adjustments.get(i);
+            AdjustmentResult.Outcome outcome = outcomes[i];
+            if (outcome == null || (rollback && outcome == AdjustmentResult.Outcome.APPLIED)) {
+                outcome = AdjustmentResult.Outcome.NOT_APPLIED;
+            }
+            Integer quantity = outcome == AdjustmentResult.Outcome.APPLIED ? updatedParts.get(keys[i]).getQuantity() : null;
+            results.add(new AdjustmentResult(i, adjustment.getId(), adjustment.getDelta(), outcome, quantity));
+        }
+        if (rollback) {
+            logger.warn("Rejected {} batch of {} adjustments because {} operations failed", mode, size, size - applied);
+            throw new BatchAdjustmentException(new BatchAdjustmentResponse(mode, 0, size, results));
+        }
+        logger.info("Applied {} of {} adjustments in {} batch", applied, size, mode);
+        return new BatchAdjustmentResponse(mode, applied, size - applied, results);
+    }
+
+    // Moves stock between parts atomically: the net change of every part is applied in one transaction or not at all.
+    // All affected rows are locked first in surrogate key order, so transfers and batch adjustments touching
+    // overlapping parts wait for each other instead of deadlocking. No part may end up below zero; the check covers the whole set before anything
+    // is written, and the changes are then sent as one JDBC batch. Returns the parts in composite ID order.
+    @RetryOnConflict
+    @Transactional
+    public List<Part> transferStock(List<QuantityAdjustment> adjustments) {
+        // Net change per part, in the order of the result
+        Map<PartId, Integer> netDeltas = new TreeMap<>();
+        for (QuantityAdjustment adjustment : adjustments) {
+            if (adjustment.getDelta() == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Delta for part '%s' must not be zero", adjustment.getId()));
+            }
+            try {
+                netDeltas.merge(adjustment.getId(), adjustment.getDelta(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Deltas for part '%s' are out of range", adjustment.getId()));
+            }
+        }
+        Map<PartId, Part> locked = new HashMap<>();
+        for (Part part : partRepository.lockParts(new ArrayList<>(netDeltas.keySet()))) {
+            locked.put(part.getId(), part);
+        }
+        for (Map.Entry<PartId, Integer> entry : netDeltas.entrySet()) {
+            Part part = locked.get(entry.getKey());
+            if (part == null) {
+                partKeys.forget(entry.getKey());
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", entry.getKey()));
+            }
+            if ((long) part.getQuantity() + entry.getValue() < 0) {
+                logger.warn("Rejected transfer of {} parts because part {} has only {} for a change of {}",
+                        netDeltas.size(), entry.getKey(), part.getQuantity(), entry.getValue());
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        String.format("Cannot subtract '%s' from part '%s' because current quantity is only '%s'",
+                                -entry.getValue(), entry.getKey(), part.getQuantity())
+                );
+            }
+            if ((long) part.getQuantity() + entry.getValue() > Integer.MAX_VALUE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Transfer would exceed the largest quantity of part '%s'", entry.getKey()));
+            }
+        }
+        // Parts whose changes cancel out are neither written nor reported as changed
+        List<PartId> changed = new ArrayList<>(netDeltas.size());
+        for (Map.Entry<PartId, Integer> entry : netDeltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                changed.add(entry.getKey());
+            }
+        }
+        long[] batchKeys = new long[changed.size()];
+        PartId[] batchIds = changed.toArray(new PartId[0]);
+        int[] batchDeltas = new int[changed.size()];
+        for (int i = 0; i < changed.size(); i++) {
+            batchKeys[i] = locked.get(changed.get(i)).getKey();
+            batchDeltas[i] = netDeltas.get(changed.get(i));
+        }
+        int[] updated = partRepository.adjustQuantities(batchKeys, batchIds, batchDeltas);
+        for (int i = 0; i < updated.length; i++) {
+            // The rows are locked and were checked above, so every statement must have matched
+            if (updated[i] != 1) {
+                throw new IllegalStateException(String.format("Transfer update of locked part %s matched %d rows", changed.get(i), updated[i]));
+            }
+        }
+        StockChanges changes = new StockChanges();
+        List<PartChangeEvent> events = new ArrayList<>(changed.size());
+        for (PartId partId : changed) {
+            Part part = locked.get(partId);
+            int delta = netDeltas.get(partId);
+            part.setQuantity(part.getQuantity() + delta);
+            part.setVersion(part.getVersion() + 1);
+            partCache.update(part);
+            changes.add(partId, delta, 0);
+            events.add(PartChangeEvent.quantityChanged(partId, part.getQuantity(), delta));
+        }
+        stockTotals.record(changes);
+        changeStream.publishAfterCommit(events);
+        logger.info("Transferred stock between {} parts", changed.size());
+        List<Part> parts = new ArrayList<>(netDeltas.size());
+        for (PartId partId : netDeltas.keySet()) {
+            parts.add(locked.get(partId));
+        }
+        return parts;
+    }
+
+    // Writes one chunk of a bulk import in its own transaction with a single multi-row upsert.
+    // New parts are created, existing parts get the imported quantity. The parts must have distinct identifiers.
+    // Parts listed in keepQuantity came without a quantity: they are created with quantity 0 if missing,
+    // but existing ones keep their stock and are not written at all.
+    // Surrogate keys of existing parts do not change, so only the cached parts need to be dropped.
+    // The existing parts are locked first to learn the quantities the upsert replaces, for the stock totals.
+    @RetryOnConflict
+    @Transactional
+    public int importChunk(List<Part> parts, Set<PartId> keepQuantity) {
+        Map<PartId, Integer> previous = partRepository.lockQuantities(parts.stream().map(Part::getId).toList());
+        List<Part> replaced = new ArrayList<>(parts.size());
+        List<PartId> created = new ArrayList<>();
+        for (Part part : parts) {
+            if (!keepQuantity.contains(part.getId())) {
+                replaced.add(part);
+            } else if (!previous.containsKey(part.getId())) {
+                created.add(part.getId());
+            }
+        }
+        int written = partRepository.upsertParts(replaced) + partRepository.insertMissingParts(created);
+        StockChanges changes = new StockChanges();
+        List<PartChangeEvent> events = new ArrayList<>(parts.size());
+        for (Part part : replaced) {
+            Integer before = previous.get(part.getId());
+            changes.add(part.getId(), part.getQuantity() - (before == null ? 0 : before), before == null ? 1 : 0);
+            events.add(before == null
+                    ? PartChangeEvent.added(part.getId(), part.getQuantity())
+                    : PartChangeEvent.quantityChanged(part.getId(), part.getQuantity(), null));
+        }
+        for (PartId partId : created) {
+            changes.add(partId, 0, 1);
+            events.add(PartChangeEvent.added(partId, 0));
+        }
+        stockTotals.record(changes);
+        changeStream.publishAfterCommit(events);
+        partCache.evictAll(parts.stream().map(Part::getId).toList());
+        logger.info("Imported chunk of {} parts", parts.size());
+        return written;
+    }
+
+    // Loads a part by its business identifier through the key dictionary
+    private Optional<Part> findPart(PartId partId) {
+        Long key = partKeys.resolve(partId);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Optional<Part> part = partRepository.findById(key).filter(found -> found.getId().equals(partId));
+        if (part.isEmpty()) {
+            // The remembered key is stale (the part was deleted, maybe re-created by another instance, or its
+            // bucket was moved to another shard, where the key can belong to a different part)
+            Long fresh = partKeys.refresh(partId);
+            if (fresh != null) {
+                part = partRepository.findById(fresh).filter(found -> found.getId().equals(partId));
+            }
+        }
+        return part;
+    }
+
+    // Applies a conditional quantity change by surrogate key, optionally only if the version matches.
+    // If nothing was updated and the remembered key turns out to be stale, the change is retried once with the current key.
+    private Optional<Part> adjust(PartId partId, int delta, Long expectedVersion) {
+        Long key = partKeys.resolve(partId);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Optional<Part> adjusted = adjustByKey(key, partId, delta, expectedVersion);
+        if (adjusted.isEmpty()) {
+            Long fresh = partKeys.refresh(partId);
+            if (fresh != null && !fresh.equals(key)) {
+                adjusted = adjustByKey(fresh, partId, delta, expectedVersion);
+            }
+        }
+        return adjusted;
+    }
+
+    private Optional<Part> adjustByKey(long key, PartId partId, int delta, Long expectedVersion) {
+        return expectedVersion == null
+                ? partRepository.adjustQuantity(key, partId, delta)
+                : partRepository.adjustQuantityIfVersion(key, partId, delta, expectedVersion);
+    }
+
+    // Error for a conditional write whose expected version no longer matches the stored part
+    private ResponseStatusException versionMismatch(PartId partId, Part part, Long expectedVersion) {
+        logger.warn("Part {} has version {}, not the expected version {}", partId, part.getVersion(), expectedVersion);
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                String.format("Part '%s' was modified (version '%s', expected '%s')", partId, part.getVersion(), expectedVersion));
+    }
+
+    // Validates that the amount of an increase/decrease operation is positive.
+    // A missing part is still reported as not found before the amount is rejected.
+    private void validateAmount(PartId partId, int amount, String operation) {
+        if (amount >= 1) {
+            return;
+        }
+        if (partKeys.resolve(partId) == null) {
+            throw new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    String.format("Part with ID '%s' not found (%s operation)", partId, operation)
+            );
+        }
+        throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                String.format("Amount must be greater than 0 for part '%s' (during %s operation)", partId, operation)
+        );
+    }
 }
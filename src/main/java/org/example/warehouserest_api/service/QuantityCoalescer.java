@@ -0,0 +1,333 @@
+package org.example.warehouserest_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.CoalescingProperties;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Optional write-coalescing front end for increaseQuantity/decreaseQuantity (warehouse.coalescing.enabled).
+// Concurrent deltas for the same part are merged in a per-part accumulator and a short flush cycle
+// writes their net change with one conditional UPDATE through PartService.applyDelta.
+// A request still returns only after the flush that contains its delta has been committed.
+@Component
+public class QuantityCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuantityCoalescer.class);
+
+    private final PartService partService;
+
+    private final CoalescingProperties properties;
+
+    // One accumulator per tracked part, bounded by maxTrackedParts; idle parts expire.
+    // An accumulator that expires while a request still holds it stays queued until its deltas are flushed.
+    private final Cache<PartId, Accumulator> accumulators;
+
+    // Accumulators with pending deltas, each queued at most once
+    private final ConcurrentLinkedQueue<Accumulator> dirty = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService flusher;
+
+    public QuantityCoalescer(PartService partService, CoalescingProperties properties) {
+        this.partService = partService;
+        this.properties = properties;
+        this.accumulators = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    // Starts the periodic flush when coalescing is enabled
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantity-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toNanos();
+        flusher.scheduleWithFixedDelay(this::flushDirty, interval, interval, TimeUnit.NANOSECONDS);
+        logger.info("Quantity write coalescing enabled (flush interval {}, max delay {})",
+                properties.getFlushInterval(), properties.getMaxDelay());
+    }
+
+    // Stops the periodic flush and writes what is still pending
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flushDirty();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Number of parts that currently have an accumulator
+    public int getTrackedParts() {
+        accumulators.cleanUp();
+        return (int) accumulators.estimatedSize();
+    }
+
+    // Increases the quantity of a part through its accumulator
+    public Part increaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount) {
+        Accumulator accumulator = amount < 1 ? null : accumulatorFor(materialNumber, serialNumber, supplierNumber);
+        if (accumulator == null) {
+            // Invalid amounts and untracked parts take the direct path, which also produces the usual errors
+            return partService.increaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+        }
+        accumulator.available.addAndGet(amount);
+        accumulator.increases.add(amount);
+        Epoch epoch = accumulator.epoch.get();
+        markDirty(accumulator);
+        return await(accumulator, epoch.increases);
+    }
+
+    // Decreases the quantity of a part through its accumulator.
+    // The amount is reserved against the local balance first, so the flushed net change never goes below zero.
+    // The balance can lag behind the database (changes made elsewhere), so a decrease it cannot cover re-reads the
+    // part and, if still short, is written directly: only the conditional update in the database rejects it.
+    public Part decreaseQuantity(String materialNumber, String serialNumber, String supplierNumber, int amount) {
+        Accumulator accumulator = amount < 1 ? null : accumulatorFor(materialNumber, serialNumber, supplierNumber);
+        if (accumulator == null) {
+            return partService.decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+        }
+        if (!reserve(accumulator, amount)) {
+            if (accumulator.flushing.compareAndSet(false, true)) {
+                try {
+                    resync(accumulator);
+                } finally {
+                    accumulator.flushing.set(false);
+                }
+            }
+            if (!reserve(accumulator, amount)) {
+                logger.debug("Reserved balance of part {} is below {}, subtracting directly", accumulator.partId, amount);
+                return partService.decreaseQuantity(materialNumber, serialNumber, supplierNumber, amount);
+            }
+        }
+        accumulator.decreases.add(amount);
+        Epoch epoch = accumulator.epoch.get();
+        markDirty(accumulator);
+        return await(accumulator, epoch.decreases);
+    }
+
+    // Takes the amount from the local balance, or returns false if the balance is too low
+    private boolean reserve(Accumulator accumulator, int amount) {
+        long current;
+        do {
+            current = accumulator.available.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!accumulator.available.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    // Returns the accumulator of a part, creating it from the committed database row on first use.
+    // Returns null when the tracking limit is reached.
+    private Accumulator accumulatorFor(String materialNumber, String serialNumber, String supplierNumber) {
+        PartId partId = new PartId(materialNumber, serialNumber, supplierNumber);
+        Accumulator accumulator = accumulators.getIfPresent(partId);
+        if (accumulator != null) {
+            return accumulator;
+        }
+        if (accumulators.estimatedSize() >= properties.getMaxTrackedParts()) {
+            return null;
+        }
+        Accumulator created = new Accumulator(partId, partService.getCommittedPart(materialNumber, serialNumber, supplierNumber));
+        Accumulator existing = accumulators.asMap().putIfAbsent(partId, created);
+        return existing != null ? existing : created;
+    }
+
+    private void markDirty(Accumulator accumulator) {
+        if (accumulator.queued.compareAndSet(false, true)) {
+            dirty.offer(accumulator);
+        }
+    }
+
+    // Waits for the flush that contains the caller's delta.
+    // If the periodic flush does not come within maxDelay, the caller flushes the part itself.
+    private Part await(Accumulator accumulator, CompletableFuture<Part> result) {
+        long maxDelay = properties.getMaxDelay().toNanos();
+        try {
+            while (true) {
+                try {
+                    return result.get(maxDelay, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    flush(accumulator);
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // The delta stays reserved and is written by a later flush
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the quantity update to be written");
+        }
+    }
+
+    // Flushes every accumulator with pending deltas; runs on the flusher thread
+    void flushDirty() {
+        List<Accumulator> busy = new ArrayList<>();
+        Accumulator accumulator;
+        while ((accumulator = dirty.poll()) != null) {
+            accumulator.queued.set(false);
+            if (!flush(accumulator)) {
+                busy.add(accumulator);
+            }
+        }
+        // Accumulators being flushed by a waiting request are looked at again in the next cycle
+        busy.forEach(this::markDirty);
+    }
+
+    // Writes the net pending change of one part.
+    // Returns false if another thread is already flushing this part.
+    boolean flush(Accumulator accumulator) {
+        if (!accumulator.flushing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            // Swap the epoch before draining, so every delta added to a drained epoch is part of this flush
+            Epoch done = accumulator.epoch.getAndSet(new Epoch());
+            long added = accumulator.increases.sum();
+            long removed = accumulator.decreases.sum();
+            accumulator.increases.add(-added);
+            accumulator.decreases.add(-removed);
+            if (added == removed) {
+                // Nothing to write (no deltas, or they cancel out)
+                done.increases.complete(accumulator.last);
+                done.decreases.complete(accumulator.last);
+                return true;
+            }
+            try {
+                Part part = write(accumulator, added - removed);
+                done.increases.complete(part);
+                done.decreases.complete(part);
+            } catch (ResponseStatusException e) {
+                // The database disagrees with the local balance (changed outside the coalescer, or deleted):
+                // give the reservations back, resynchronize and still apply the increases on their own
+                accumulator.available.addAndGet(removed - added);
+                resync(accumulator);
+                done.decreases.completeExceptionally(e);
+                if (added > 0 && e.getStatusCode() == HttpStatus.CONFLICT) {
+                    accumulator.available.addAndGet(added);
+                    completeWith(done.increases, accumulator, added);
+                } else {
+                    done.increases.completeExceptionally(e);
+                }
+            } catch (RuntimeException e) {
+                accumulator.available.addAndGet(removed - added);
+                logger.error("Failed to flush coalesced quantity changes for part {}", accumulator.partId, e);
+                done.increases.completeExceptionally(e);
+                done.decreases.completeExceptionally(e);
+            }
+            return true;
+        } finally {
+            accumulator.flushing.set(false);
+        }
+    }
+
+    private void completeWith(CompletableFuture<Part> result, Accumulator accumulator, long delta) {
+        try {
+            result.complete(write(accumulator, delta));
+        } catch (RuntimeException e) {
+            accumulator.available.addAndGet(-delta);
+            result.completeExceptionally(e);
+        }
+    }
+
+    // Writes a net change and folds any difference to the expected quantity (writes made elsewhere) into the local balance
+    private Part write(Accumulator accumulator, long delta) {
+        Part part = partService.applyDelta(accumulator.partId, Math.toIntExact(delta));
+        long drift = part.getQuantity() - (accumulator.base + delta);
+        if (drift != 0) {
+            accumulator.available.addAndGet(drift);
+        }
+        accumulator.base = part.getQuantity();
+        accumulator.last = part;
+        return part;
+    }
+
+    // Re-reads the database quantity after a failed flush or when a decrease exceeds the local balance;
+    // the caller holds the flushing flag
+    private void resync(Accumulator accumulator) {
+        PartId partId = accumulator.partId;
+        long quantity;
+        try {
+            Part part = partService.getCommittedPart(partId.getMaterialNumber(), partId.getSerialNumber(), partId.getSupplierNumber());
+            accumulator.last = part;
+            quantity = part.getQuantity();
+        } catch (ResponseStatusException e) {
+            // Deleted parts start again from zero if they are re-created
+            quantity = 0;
+        }
+        accumulator.available.addAndGet(quantity - accumulator.base);
+        accumulator.base = quantity;
+    }
+
+    // Waiters of one flush cycle, split so that a failed decrease does not fail the increases
+    private static final class Epoch {
+        final CompletableFuture<Part> increases = new CompletableFuture<>();
+        final CompletableFuture<Part> decreases = new CompletableFuture<>();
+    }
+
+    // Pending state of one part
+    static final class Accumulator {
+
+        final PartId partId;
+
+        // Reserved local balance: last written quantity plus pending increases minus pending decreases
+        final AtomicLong available;
+
+        // Pending increases and decreases since the last flush
+        final LongAdder increases = new LongAdder();
+        final LongAdder decreases = new LongAdder();
+
+        // Waiters of the current flush cycle
+        final AtomicReference<Epoch> epoch = new AtomicReference<>(new Epoch());
+
+        final AtomicBoolean queued = new AtomicBoolean();
+
+        final AtomicBoolean flushing = new AtomicBoolean();
+
+        // Quantity and row last seen in the database; only changed by the thread holding the flushing flag
+        volatile long base;
+        volatile Part last;
+
+        Accumulator(PartId partId, Part part) {
+            this.partId = partId;
+            this.base = part.getQuantity();
+            this.last = part;
+            this.available = new AtomicLong(part.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.warehouserest_api.service;
+
+import org.example.warehouserest_api.config.RetryProperties;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.dto.PartChangeEvent;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.repository.ReactivePartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+
+// Reactive counterpart of PartService for the WebFlux API (Spring profile "reactive").
+// Same rules, status codes and messages; every write updates the stock totals, change sequence and tombstones
+// in the same R2DBC transaction and publishes its change event once that transaction has committed.
+// The part cache and key dictionary are not used, since reads do not block a thread here.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePartService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePartService.class);
+
+    private final ReactivePartRepository partRepository;
+
+    private final TransactionalOperator transactions;
+
+    private final PartChangeStream changeStream;
+
+    private final RetryProperties retryProperties;
+
+    public ReactivePartService(ReactivePartRepository partRepository, TransactionalOperator transactions,
+                               PartChangeStream changeStream, RetryProperties retryProperties) {
+        this.partRepository = partRepository;
+        this.transactions = transactions;
+        this.changeStream = changeStream;
+        this.retryProperties = retryProperties;
+    }
+
+    // Streams all parts ordered by composite ID, or fails with 404 if there are none
+    public Flux<Part> getAllParts() {
+        return partRepository.hasParts().flatMapMany(hasParts -> hasParts
+                ? partRepository.findAll()
+                : Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No parts found in the warehouse")));
+    }
+
+    // Retrieves one keyset page of parts ordered by their composite ID, like PartService.getPartsPage
+    public Mono<KeysetPage<Part>> getPartsPage(String cursor, int limit) {
+        if (limit < 1 || limit > PartService.MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Limit must be between 1 and %d", PartService.MAX_PAGE_SIZE)));
+        }
+        Flux<Part> rows;
+        if (cursor == null) {
+            rows = partRepository.findFirstPage(limit + 1);
+        } else {
+            PartId after = PartCursor.decode(cursor);
+            if (after == null) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Invalid cursor '%s'", cursor)));
+            }
+            rows = partRepository.findPageAfter(after, limit + 1);
+        }
+        return rows.collectList().flatMap(parts -> {
+            if (parts.isEmpty() && cursor == null) {
+                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No parts found in the warehouse"));
+            }
+            String nextCursor = null;
+            List<Part> items = parts;
+            if (parts.size() > limit) {
+                items = parts.subList(0, limit);
+                nextCursor = PartCursor.encode(items.get(limit - 1).getId());
+            }
+            return Mono.just(new KeysetPage<>(items, nextCursor));
+        });
+    }
+
+    public Mono<Part> getPartById(PartId partId) {
+        return partRepository.findById(partId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Part with ID '%s' not found", partId))));
+    }
+
+    // Adds a new part with quantity zero; the unique business identifier rejects duplicates
+    public Mono<Part> addPart(PartId partId) {
+        return partRepository.insert(partId)
+                .then(partRepository.addToTotals(StockChanges.of(partId, 0, 1).toDeltas()))
+                .as(transactions::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new ResponseStatusException(
+                        HttpStatus.CONFLICT, String.format("Cannot add part '%s' because it already exists", partId)))
+                .then(Mono.fromCallable(() -> {
+                    Part part = new Part(partId, 0);
+                    part.setVersion(0L);
+                    changeStream.publishAfterCommit(PartChangeEvent.added(partId, 0));
+                    logger.info("Added new part {} with initial quantity {}", partId, 0);
+                    return part;
+                }));
+    }
+
+    // Deletes a part, but only if its quantity is zero. A concurrent change between the read and the delete
+    // is retried with the deletePart policy of warehouse.retry.
+    public Mono<Void> deletePart(PartId partId) {
+        Mono<Void> attempt = getPartById(partId)
+                .flatMap(part -> {
+                    if (part.getQuantity() != 0) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                String.format("Cannot delete part '%s' because quantity is '%s' (not zero)", partId, part.getQuantity())));
+                    }
+                    return partRepository.delete(partId, part.getVersion());
+                })
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new OptimisticLockingFailureException(String.format("Part '%s' was modified concurrently", partId)))
+                        : partRepository.recordTombstone(partId)
+                                .then(partRepository.addToTotals(StockChanges.of(partId, 0, -1).toDeltas())))
+                .as(transactions::transactional);
+        return attempt.retryWhen(conflictRetry("deletePart"))
+                .then(Mono.fromRunnable(() -> {
+                    changeStream.publishAfterCommit(PartChangeEvent.deleted(partId));
+                    logger.info("Deleted part {} from inventory", partId);
+                }));
+    }
+
+    // Increases the quantity, optionally only if the part still has the expected version (If-Match)
+    public Mono<Part> increaseQuantity(PartId partId, int amount, Long expectedVersion) {
+        return validateAmount(partId, amount, "increase")
+                .then(adjust(partId, amount, expectedVersion))
+                .switchIfEmpty(Mono.defer(() -> {
+                    // Without a version condition an increase only fails for a missing part
+                    Mono<Part> current = expectedVersion == null ? Mono.empty() : partRepository.findById(partId);
+                    return current
+                            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                    String.format("Part with ID '%s' not found (increase operation)", partId))))
+                            .flatMap(part -> Mono.error(versionMismatch(partId, part, expectedVersion)));
+                }));
+    }
+
+    // Decreases the quantity but never below zero, optionally only if the part still has the expected version
+    public Mono<Part> decreaseQuantity(PartId partId, int amount, Long expectedVersion) {
+        return validateAmount(partId, amount, "decrease")
+                .then(adjust(partId, -amount, expectedVersion))
+                .switchIfEmpty(Mono.defer(() -> partRepository.findById(partId)
+                        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                String.format("Part with ID '%s' not found (decrease operation)", partId))))
+                        .flatMap(part -> {
+                            if (expectedVersion != null && !expectedVersion.equals(part.getVersion())) {
+                                return Mono.error(versionMismatch(partId, part, expectedVersion));
+                            }
+                            return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, String.format(
+                                    "Cannot subtract '%s' from part '%s' because current quantity is only '%s'", amount, partId, part.getQuantity())));
+                        })));
+    }
+
+    // Applies the change and its stock totals in one transaction; empty if the conditional update matched no row
+    private Mono<Part> adjust(PartId partId, int delta, Long expectedVersion) {
+        return partRepository.adjustQuantity(partId, delta, expectedVersion)
+                .flatMap(part -> partRepository.addToTotals(StockChanges.of(partId, delta, 0).toDeltas()).thenReturn(part))
+                .as(transactions::transactional)
+                .doOnNext(part -> {
+                    changeStream.publishAfterCommit(PartChangeEvent.quantityChanged(partId, part.getQuantity(), delta));
+                    logger.info("Adjusted quantity for part {} by {} (new quantity: {})", partId, delta, part.getQuantity());
+                });
+    }
+
+    // A missing part is still reported as not found before the amount is rejected
+    private Mono<Void> validateAmount(PartId partId, int amount, String operation) {
+        if (amount >= 1) {
+            return Mono.empty();
+        }
+        return partRepository.findById(partId).hasElement().flatMap(exists -> Mono.error(exists
+                ? new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Amount must be greater than 0 for part '%s' (during %s operation)", partId, operation))
+                : new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        String.format("Part with ID '%s' not found (%s operation)", partId, operation))));
+    }
+
+    private ResponseStatusException versionMismatch(PartId partId, Part part, Long expectedVersion) {
+        logger.warn("Part {} has version {}, not the expected version {}", partId, part.getVersion(), expectedVersion);
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                String.format("Part '%s' was modified (version '%s', expected '%s')", partId, part.getVersion(), expectedVersion));
+    }
+
+    // Jittered exponential backoff for optimistic locking conflicts, from the operation's warehouse.retry policy
+    private Retry conflictRetry(String operation) {
+        RetryProperties.Policy policy = retryProperties.policyFor(operation);
+        int retries = retryProperties.isEnabled() ? policy.getMaxAttempts() - 1 : 0;
+        return Retry.backoff(retries, policy.getInitialBackoff())
+                .maxBackoff(policy.getMaxBackoff())
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
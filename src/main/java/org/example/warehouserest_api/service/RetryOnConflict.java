@@ -0,0 +1,15 @@
+package org.example.warehouserest_api.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a transactional write that ConflictRetryAspect runs again when it fails with an optimistic locking conflict.
+// The value names the operation in warehouse.retry.operations and in the metrics; it defaults to the method name.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    String value() default "";
+}
@@ -0,0 +1,258 @@
+package org.example.warehouserest_api.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.ShardingProperties;
+import org.example.warehouserest_api.datasource.ShardContext;
+import org.example.warehouserest_api.datasource.ShardRoutingDataSource;
+import org.example.warehouserest_api.model.ShardBucket;
+import org.example.warehouserest_api.repository.ShardBucketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+// Map of supplier numbers to shards (warehouse.sharding). A supplier number hashes to one of a fixed number of
+// buckets (CRC-32, so the hash is the same on every instance and JVM), and the bucket map in the home shard's
+// shard_buckets table assigns every bucket to a shard. The map is reloaded periodically to pick up bucket moves.
+// Writes register with their bucket for as long as they run, so a move can wait for them (see ShardRebalancer).
+@Service
+@ConditionalOnProperty(prefix = "warehouse.sharding", name = "enabled", havingValue = "true")
+public class ShardDirectory implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+
+    private final ShardBucketRepository repository;
+
+    private final ShardingProperties properties;
+
+    private final List<String> shardNames;
+
+    // Shard of every bucket and whether it is being moved, replaced as a whole on every load
+    private volatile int[] owners;
+
+    private volatile boolean[] moving;
+
+    // Writes of this instance in progress per bucket
+    private final AtomicIntegerArray writes;
+
+    private final LongAdder rejectedWrites = new LongAdder();
+
+    private ScheduledExecutorService refresher;
+
+    public ShardDirectory(ShardBucketRepository repository, ShardingProperties properties, ShardRoutingDataSource shards) {
+        if (properties.getBuckets() < shards.getShardCount()) {
+            throw new IllegalStateException("warehouse.sharding.buckets must be at least the number of shards");
+        }
+        this.repository = repository;
+        this.properties = properties;
+        this.shardNames = shards.getShardNames();
+        this.writes = new AtomicIntegerArray(properties.getBuckets());
+    }
+
+    // Loads the bucket map, creating it on first start, and starts the periodic reload
+    @PostConstruct
+    void start() {
+        if (ShardContext.call(ShardContext.HOME, repository::count) == 0) {
+            List<ShardBucket> buckets = new ArrayList<>(properties.getBuckets());
+            for (int bucket = 0; bucket < properties.getBuckets(); bucket++) {
+                buckets.add(new ShardBucket(bucket, bucket % shardNames.size()));
+            }
+            try {
+                ShardContext.call(ShardContext.HOME, () -> repository.saveAll(buckets));
+                logger.info("Spread {} buckets over {} shards", buckets.size(), shardNames.size());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the map at the same time
+                logger.info("Bucket map was created by another instance");
+            }
+        }
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-map-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getMapRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.error("Could not reload the bucket map", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Reloads the bucket map from the home shard
+    public void refresh() {
+        List<ShardBucket> buckets = ShardContext.call(ShardContext.HOME, repository::findAll);
+        if (buckets.size() != properties.getBuckets()) {
+            throw new IllegalStateException(String.format("The bucket map has %d buckets, but warehouse.sharding.buckets is %d",
+                    buckets.size(), properties.getBuckets()));
+        }
+        int[] loadedOwners = new int[buckets.size()];
+        boolean[] loadedMoving = new boolean[buckets.size()];
+        for (ShardBucket bucket : buckets) {
+            if (bucket.getShard() >= shardNames.size()) {
+                throw new IllegalStateException(String.format("Bucket %d is assigned to shard %d, which is not configured",
+                        bucket.getBucket(), bucket.getShard()));
+            }
+            loadedOwners[bucket.getBucket()] = bucket.getShard();
+            loadedMoving[bucket.getBucket()] = bucket.isMoving();
+        }
+        owners = loadedOwners;
+        moving = loadedMoving;
+    }
+
+    public int getShardCount() {
+        return shardNames.size();
+    }
+
+    public int getBucketCount() {
+        return properties.getBuckets();
+    }
+
+    public String nameOf(int shard) {
+        return shardNames.get(shard);
+    }
+
+    // Index of the shard with the given name
+    public int indexOf(String name) {
+        int shard = shardNames.indexOf(name);
+        if (shard < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Unknown shard '%s'", name));
+        }
+        return shard;
+    }
+
+    public int bucketOf(String supplierNumber) {
+        CRC32 crc = new CRC32();
+        crc.update(supplierNumber.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % properties.getBuckets());
+    }
+
+    public int shardOf(String supplierNumber) {
+        return owners[bucketOf(supplierNumber)];
+    }
+
+    public int shardOfBucket(int bucket) {
+        return owners[bucket];
+    }
+
+    public boolean isMoving(int bucket) {
+        return moving[bucket];
+    }
+
+    // Buckets assigned to each shard, by shard index
+    public List<List<Integer>> bucketsByShard() {
+        int[] current = owners;
+        List<List<Integer>> buckets = new ArrayList<>(shardNames.size());
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int bucket = 0; bucket < current.length; bucket++) {
+            buckets.get(current[bucket]).add(bucket);
+        }
+        return buckets;
+    }
+
+    // Registers a write to the parts of the supplier and returns its bucket, to be passed to exitWrite.
+    // While the bucket is being moved the write waits up to warehouse.sharding.move-wait, then fails with 503.
+    public int enterWrite(String supplierNumber) {
+        int bucket = bucketOf(supplierNumber);
+        long deadline = System.nanoTime() + properties.getMoveWait().toNanos();
+        while (true) {
+            // Registered before the flag is checked, so a move that sets the flag afterwards waits for this write
+            writes.incrementAndGet(bucket);
+            if (!moving[bucket]) {
+                return bucket;
+            }
+            writes.decrementAndGet(bucket);
+            if (System.nanoTime() > deadline) {
+                rejectedWrites.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        String.format("Parts of supplier '%s' are being moved to another shard, try again later", supplierNumber));
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for a bucket move");
+            }
+        }
+    }
+
+    public void exitWrite(int bucket) {
+        writes.decrementAndGet(bucket);
+    }
+
+    // Waits until no write of this instance to the bucket is in progress; returns false on timeout
+    boolean awaitWritesDrained(int bucket, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (writes.get(bucket) > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    // Stores a new assignment of the bucket and applies it locally right away
+    void update(int bucket, int shard, boolean moving) {
+        ShardContext.run(ShardContext.HOME, () -> {
+            ShardBucket row = repository.findById(bucket).orElseThrow();
+            row.setShard(shard);
+            row.setMoving(moving);
+            repository.save(row);
+        });
+        refresh();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            int index = shard;
+            Gauge.builder("warehouse.shards.buckets", this, directory -> directory.countBuckets(index))
+                    .description("Buckets of supplier numbers assigned to the shard")
+                    .tag("shard", shardNames.get(shard))
+                    .register(registry);
+        }
+        FunctionCounter.builder("warehouse.shards.rejected.writes", rejectedWrites, LongAdder::sum)
+                .description("Writes rejected because their bucket was being moved for too long")
+                .register(registry);
+    }
+
+    private int countBuckets(int shard) {
+        int count = 0;
+        for (int owner : owners) {
+            if (owner == shard) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
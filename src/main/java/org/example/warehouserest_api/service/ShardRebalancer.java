@@ -0,0 +1,268 @@
+package org.example.warehouserest_api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.ShardingProperties;
+import org.example.warehouserest_api.datasource.ShardContext;
+import org.example.warehouserest_api.dto.BucketMove;
+import org.example.warehouserest_api.dto.ShardStatus;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.repository.PartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves buckets of supplier numbers between shards while the application keeps serving (warehouse.sharding).
+// A move marks the bucket as moving, which makes writes to its parts wait, and gives every instance one map
+// refresh (plus move-wait for writes already running) to see that. It then copies the parts page by page into
+// the target, together with their stock totals, assigns the bucket to the target, waits another refresh so no
+// instance still writes to the source, lets the writes continue and deletes the parts from the source.
+// Reads are never blocked: until the assignment changes they are served by the source, afterwards by the target.
+// Only one move runs at a time; a failed move removes the partial copy and leaves the bucket on its source.
+@Service
+@ConditionalOnProperty(prefix = "warehouse.sharding", name = "enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardDirectory directory;
+
+    private final PartRepository partRepository;
+
+    private final StockTotalService stockTotals;
+
+    private final PartCache partCache;
+
+    private final PartKeyDictionary partKeys;
+
+    private final ShardingProperties properties;
+
+    // One transaction per copied or deleted page
+    private final TransactionTemplate transaction;
+
+    // Set while a move or rebalancing runs
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    // Runs the moves of a rebalancing
+    private final ExecutorService mover = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardRebalancer(ShardDirectory directory, PartRepository partRepository, StockTotalService stockTotals,
+                           PartCache partCache, PartKeyDictionary partKeys, ShardingProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this.directory = directory;
+        this.partRepository = partRepository;
+        this.stockTotals = stockTotals;
+        this.partCache = partCache;
+        this.partKeys = partKeys;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void stop() {
+        mover.shutdownNow();
+    }
+
+    // Returns the buckets of every shard
+    public List<ShardStatus> status() {
+        List<List<Integer>> buckets = directory.bucketsByShard();
+        List<ShardStatus> status = new ArrayList<>(buckets.size());
+        for (int shard = 0; shard < buckets.size(); shard++) {
+            List<Integer> moving = buckets.get(shard).stream().filter(directory::isMoving).toList();
+            status.add(new ShardStatus(directory.nameOf(shard), buckets.get(shard).size(), moving));
+        }
+        return status;
+    }
+
+    // Moves one bucket to the named shard and returns when it is done
+    public BucketMove moveBucket(int bucket, String targetName) {
+        if (bucket < 0 || bucket >= directory.getBucketCount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Bucket must be between 0 and %d", directory.getBucketCount() - 1));
+        }
+        int target = directory.indexOf(targetName);
+        if (directory.shardOfBucket(bucket) == target) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, String.format("Bucket %d is already on shard '%s'", bucket, targetName));
+        }
+        acquire();
+        try {
+            return move(bucket, target);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    // Plans the moves that leave every shard with the same number of buckets (give or take one), for example
+    // after a shard was added, and runs them one after another in the background. Returns the planned moves.
+    public List<BucketMove> rebalance() {
+        acquire();
+        List<BucketMove> plan;
+        try {
+            plan = plan();
+            if (plan.isEmpty()) {
+                busy.set(false);
+                return plan;
+            }
+            mover.execute(() -> {
+                try {
+                    for (BucketMove move : plan) {
+                        move(move.getBucket(), directory.indexOf(move.getTarget()));
+                    }
+                    logger.info("Rebalancing finished after {} bucket moves", plan.size());
+                } catch (RuntimeException e) {
+                    logger.error("Rebalancing stopped", e);
+                } finally {
+                    busy.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            busy.set(false);
+            throw e;
+        }
+        return plan;
+    }
+
+    private void acquire() {
+        if (!busy.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Another bucket move is in progress");
+        }
+    }
+
+    // Moves buckets from the shard with the most buckets to the one with the fewest until they are balanced
+    private List<BucketMove> plan() {
+        List<List<Integer>> buckets = new ArrayList<>();
+        directory.bucketsByShard().forEach(shardBuckets -> buckets.add(new ArrayList<>(shardBuckets)));
+        List<BucketMove> plan = new ArrayList<>();
+        while (true) {
+            int fullest = 0;
+            int emptiest = 0;
+            for (int shard = 1; shard < buckets.size(); shard++) {
+                if (buckets.get(shard).size() > buckets.get(fullest).size()) {
+                    fullest = shard;
+                }
+                if (buckets.get(shard).size() < buckets.get(emptiest).size()) {
+                    emptiest = shard;
+                }
+            }
+            if (buckets.get(fullest).size() - buckets.get(emptiest).size() <= 1) {
+                return plan;
+            }
+            int bucket = buckets.get(fullest).remove(buckets.get(fullest).size() - 1);
+            buckets.get(emptiest).add(bucket);
+            plan.add(new BucketMove(bucket, directory.nameOf(fullest), directory.nameOf(emptiest), null));
+        }
+    }
+
+    private BucketMove move(int bucket, int target) {
+        int source = directory.shardOfBucket(bucket);
+        long grace = properties.getMapRefreshInterval().plus(properties.getMoveWait()).toMillis();
+        logger.info("Moving bucket {} from shard {} to shard {}", bucket, directory.nameOf(source), directory.nameOf(target));
+        directory.update(bucket, source, true);
+        List<PartId> moved = new ArrayList<>();
+        try {
+            Thread.sleep(grace);
+            if (!directory.awaitWritesDrained(bucket, properties.getMoveWait().toMillis())) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        String.format("Writes to bucket %d did not finish in time", bucket));
+            }
+            // Leftovers of an interrupted earlier move
+            remove(target, suppliersOf(target, bucket));
+            copy(source, target, suppliersOf(source, bucket), moved);
+            directory.update(bucket, target, true);
+        } catch (RuntimeException | InterruptedException e) {
+            logger.warn("Moving bucket {} failed, it stays on shard {}", bucket, directory.nameOf(source), e);
+            try {
+                remove(target, suppliersOf(target, bucket));
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            directory.update(bucket, source, false);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while moving bucket " + bucket, e);
+            }
+            throw (RuntimeException) e;
+        }
+        try {
+            // No instance may still send writes to the source when they continue
+            Thread.sleep(grace);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            directory.update(bucket, target, false);
+        }
+        remove(source, moved.stream().map(PartId::getSupplierNumber).distinct().toList());
+        logger.info("Moved {} parts of bucket {} from shard {} to shard {}", moved.size(), bucket,
+                directory.nameOf(source), directory.nameOf(target));
+        return new BucketMove(bucket, directory.nameOf(source), directory.nameOf(target), (long) moved.size());
+    }
+
+    // Supplier numbers of the bucket present on the shard
+    private List<String> suppliersOf(int shard, int bucket) {
+        return ShardContext.call(shard, partRepository::findSupplierNumbers).stream()
+                .filter(supplierNumber -> directory.bucketOf(supplierNumber) == bucket)
+                .toList();
+    }
+
+    // Copies the parts of the suppliers with their stock totals, one transaction on the target per page
+    private void copy(int source, int target, List<String> supplierNumbers, List<PartId> copied) {
+        int pageSize = properties.getMoveBatchSize();
+        for (String supplierNumber : supplierNumbers) {
+            PartId after = null;
+            while (true) {
+                PartId from = after;
+                List<Part> page = ShardContext.call(source, () -> partRepository.findPartsOfSupplier(supplierNumber, from, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                ShardContext.run(target, () -> transaction.executeWithoutResult(status -> {
+                    partRepository.insertCopies(page);
+                    StockChanges changes = new StockChanges();
+                    page.forEach(part -> changes.add(part.getId(), part.getQuantity(), 1));
+                    stockTotals.record(changes);
+                }));
+                page.forEach(part -> copied.add(part.getId()));
+                if (page.size() < pageSize) {
+                    break;
+                }
+                after = page.get(page.size() - 1).getId();
+            }
+        }
+    }
+
+    // Deletes the parts of the suppliers from the shard with their stock totals, one transaction per page
+    private void remove(int shard, List<String> supplierNumbers) {
+        int pageSize = properties.getMoveBatchSize();
+        for (String supplierNumber : supplierNumbers) {
+            int removed;
+            do {
+                removed = ShardContext.call(shard, () -> transaction.execute(status -> {
+                    List<Part> page = partRepository.findPartsOfSupplier(supplierNumber, null, pageSize);
+                    List<PartId> ids = page.stream().map(Part::getId).toList();
+                    partRepository.deleteMoved(ids);
+                    StockChanges changes = new StockChanges();
+                    page.forEach(part -> changes.add(part.getId(), -part.getQuantity(), -1));
+                    stockTotals.record(changes);
+                    ids.forEach(partKeys::forget);
+                    partCache.evictAll(ids);
+                    return page.size();
+                }));
+            } while (removed == pageSize);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package org.example.warehouserest_api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.warehouserest_api.config.ShardingProperties;
+import org.example.warehouserest_api.datasource.ShardContext;
+import org.example.warehouserest_api.dto.AdjustmentResult;
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.dto.StockDrift;
+import org.example.warehouserest_api.dto.StockVerification;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Spreads the parts over the shards by supplier (warehouse.sharding), so PartService itself stays unaware of them.
+// Operations on one part run with the shard of its supplier selected (ShardContext); a write also registers with
+// its bucket, so a bucket move can wait for it. Operations on the whole collection run on every shard in parallel
+// and their results are merged in key order (scatter-gather); rows of a bucket that is still being copied or
+// deleted by a move are only taken from the shard the bucket map assigns them to.
+// Ordered before ConflictRetryAspect and the transaction advice, so retries and transactions stay on one shard.
+// The merge compares identifiers as Java strings, so the databases must sort them the same way (C collation).
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@ConditionalOnProperty(prefix = "warehouse.sharding", name = "enabled", havingValue = "true")
+public class ShardingAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingAspect.class);
+
+    // Key order of the parts listing and of searches by material
+    static final Comparator<PartId> MATERIAL_ORDER = Comparator.naturalOrder();
+
+    // Key order of searches by supplier
+    static final Comparator<PartId> SUPPLIER_ORDER = Comparator.comparing(PartId::getSupplierNumber)
+            .thenComparing(PartId::getMaterialNumber)
+            .thenComparing(PartId::getSerialNumber);
+
+    // Transaction resource holding the shard the current transaction's connection belongs to
+    private static final Object TRANSACTION_SHARD = new Object();
+
+    // Marks the end of a shard's stream in its queue
+    private static final Object END_OF_STREAM = new Object();
+
+    private final ShardDirectory directory;
+
+    private final ShardingProperties properties;
+
+    // Separate transaction per shard for maintenance statements sent to every shard
+    private final TransactionTemplate shardTransaction;
+
+    // Runs the per-shard parts of scatter-gather operations
+    private final ExecutorService scatter = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "shard-scatter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardingAspect(ShardDirectory directory, ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.directory = directory;
+        this.properties = properties;
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void stop() {
+        scatter.shutdownNow();
+    }
+
+    // Operations on one part identified by (materialNumber, serialNumber, supplierNumber, ...)
+    @Around("execution(* org.example.warehouserest_api.service.PartService.*(String, String, String, ..))"
+            + " && !execution(* org.example.warehouserest_api.service.PartService.searchParts(..))"
+            + " && args(*, *, supplierNumber, ..)")
+    public Object routePart(ProceedingJoinPoint joinPoint, String supplierNumber) throws Throwable {
+        return route(joinPoint, supplierNumber);
+    }
+
+    // Operations on one part identified by its PartId (applyDelta)
+    @Around("execution(* org.example.warehouserest_api.service.PartService.*(org.example.warehouserest_api.model.PartId, ..))"
+            + " && args(partId, ..)")
+    public Object routePartId(ProceedingJoinPoint joinPoint, PartId partId) throws Throwable {
+        return route(joinPoint, partId.getSupplierNumber());
+    }
+
+    // A batch within one shard runs there. A batch spanning shards cannot be atomic, so only a BEST_EFFORT batch
+    // outside a caller's transaction is split into one batch per shard; any other is rejected with 422.
+    @Around("execution(* org.example.warehouserest_api.service.PartService.adjustQuantities(..)) && args(mode, adjustments)")
+    public Object adjustQuantities(ProceedingJoinPoint joinPoint, BatchAdjustmentRequest.Mode mode,
+                                   List<QuantityAdjustment> adjustments) throws Throwable {
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            indexesByShard.computeIfAbsent(directory.shardOf(adjustments.get(i).getId().getSupplierNumber()), shard -> new ArrayList<>()).add(i);
+        }
+        List<String> suppliers = adjustments.stream().map(adjustment -> adjustment.getId().getSupplierNumber()).toList();
+        if (indexesByShard.isEmpty()) {
+            return onShard(ShardContext.HOME, joinPoint::proceed);
+        }
+        if (indexesByShard.size() == 1) {
+            return write(suppliers, joinPoint::proceed);
+        }
+        if (mode == BatchAdjustmentRequest.Mode.ALL_OR_NOTHING || TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, String.format(
+                    "The adjustments concern parts on %d shards and cannot be applied atomically; "
+                            + "send one batch per supplier group or use BEST_EFFORT without an Idempotency-Key", indexesByShard.size()));
+        }
+        AdjustmentResult[] results = new AdjustmentResult[adjustments.size()];
+        for (Map.Entry<Integer, List<Integer>> entry : indexesByShard.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<QuantityAdjustment> batch = indexes.stream().map(adjustments::get).toList();
+            try {
+                BatchAdjustmentResponse response = (BatchAdjustmentResponse) write(batch.stream().map(adjustment -> adjustment.getId().getSupplierNumber()).toList(),
+                        () -> joinPoint.proceed(new Object[]{mode, batch}));
+                for (AdjustmentResult result : response.getResults()) {
+                    results[indexes.get(result.getIndex())] = new AdjustmentResult(indexes.get(result.getIndex()),
+                            result.getId(), result.getDelta(), result.getOutcome(), result.getQuantity());
+                }
+            } catch (ResponseStatusException e) {
+                // For example a bucket being moved; the batches of the other shards still count
+                logger.warn("Batch of {} adjustments on shard {} was not applied: {}", batch.size(), directory.nameOf(entry.getKey()), e.getReason());
+                for (int index : indexes) {
+                    QuantityAdjustment adjustment = adjustments.get(index);
+                    results[index] = new AdjustmentResult(index, adjustment.getId(), adjustment.getDelta(),
+                            AdjustmentResult.Outcome.NOT_APPLIED, null);
+                }
+            }
+        }
+        int applied = (int) Arrays.stream(results).filter(result -> result.getOutcome() == AdjustmentResult.Outcome.APPLIED).count();
+        return new BatchAdjustmentResponse(mode, applied, results.length - applied, Arrays.asList(results));
+    }
+
+    // A transfer is one transaction, so all its parts must live on one shard; otherwise it is rejected with 422
+    @Around("execution(* org.example.warehouserest_api.service.PartService.transferStock(..)) && args(adjustments)")
+    public Object transferStock(ProceedingJoinPoint joinPoint, List<QuantityAdjustment> adjustments) throws Throwable {
+        List<String> suppliers = adjustments.stream().map(adjustment -> adjustment.getId().getSupplierNumber()).toList();
+        if (suppliers.isEmpty()) {
+            return onShard(ShardContext.HOME, joinPoint::proceed);
+        }
+        long shards = suppliers.stream().map(directory::shardOf).distinct().count();
+        if (shards > 1) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, String.format(
+                    "The transfer concerns parts on %d shards and cannot be applied atomically", shards));
+        }
+        return write(suppliers, joinPoint::proceed);
+    }
+
+    // A bulk import chunk is written with one transaction per shard
+    @Around("execution(* org.example.warehouserest_api.service.PartService.importChunk(..)) && args(parts, keepQuantity)")
+    public Object importChunk(ProceedingJoinPoint joinPoint, List<Part> parts, Set<PartId> keepQuantity) throws Throwable {
+        Map<Integer, List<Part>> partsByShard = new TreeMap<>();
+        for (Part part : parts) {
+            partsByShard.computeIfAbsent(directory.shardOf(part.getId().getSupplierNumber()), shard -> new ArrayList<>()).add(part);
+        }
+        if (partsByShard.size() > 1 && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot import parts of several shards in one transaction");
+        }
+        int written = 0;
+        for (Map.Entry<Integer, List<Part>> entry : partsByShard.entrySet()) {
+            List<Part> chunk = entry.getValue();
+            written += (Integer) write(chunk.stream().map(part -> part.getId().getSupplierNumber()).toList(),
+                    () -> joinPoint.proceed(new Object[]{chunk, keepQuantity}));
+        }
+        return written;
+    }
+
+    // The full listing merges the ordered streams of all shards. Every shard streams from its own cursor into a
+    // bounded queue, so memory use stays bounded and the slowest shard sets the pace.
+    @Around("execution(long org.example.warehouserest_api.service.PartService.streamAllParts(..)) && args(action)")
+    public Object streamAllParts(ProceedingJoinPoint joinPoint, Consumer<Part> action) throws Throwable {
+        int shards = directory.getShardCount();
+        List<BlockingQueue<Object>> queues = new ArrayList<>(shards);
+        List<Future<?>> producers = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                int index = shard;
+                BlockingQueue<Object> queue = new ArrayBlockingQueue<>(properties.getStreamBuffer());
+                queues.add(queue);
+                producers.add(scatter.submit(() -> produce(joinPoint, index, queue)));
+            }
+            PriorityQueue<StreamHead> heads = new PriorityQueue<>(
+                    Comparator.comparing((StreamHead head) -> head.part.getId(), MATERIAL_ORDER));
+            for (int shard = 0; shard < shards; shard++) {
+                Part first = next(queues.get(shard));
+                if (first != null) {
+                    heads.add(new StreamHead(first, shard));
+                }
+            }
+            long count = 0;
+            while (!heads.isEmpty()) {
+                StreamHead head = heads.poll();
+                action.accept(head.part);
+                count++;
+                Part next = next(queues.get(head.shard));
+                if (next != null) {
+                    heads.add(new StreamHead(next, head.shard));
+                }
+            }
+            logger.info("Merged {} parts from {} shards", count, shards);
+            return count;
+        } finally {
+            // Stops the shards' streams if the merge ended early (for example the client went away)
+            producers.forEach(producer -> producer.cancel(true));
+        }
+    }
+
+    @Around("execution(boolean org.example.warehouserest_api.service.PartService.hasParts())")
+    public Object hasParts(ProceedingJoinPoint joinPoint) throws Throwable {
+        return scatter(() -> (Boolean) joinPoint.proceed()).contains(true);
+    }
+
+    // The change log position of every shard only grows with its committed writes, so the sum changes with every
+    // write on any shard
+    @Around("execution(long org.example.warehouserest_api.service.PartService.getCollectionVersion())")
+    public Object getCollectionVersion(ProceedingJoinPoint joinPoint) throws Throwable {
+        return scatter(() -> (Long) joinPoint.proceed()).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Around("execution(* org.example.warehouserest_api.service.PartService.getPartsPage(..)) && args(cursor, limit)")
+    public Object getPartsPage(ProceedingJoinPoint joinPoint, String cursor, int limit) throws Throwable {
+        ResponseStatusException[] notFound = new ResponseStatusException[1];
+        List<KeysetPage<Part>> pages = scatter(() -> {
+            try {
+                @SuppressWarnings("unchecked")
+                KeysetPage<Part> page = (KeysetPage<Part>) joinPoint.proceed();
+                return page;
+            } catch (ResponseStatusException e) {
+                // The first page of an empty shard
+                if (cursor == null && e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    notFound[0] = e;
+                    return null;
+                }
+                throw e;
+            }
+        });
+        if (pages.stream().allMatch(page -> page == null)) {
+            throw notFound[0];
+        }
+        return merge(pages, Part::getId, MATERIAL_ORDER, limit);
+    }
+
+    // A search by supplier number only concerns the supplier's shard; all other searches are merged
+    @Around("execution(* org.example.warehouserest_api.service.PartService.searchParts(..))"
+            + " && args(materialNumber, materialPrefix, supplierNumber, supplierPrefix, cursor, limit)")
+    public Object searchParts(ProceedingJoinPoint joinPoint, String materialNumber, String materialPrefix, String supplierNumber,
+                              String supplierPrefix, String cursor, int limit) throws Throwable {
+        if (supplierNumber != null && !supplierNumber.isBlank()) {
+            return onShard(directory.shardOf(supplierNumber), joinPoint::proceed);
+        }
+        List<KeysetPage<PartSummary>> pages = scatter(() -> {
+            @SuppressWarnings("unchecked")
+            KeysetPage<PartSummary> page = (KeysetPage<PartSummary>) joinPoint.proceed();
+            return page;
+        });
+        return merge(pages, PartSummary::getId, supplierPrefix != null ? SUPPLIER_ORDER : MATERIAL_ORDER, limit);
+    }
+
+    // Change sequences are per shard and a moved part would appear as new, so the delta sync is not offered
+    @Around("execution(* org.example.warehouserest_api.service.PartService.syncChanges(..))")
+    public Object syncChanges(ProceedingJoinPoint joinPoint) {
+        throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "The delta sync is not available while parts are sharded");
+    }
+
+    // A supplier total is kept on the supplier's shard; a material total is the sum of its totals on all shards
+    @Around("execution(* org.example.warehouserest_api.service.StockTotalService.getTotal(..)) && args(dimension, groupKey)")
+    public Object getTotal(ProceedingJoinPoint joinPoint, StockDimension dimension, String groupKey) throws Throwable {
+        if (dimension == StockDimension.SUPPLIER) {
+            return onShard(directory.shardOf(groupKey), joinPoint::proceed);
+        }
+        ResponseStatusException[] notFound = new ResponseStatusException[1];
+        List<StockTotal> totals = scatter(() -> {
+            try {
+                return (StockTotal) joinPoint.proceed();
+            } catch (ResponseStatusException e) {
+                if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    notFound[0] = e;
+                    return null;
+                }
+                throw e;
+            }
+        });
+        long quantity = 0;
+        long parts = 0;
+        for (StockTotal total : totals) {
+            if (total != null) {
+                quantity += total.getQuantity();
+                parts += total.getParts();
+            }
+        }
+        if (parts == 0) {
+            throw notFound[0];
+        }
+        return new StockTotal(new StockTotalId(dimension, groupKey), quantity, parts);
+    }
+
+    // Every shard compares its own totals with its own parts
+    @Around("execution(* org.example.warehouserest_api.service.StockTotalService.verify(..)) && args(repair)")
+    public Object verify(ProceedingJoinPoint joinPoint, boolean repair) throws Throwable {
+        long checked = 0;
+        long driftCount = 0;
+        List<StockDrift> drifts = new ArrayList<>();
+        for (StockVerification verification : scatter(() -> (StockVerification) joinPoint.proceed())) {
+            checked += verification.getChecked();
+            driftCount += verification.getDriftCount();
+            verification.getDrifts().stream()
+                    .limit(StockTotalService.MAX_REPORTED_DRIFTS - drifts.size())
+                    .forEach(drifts::add);
+        }
+        return new StockVerification(checked, driftCount, repair, drifts);
+    }
+
+    // A stored idempotent response lives on the shard of the change it belongs to; a lookup outside a transaction
+    // asks the shards in turn
+    @Around("execution(* org.springframework.data.repository.CrudRepository.findById(..))"
+            + " && target(org.example.warehouserest_api.repository.IdempotencyRecordRepository)")
+    public Object findIdempotencyRecord(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (int shard = 0; shard < directory.getShardCount(); shard++) {
+            Optional<?> found = (Optional<?>) onShard(shard, joinPoint::proceed);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Cleanup of idempotency keys runs on every shard, each in a transaction of its own
+    @Around("(execution(* org.example.warehouserest_api.repository.IdempotencyRecordRepositoryCustom.delete*(..))"
+            + " || execution(* org.example.warehouserest_api.repository.IdempotencyRecordRepositoryCustom.trimTo(..)))"
+            + " && target(org.example.warehouserest_api.repository.IdempotencyRecordRepository)")
+    public Object cleanUpIdempotencyRecords(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        int deleted = 0;
+        for (int shard = 0; shard < directory.getShardCount(); shard++) {
+            int index = shard;
+            deleted += ShardContext.call(index, () -> shardTransaction.execute(status -> {
+                try {
+                    return (Integer) joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        return deleted;
+    }
+
+    // Runs a single-part operation on the shard of its supplier; writes are registered with the bucket
+    private Object route(ProceedingJoinPoint joinPoint, String supplierNumber) throws Throwable {
+        int shard = directory.shardOf(supplierNumber);
+        if (((MethodSignature) joinPoint.getSignature()).getMethod().isAnnotationPresent(RetryOnConflict.class)) {
+            return write(List.of(supplierNumber), joinPoint::proceed);
+        }
+        return onShard(shard, joinPoint::proceed);
+    }
+
+    // Runs a write on the shard of the suppliers while registered with their buckets. Inside a caller's
+    // transaction the registration lasts until that transaction ends, since the write is only visible then.
+    private Object write(List<String> supplierNumbers, ShardCall<Object> call) throws Throwable {
+        List<String> distinct = supplierNumbers.stream().distinct().toList();
+        List<Integer> buckets = new ArrayList<>(distinct.size());
+        try {
+            for (String supplierNumber : distinct) {
+                buckets.add(directory.enterWrite(supplierNumber));
+            }
+        } catch (RuntimeException e) {
+            buckets.forEach(directory::exitWrite);
+            throw e;
+        }
+        boolean deferred = false;
+        try {
+            // Taken after registering, so a bucket that moved while the write waited is found on its new shard
+            int shard = directory.shardOf(distinct.get(0));
+            if (distinct.stream().anyMatch(supplierNumber -> directory.shardOf(supplierNumber) != shard)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Parts were moved to another shard, try again");
+            }
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        buckets.forEach(directory::exitWrite);
+                    }
+                });
+                deferred = true;
+            }
+            return onShard(shard, call);
+        } finally {
+            if (!deferred) {
+                buckets.forEach(directory::exitWrite);
+            }
+        }
+    }
+
+    // Runs the call with the shard selected. Inside a caller's transaction all calls must go to the same shard,
+    // since the transaction's connection belongs to the shard of its first statement.
+    private <T> T onShard(int shard, ShardCall<T> call) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Integer bound = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
+            if (bound == null) {
+                TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+                    }
+                });
+            } else if (bound != shard) {
+                throw new IllegalStateException(String.format("Transaction on shard %s cannot also use shard %s",
+                        directory.nameOf(bound), directory.nameOf(shard)));
+            }
+        }
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return call.call();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    // Runs the call on every shard in parallel and returns the results by shard index
+    private <T> List<T> scatter(ShardCall<T> call) throws Throwable {
+        List<Future<T>> futures = new ArrayList<>(directory.getShardCount());
+        for (int shard = 0; shard < directory.getShardCount(); shard++) {
+            int index = shard;
+            futures.add(scatter.submit(() -> {
+                Integer previous = ShardContext.enter(index);
+                try {
+                    return call.call();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    ShardContext.restore(previous);
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    // Merges the keyset pages of all shards into one page. A shard with more items may still have items
+    // between its last item and the last items of the others, so only items up to the smallest last item
+    // of such shards (the bound) are certain; the next page continues after the bound or the last item taken.
+    private <T> KeysetPage<T> merge(List<KeysetPage<T>> pages, Function<T, PartId> idOf, Comparator<PartId> order, int limit) {
+        PartId bound = null;
+        for (KeysetPage<T> page : pages) {
+            if (page != null && page.getNextCursor() != null) {
+                PartId last = idOf.apply(page.getItems().get(page.getItems().size() - 1));
+                if (bound == null || order.compare(last, bound) < 0) {
+                    bound = last;
+                }
+            }
+        }
+        List<T> items = new ArrayList<>();
+        for (int shard = 0; shard < pages.size(); shard++) {
+            if (pages.get(shard) == null) {
+                continue;
+            }
+            for (T item : pages.get(shard).getItems()) {
+                PartId id = idOf.apply(item);
+                if (directory.shardOf(id.getSupplierNumber()) == shard && (bound == null || order.compare(id, bound) <= 0)) {
+                    items.add(item);
+                }
+            }
+        }
+        items.sort(Comparator.comparing(idOf, order));
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = new ArrayList<>(items.subList(0, limit));
+            nextCursor = PartCursor.encode(idOf.apply(items.get(limit - 1)));
+        } else if (bound != null) {
+            nextCursor = PartCursor.encode(bound);
+        }
+        return new KeysetPage<>(items, nextCursor);
+    }
+
+    // Streams the parts one shard owns into its queue, followed by the end marker or the failure
+    private Object produce(ProceedingJoinPoint joinPoint, int shard, BlockingQueue<Object> queue) throws InterruptedException {
+        Object end = END_OF_STREAM;
+        Consumer<Part> enqueue = part -> {
+            if (directory.shardOf(part.getId().getSupplierNumber()) == shard) {
+                try {
+                    queue.put(part);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Merge of the shards' streams ended");
+                }
+            }
+        };
+        Integer previous = ShardContext.enter(shard);
+        try {
+            joinPoint.proceed(new Object[]{enqueue});
+        } catch (Throwable e) {
+            end = e;
+        } finally {
+            ShardContext.restore(previous);
+        }
+        queue.put(end);
+        return null;
+    }
+
+    // Takes the next part of a shard's stream, or null at its end
+    private static Part next(BlockingQueue<Object> queue) throws Throwable {
+        Object item = queue.take();
+        if (item == END_OF_STREAM) {
+            return null;
+        }
+        if (item instanceof Throwable failure) {
+            throw failure;
+        }
+        return (Part) item;
+    }
+
+    // A call that may throw anything a join point may throw
+    @FunctionalInterface
+    private interface ShardCall<T> {
+        T call() throws Throwable;
+    }
+
+    // The current part of one shard's stream
+    private static final class StreamHead {
+        final Part part;
+        final int shard;
+
+        StreamHead(Part part, int shard) {
+            this.part = part;
+            this.shard = shard;
+        }
+    }
+}
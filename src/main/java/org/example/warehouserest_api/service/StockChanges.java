@@ -0,0 +1,52 @@
+package org.example.warehouserest_api.service;
+
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Net changes of the stock totals caused by the part changes of one transaction.
+// Kept sorted by total, so every transaction locks the totals in the same order.
+public final class StockChanges {
+
+    private final Map<StockTotalId, long[]> deltas = new TreeMap<>();
+
+    // Changes for a single part
+    public static StockChanges of(PartId partId, long quantity, int parts) {
+        return new StockChanges().add(partId, quantity, parts);
+    }
+
+    // Adds a quantity change and a change in the number of parts of one part to its material and supplier totals
+    public StockChanges add(PartId partId, long quantity, int parts) {
+        if (quantity == 0 && parts == 0) {
+            return this;
+        }
+        for (StockDimension dimension : StockDimension.values()) {
+            long[] delta = deltas.computeIfAbsent(new StockTotalId(dimension, dimension.groupKeyOf(partId)), id -> new long[2]);
+            delta[0] += quantity;
+            delta[1] += parts;
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    // Non-zero net changes in lock order, as StockTotal deltas
+    Collection<StockTotal> toDeltas() {
+        List<StockTotal> totals = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                totals.add(new StockTotal(id, delta[0], delta[1]));
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.warehouserest_api.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.warehouserest_api.config.StockTotalProperties;
+import org.example.warehouserest_api.dto.StockDrift;
+import org.example.warehouserest_api.dto.StockVerification;
+import org.example.warehouserest_api.model.StockDimension;
+import org.example.warehouserest_api.model.StockTotal;
+import org.example.warehouserest_api.model.StockTotalId;
+import org.example.warehouserest_api.repository.StockTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Service for the stock totals per material and supplier.
+// PartService records the changes of every part write in the same transaction, so a total is always read
+// with one primary key lookup. A periodic check compares the totals with the parts table and corrects drift
+// (for example after rows were changed outside the API).
+@Service
+public class StockTotalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockTotalService.class);
+
+    // Largest number of drifted totals listed in a verification result
+    public static final int MAX_REPORTED_DRIFTS = 100;
+
+    private final StockTotalRepository stockTotalRepository;
+
+    private final StockTotalProperties properties;
+
+    // Read-only transaction for the full scans of the check
+    private final TransactionTemplate readTransaction;
+
+    // One transaction per suspicious total during the check
+    private final TransactionTemplate writeTransaction;
+
+    // This service's proxy, so the periodic check goes through its advice (ShardingAspect runs it on every shard)
+    private final ObjectProvider<StockTotalService> self;
+
+    private ScheduledExecutorService verifier;
+
+    public StockTotalService(StockTotalRepository stockTotalRepository, StockTotalProperties properties,
+                             PlatformTransactionManager transactionManager, ObjectProvider<StockTotalService> self) {
+        this.stockTotalRepository = stockTotalRepository;
+        this.properties = properties;
+        this.self = self;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Starts the periodic check unless its interval is zero
+    @PostConstruct
+    void start() {
+        if (properties.getVerifyInterval().isZero()) {
+            return;
+        }
+        verifier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-total-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getVerifyInterval().toMillis();
+        verifier.scheduleWithFixedDelay(() -> {
+            try {
+                self.getObject().verify(properties.isRepairDrift());
+            } catch (RuntimeException e) {
+                logger.error("Stock total check failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (verifier != null) {
+            verifier.shutdownNow();
+        }
+    }
+
+    // Applies the changes to the totals. Runs in the caller's transaction, so the totals
+    // are committed or rolled back together with the part changes they describe.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(StockChanges changes) {
+        if (!changes.isEmpty()) {
+            stockTotalRepository.addToTotals(changes.toDeltas());
+        }
+    }
+
+    // Returns the total of one material or supplier
+    @Transactional(readOnly = true)
+    public StockTotal getTotal(StockDimension dimension, String groupKey) {
+        return stockTotalRepository.findById(new StockTotalId(dimension, groupKey))
+                .filter(total -> total.getParts() > 0)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, String.format("No parts with %s '%s'", dimension.name().toLowerCase(), groupKey)));
+    }
+
+    // Compares every total with the parts table and optionally corrects the totals that have drifted.
+    // The scan is not a consistent snapshot, so every difference is checked again with the total locked
+    // before it is reported or corrected.
+    public StockVerification verify(boolean repair) {
+        long checked = 0;
+        long driftCount = 0;
+        List<StockDrift> drifts = new ArrayList<>();
+        for (StockDimension dimension : StockDimension.values()) {
+            List<StockTotalId> suspects = new ArrayList<>();
+            Long compared = readTransaction.execute(status -> {
+                Map<String, StockTotal> actual = new HashMap<>();
+                stockTotalRepository.forEachActualTotal(dimension, total -> actual.put(total.getId().getGroupKey(), total));
+                long[] count = {actual.size()};
+                stockTotalRepository.forEachTotal(dimension, recorded -> {
+                    StockTotal expected = actual.remove(recorded.getId().getGroupKey());
+                    if (expected == null) {
+                        count[0]++;
+                        if (recorded.getQuantity() != 0 || recorded.getParts() != 0) {
+                            suspects.add(recorded.getId());
+                        }
+                    } else if (!matches(recorded, expected)) {
+                        suspects.add(recorded.getId());
+                    }
+                });
+                // Groups that have parts but no recorded total
+                actual.values().forEach(expected -> suspects.add(expected.getId()));
+                return count[0];
+            });
+            checked += compared;
+            for (StockTotalId id : suspects) {
+                StockDrift drift = writeTransaction.execute(status -> recheck(id, repair));
+                if (drift != null) {
+                    driftCount++;
+                    if (drifts.size() < MAX_REPORTED_DRIFTS) {
+                        drifts.add(drift);
+                    }
+                }
+            }
+        }
+        if (driftCount > 0) {
+            logger.warn("Found {} drifted stock totals out of {} ({})", driftCount, checked, repair ? "repaired" : "not repaired");
+        } else {
+            logger.info("Checked {} stock totals, no drift found", checked);
+        }
+        return new StockVerification(checked, driftCount, repair, drifts);
+    }
+
+    // Compares one total with the parts table while holding its lock; corrects it if requested
+    private StockDrift recheck(StockTotalId id, boolean repair) {
+        StockTotal recorded = stockTotalRepository.lockTotal(id);
+        if (recorded == null) {
+            recorded = new StockTotal(id, 0, 0);
+        }
+        StockTotal actual = stockTotalRepository.computeTotal(id);
+        if (matches(recorded, actual)) {
+            return null;
+        }
+        if (repair) {
+            stockTotalRepository.setTotal(actual);
+        }
+        return new StockDrift(id.getDimension(), id.getGroupKey(),
+                recorded.getQuantity(), actual.getQuantity(), recorded.getParts(), actual.getParts());
+    }
+
+    private static boolean matches(StockTotal recorded, StockTotal actual) {
+        return recorded.getQuantity() == actual.getQuantity() && recorded.getParts() == actual.getParts();
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.warehouserest_api.web;
+
+import org.example.warehouserest_api.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrency limit that follows the measured latency (gradient method).
+// The latency of the requests completed in each window is compared with a baseline, the latency the service has
+// without queueing: the baseline drops at once to a faster window and rises only slowly. While the window stays
+// within tolerance of the baseline the limit grows by its square root (room for a small queue); when requests
+// queue up and the latency rises, the limit shrinks in proportion, by at most half per window. The limit only grows
+// while at least half of it is in use, so a quiet period does not leave a limit nobody has tried.
+// Requests over the limit are rejected at once instead of waiting.
+final class AdaptiveConcurrencyLimit {
+
+    // Windows with fewer completed requests are merged into the next one
+    static final int MIN_SAMPLES = 10;
+
+    // Weight of each window when the baseline rises
+    private static final double BASELINE_RISE = 0.05;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private final long windowNanos;
+
+    private volatile double limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Most requests in flight at once during the current window
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder windowLatencyNanos = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final AtomicLong windowEnd;
+
+    // Guarded by this
+    private double baselineNanos;
+
+    AdaptiveConcurrencyLimit(ConcurrencyLimitProperties.Budget budget, ConcurrencyLimitProperties properties, long nowNanos) {
+        this.minLimit = Math.max(1, budget.getMinLimit());
+        this.maxLimit = Math.max(minLimit, budget.getMaxLimit());
+        this.tolerance = properties.getTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.limit = clamp(budget.getInitialLimit(), minLimit, maxLimit);
+        this.windowEnd = new AtomicLong(nowNanos + windowNanos);
+    }
+
+    // Takes a slot for a request, or returns false if the limit is reached
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    // Frees the slot of a request that took the given time; the first caller after the end of a window
+    // recomputes the limit
+    void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        windowLatencyNanos.add(latencyNanos);
+        windowSamples.increment();
+        long end = windowEnd.get();
+        if (nowNanos - end >= 0 && windowEnd.compareAndSet(end, nowNanos + windowNanos)) {
+            update();
+        }
+    }
+
+    // Frees the slot of a request whose latency says nothing about the load, such as a streamed response whose
+    // handler returns before the body is written; it is left out of the window so it cannot pull the baseline down
+    void releaseUnmeasured() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update() {
+        long samples = windowSamples.sum();
+        if (samples < MIN_SAMPLES) {
+            return;
+        }
+        windowSamples.add(-samples);
+        double latency = (double) windowLatencyNanos.sumThenReset() / samples;
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (baselineNanos == 0 || latency < baselineNanos) {
+            baselineNanos = latency;
+        } else {
+            baselineNanos += (latency - baselineNanos) * BASELINE_RISE;
+        }
+        if (peak < limit / 2) {
+            return;
+        }
+        double gradient = clamp(tolerance * baselineNanos / latency, 0.5, 1.0);
+        double target = limit * gradient + Math.sqrt(limit);
+        // Grow gradually, but back off at once
+        if (target > limit) {
+            target = limit * (1 - smoothing) + target * smoothing;
+        }
+        limit = clamp(target, minLimit, maxLimit);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.warehouserest_api.config.ConcurrencyLimitProperties;
+import org.example.warehouserest_api.exception.GlobalExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Sheds load on the parts API before requests pile up on threads and connections (warehouse.concurrency-limit).
+// Reads and mutations each have an adaptive limit on the requests executing at once (see AdaptiveConcurrencyLimit);
+// a request over its limit is answered with 503 and Retry-After at once. Runs before the database guard, so time
+// spent waiting there counts as latency. The bulk import is not limited: it runs for as long as its body takes
+// to arrive, which says nothing about the load. Streamed responses (listing, export, change stream) free their
+// slot when the handler returns, before the body is written; that time is not a latency sample, since it would
+// drag the baseline towards zero and let the limit grow unchecked.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "warehouse.concurrency-limit", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final String PARTS_PATH = "/api/v1/parts";
+
+    private static final String IMPORT_PATH = PARTS_PATH + "/import";
+
+    private final ObjectMapper objectMapper;
+
+    private final AdaptiveConcurrencyLimit reads;
+
+    private final AdaptiveConcurrencyLimit writes;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        long now = System.nanoTime();
+        this.reads = new AdaptiveConcurrencyLimit(properties.getReads(), properties, now);
+        this.writes = new AdaptiveConcurrencyLimit(properties.getWrites(), properties, now);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map.of("reads", reads, "writes", writes).forEach((budget, limit) -> {
+            Gauge.builder("warehouse.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current limit on parts requests executing at once")
+                    .tag("budget", budget)
+                    .register(registry);
+            Gauge.builder("warehouse.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Parts requests executing under the limit")
+                    .tag("budget", budget)
+                    .register(registry);
+            FunctionCounter.builder("warehouse.concurrency.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                    .description("Parts requests rejected with 503 because the limit was reached")
+                    .tag("budget", budget)
+                    .register(registry);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !(path.equals(PARTS_PATH) || path.startsWith(PARTS_PATH + "/")) || path.equals(IMPORT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+        AdaptiveConcurrencyLimit limit = read ? reads : writes;
+        if (!limit.tryAcquire()) {
+            reject(response, read);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                limit.releaseUnmeasured();
+            } else {
+                long end = System.nanoTime();
+                limit.release(end - start, end);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, boolean read) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rejecting {} request: limit of {} reached", read ? "read" : "write",
+                    read ? reads.getLimit() : writes.getLimit());
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "The service is overloaded. Please try again.", LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.warehouserest_api.config.DatabaseGuardProperties;
+import org.example.warehouserest_api.exception.GlobalExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Limits the number of API requests executing at the same time (warehouse.database-guard).
+// With virtual threads every request gets its own thread, so a burst would otherwise pile up thousands of
+// threads waiting for a JDBC connection until the pool's connection timeout. Requests wait here in arrival
+// order instead, and are rejected with 503 and Retry-After once they waited warehouse.database-guard.max-wait.
+// Streamed responses (listing, export) read from the database while the body is written on the async executor,
+// so they keep their permit until the async request completes. The change stream is the exception: its events
+// come from memory, so it releases the permit when the handler returns instead of holding it for hours.
+// Runs after the concurrency limit of the parts API, which sheds load instead of letting it queue here.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "warehouse.database-guard", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DatabaseGuardFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseGuardFilter.class);
+
+    private final DatabaseGuardProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseGuardFilter(DatabaseGuardProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(properties.getMaxConcurrentRequests(), true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("warehouse.database.guard.active", permits, p -> properties.getMaxConcurrentRequests() - p.availablePermits())
+                .description("API requests executing under the database guard")
+                .register(registry);
+        Gauge.builder("warehouse.database.guard.waiting", permits, Semaphore::getQueueLength)
+                .description("API requests waiting for their turn")
+                .register(registry);
+        FunctionCounter.builder("warehouse.database.guard.rejected", rejected, LongAdder::sum)
+                .description("API requests rejected with 503 after waiting too long")
+                .register(registry);
+    }
+
+    // Only the API is guarded; actuator and documentation requests always pass
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted() && !isEventStream(request)) {
+                request.getAsyncContext().addListener(new PermitListener());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    // Whether the request was handled by an endpoint that emits events (server-sent events)
+    private static boolean isEventStream(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod handlerMethod
+                && ResponseBodyEmitter.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        rejected.increment();
+        logger.warn("Rejecting request: {} requests are executing and {} waiting",
+                properties.getMaxConcurrentRequests(), permits.getQueueLength());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "The service is busy. Please try again.", LocalDateTime.now()));
+    }
+
+    // Releases the permit of a streamed response once it has been written; onComplete also follows errors and timeouts
+    private final class PermitListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.warehouserest_api.model.Part;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Writes the streamed full listing of parts in the format the client accepts.
+// JSON, CBOR and Smile are a single array written element by element; protobuf is a sequence of
+// length-delimited Part messages. The listing bypasses the message converters because it is not held in memory.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PartListWriter {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    // Supported formats; the first one is used when the client accepts several equally
+    private static final List<MediaType> FORMATS =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE, ProtobufPartHttpMessageConverter.PROTOBUF);
+
+    // Output buffer between the row writer and the response
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper cborMapper;
+
+    private final ObjectMapper smileMapper;
+
+    public PartListWriter(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+                          MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.smileMapper = smileConverter.getObjectMapper();
+    }
+
+    // Receives the parts of the listing in order; closing it completes the output
+    public interface Sink extends Consumer<Part>, Closeable {
+    }
+
+    // Returns the supported format with the highest quality in the Accept header, or JSON if none is accepted
+    public MediaType select(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        // Stable, so equally weighted types keep the client's order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (MediaType format : FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Opens the listing in one of the formats returned by select
+    public Sink open(OutputStream out, MediaType format) throws IOException {
+        if (ProtobufPartHttpMessageConverter.PROTOBUF.equals(format)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+            ProtobufWriter writer = new ProtobufWriter(buffered);
+            return new Sink() {
+                @Override
+                public void accept(Part part) {
+                    try {
+                        writer.writeDelimitedPart(part.getId(), part.getQuantity());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    buffered.flush();
+                }
+            };
+        }
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.equals(format) ? cborMapper
+                : SMILE.equals(format) ? smileMapper : jsonMapper;
+        JsonGenerator generator = mapper.createGenerator(out);
+        generator.writeStartArray();
+        return new Sink() {
+            @Override
+            public void accept(Part part) {
+                try {
+                    generator.writeObject(part);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try (generator) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+
+import java.io.IOException;
+
+// Hand-written Jackson serializers of the part types returned by the API.
+// The bean serializer of the Part entity discovers its properties by reflection and skips the internal fields
+// through @JsonIgnore; these write the public fields directly, with property names encoded once, in JSON, CBOR
+// and Smile alike: {"id":{"materialNumber":..,"serialNumber":..,"supplierNumber":..},"quantity":..}
+// Only serialization is replaced; request bodies are still read by the regular deserializers.
+public final class PartSerializers {
+
+    private static final SerializableString ID = new SerializedString("id");
+
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+
+    private static final SerializableString MATERIAL_NUMBER = new SerializedString("materialNumber");
+
+    private static final SerializableString SERIAL_NUMBER = new SerializedString("serialNumber");
+
+    private static final SerializableString SUPPLIER_NUMBER = new SerializedString("supplierNumber");
+
+    private PartSerializers() {
+    }
+
+    // Jackson module registering the serializers
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("PartSerializers");
+        module.addSerializer(Part.class, new PartSerializer());
+        module.addSerializer(PartSummary.class, new PartSummarySerializer());
+        module.addSerializer(PartId.class, new PartIdSerializer());
+        return module;
+    }
+
+    private static void writePart(PartId id, int quantity, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            writeId(id, generator);
+        }
+        generator.writeFieldName(QUANTITY);
+        generator.writeNumber(quantity);
+        generator.writeEndObject();
+    }
+
+    private static void writeId(PartId id, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(MATERIAL_NUMBER);
+        generator.writeString(id.getMaterialNumber());
+        generator.writeFieldName(SERIAL_NUMBER);
+        generator.writeString(id.getSerialNumber());
+        generator.writeFieldName(SUPPLIER_NUMBER);
+        generator.writeString(id.getSupplierNumber());
+        generator.writeEndObject();
+    }
+
+    static final class PartSerializer extends StdSerializer<Part> {
+
+        PartSerializer() {
+            super(Part.class);
+        }
+
+        @Override
+        public void serialize(Part part, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writePart(part.getId(), part.getQuantity(), generator);
+        }
+    }
+
+    static final class PartSummarySerializer extends StdSerializer<PartSummary> {
+
+        PartSummarySerializer() {
+            super(PartSummary.class);
+        }
+
+        @Override
+        public void serialize(PartSummary part, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writePart(part.getId(), part.getQuantity(), generator);
+        }
+    }
+
+    static final class PartIdSerializer extends StdSerializer<PartId> {
+
+        PartIdSerializer() {
+            super(PartId.class);
+        }
+
+        @Override
+        public void serialize(PartId id, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeId(id, generator);
+        }
+    }
+}
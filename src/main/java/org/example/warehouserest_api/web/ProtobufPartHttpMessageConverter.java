@@ -0,0 +1,67 @@
+package org.example.warehouserest_api.web;
+
+import org.example.warehouserest_api.dto.KeysetPage;
+import org.example.warehouserest_api.dto.PartSummary;
+import org.example.warehouserest_api.model.Part;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes parts and keyset pages of parts as protocol buffers (Accept: application/x-protobuf).
+// A part or search result is a Part message, a page is a PartPage message (src/main/resources/proto/part.proto).
+// Other responses, including error bodies, have no protobuf form, so clients should also accept application/json.
+// Request bodies are not read in this format.
+public class ProtobufPartHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProtobufPartHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Part.class == clazz || PartSummary.class == clazz || KeysetPage.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputMessage.getBody());
+        ProtobufWriter writer = new ProtobufWriter(out);
+        if (value instanceof Part part) {
+            writer.writePart(part.getId(), part.getQuantity());
+        } else if (value instanceof PartSummary part) {
+            writer.writePart(part.getId(), part.getQuantity());
+        } else {
+            KeysetPage<?> page = (KeysetPage<?>) value;
+            for (Object item : page.getItems()) {
+                if (item instanceof Part part) {
+                    writer.writePartField(ProtobufWriter.PAGE_ITEMS, part.getId(), part.getQuantity());
+                } else if (item instanceof PartSummary part) {
+                    writer.writePartField(ProtobufWriter.PAGE_ITEMS, part.getId(), part.getQuantity());
+                } else {
+                    throw new HttpMessageNotWritableException("No protobuf form for page items of " + item.getClass().getSimpleName());
+                }
+            }
+            writer.writeStringField(ProtobufWriter.PAGE_NEXT_CURSOR, page.getNextCursor());
+        }
+        out.flush();
+    }
+}
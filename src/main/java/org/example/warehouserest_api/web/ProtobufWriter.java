@@ -0,0 +1,146 @@
+package org.example.warehouserest_api.web;
+
+import org.example.warehouserest_api.model.PartId;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Writes the messages of src/main/resources/proto/part.proto in the protocol buffers wire format.
+// The schema is small and fixed, so the encoding is written out here instead of generating classes with protoc.
+// As in proto3, fields with default values (zero, empty or missing strings) are not written.
+final class ProtobufWriter {
+
+    // Wire types
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    // Field numbers of PartId
+    private static final int ID_MATERIAL_NUMBER = 1;
+    private static final int ID_SERIAL_NUMBER = 2;
+    private static final int ID_SUPPLIER_NUMBER = 3;
+
+    // Field numbers of Part
+    private static final int PART_ID = 1;
+    private static final int PART_QUANTITY = 2;
+
+    // Field numbers of PartPage
+    static final int PAGE_ITEMS = 1;
+    static final int PAGE_NEXT_CURSOR = 2;
+
+    private final OutputStream out;
+
+    ProtobufWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    // Writes a Part message as a field of the enclosing message
+    void writePartField(int field, PartId id, int quantity) throws IOException {
+        byte[][] numbers = utf8(id);
+        writeTag(field, LENGTH_DELIMITED);
+        writeVarint(partSize(numbers, quantity));
+        writePart(numbers, quantity);
+    }
+
+    // Writes a Part message preceded by its length as a varint, the framing of a stream of messages
+    // (parseDelimitedFrom in the protobuf libraries)
+    void writeDelimitedPart(PartId id, int quantity) throws IOException {
+        byte[][] numbers = utf8(id);
+        writeVarint(partSize(numbers, quantity));
+        writePart(numbers, quantity);
+    }
+
+    // Writes a Part message as the whole output
+    void writePart(PartId id, int quantity) throws IOException {
+        writePart(utf8(id), quantity);
+    }
+
+    void writeStringField(int field, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeTag(field, LENGTH_DELIMITED);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writePart(byte[][] numbers, int quantity) throws IOException {
+        if (numbers != null) {
+            writeTag(PART_ID, LENGTH_DELIMITED);
+            writeVarint(idSize(numbers));
+            writeBytesField(ID_MATERIAL_NUMBER, numbers[0]);
+            writeBytesField(ID_SERIAL_NUMBER, numbers[1]);
+            writeBytesField(ID_SUPPLIER_NUMBER, numbers[2]);
+        }
+        if (quantity != 0) {
+            writeTag(PART_QUANTITY, VARINT);
+            writeVarint(quantity);
+        }
+    }
+
+    private void writeBytesField(int field, byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            return;
+        }
+        writeTag(field, LENGTH_DELIMITED);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeTag(int field, int wireType) throws IOException {
+        writeVarint(field << 3 | wireType);
+    }
+
+    // int32 values are sign-extended, so negative numbers take ten bytes
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static byte[][] utf8(PartId id) {
+        if (id == null) {
+            return null;
+        }
+        return new byte[][]{
+                bytes(id.getMaterialNumber()), bytes(id.getSerialNumber()), bytes(id.getSupplierNumber())};
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int partSize(byte[][] numbers, int quantity) {
+        int size = 0;
+        if (numbers != null) {
+            int idSize = idSize(numbers);
+            size += 1 + varintSize(idSize) + idSize;
+        }
+        if (quantity != 0) {
+            size += 1 + varintSize(quantity);
+        }
+        return size;
+    }
+
+    private static int idSize(byte[][] numbers) {
+        int size = 0;
+        for (byte[] number : numbers) {
+            if (number.length > 0) {
+                size += 1 + varintSize(number.length) + number.length;
+            }
+        }
+        return size;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.warehouserest_api.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.warehouserest_api.config.ReplicaProperties;
+import org.example.warehouserest_api.datasource.ReadYourWrites;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Keeps a client's reads on the primary for warehouse.replicas.read-your-writes-window after its writes.
+// The end of the pin travels in a cookie, so it covers the client's next requests as well; clients without
+// cookies read their own writes within a request only, and may read from a replica right after a write.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "warehouse.replicas", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "warehouse-primary-until";
+
+    private final ReplicaProperties properties;
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadYourWrites.begin(pinnedUntil(request), until -> {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(until));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, properties.getReadYourWritesWindow().toSeconds()));
+            response.addCookie(cookie);
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    // The pin the client brought along; values beyond one window from now were not issued here and are ignored
+    private long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        long until = Long.parseLong(cookie.getValue());
+                        if (until <= System.currentTimeMillis() + properties.getReadYourWritesWindow().toMillis()) {
+                            return until;
+                        }
+                    } catch (NumberFormatException e) {
+                        // Not a pin of this service
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,12 @@
+-- Moves an existing parts table from the three-column composite primary key to the part_key surrogate key.
+-- New databases get this layout from spring.jpa.hibernate.ddl-auto; this script is only needed for tables
+-- created before the change, because ddl-auto=update never replaces a primary key.
+BEGIN;
+
+ALTER TABLE parts ADD COLUMN part_key BIGINT GENERATED BY DEFAULT AS IDENTITY;
+
+ALTER TABLE parts DROP CONSTRAINT parts_pkey;
+ALTER TABLE parts ADD CONSTRAINT parts_pkey PRIMARY KEY (part_key);
+ALTER TABLE parts ADD CONSTRAINT uk_parts_part_id UNIQUE (material_number, serial_number, supplier_number);
+
+COMMIT;
@@ -0,0 +1,15 @@
+-- Indexes behind GET /api/v1/parts/search.
+-- idx_parts_supplier is also created by spring.jpa.hibernate.ddl-auto; the two prefix indexes are not.
+-- Prefix searches compare the searched column with COLLATE "C" in the LIKE, the keyset and the ORDER BY, so these
+-- indexes serve the match and the sort together and a page reads only its own rows, whatever the database collation.
+-- The script only adds indexes and can be re-run safely.
+-- CREATE INDEX CONCURRENTLY cannot run inside a transaction block, so run this script without BEGIN/COMMIT.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_parts_supplier
+    ON parts (supplier_number, material_number, serial_number);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_parts_material_prefix
+    ON parts (material_number COLLATE "C", serial_number, supplier_number);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_parts_supplier_prefix
+    ON parts (supplier_number COLLATE "C", material_number, serial_number);
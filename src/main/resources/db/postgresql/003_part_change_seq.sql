@@ -0,0 +1,10 @@
+-- Stamps the existing parts with a change sequence for GET /api/v1/parts/sync.
+-- spring.jpa.hibernate.ddl-auto adds the change_seq column, the part_tombstones table and their indexes,
+-- and schema.sql creates the sequence; this script gives the rows that existed before a sequence value.
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS part_change_seq;
+
+UPDATE parts SET change_seq = nextval('part_change_seq') WHERE change_seq IS NULL;
+
+COMMIT;
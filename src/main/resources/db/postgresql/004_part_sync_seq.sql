@@ -0,0 +1,9 @@
+-- The delta sync pages by sync_seq, which is handed out in commit order, instead of change_seq.
+-- spring.jpa.hibernate.ddl-auto adds the sync_seq columns and their indexes, and schema.sql creates part_sync_clock;
+-- the rows that existed before are sequenced by the first sync. This script drops the change_seq indexes that
+-- no query reads any more, which only slowed down the writes. It can be re-run safely.
+-- DROP INDEX CONCURRENTLY cannot run inside a transaction block, so run this script without BEGIN/COMMIT.
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_parts_change_seq;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_part_tombstones_change_seq;
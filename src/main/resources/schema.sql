@@ -0,0 +1,7 @@
+-- Runs after Hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization).
+-- Source of the change sequence stamped on every part write and deletion, used by the delta sync.
+CREATE SEQUENCE IF NOT EXISTS part_change_seq;
+-- Last position handed out in the commit-ordered change log of the delta sync. Its single row is locked by the
+-- transaction that sequences committed writes, so sequence positions become visible in increasing order.
+CREATE TABLE IF NOT EXISTS part_sync_clock (id INT PRIMARY KEY, last_seq BIGINT NOT NULL);
+INSERT INTO part_sync_clock (id, last_seq) VALUES (1, 0) ON CONFLICT DO NOTHING;
@@ -0,0 +1,109 @@
+package org.example.warehouserest_api.datasource;
+
+import org.example.warehouserest_api.config.ReplicaProperties;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit tests for the ReplicaRoutingDataSource class, with two in-memory H2 databases standing in
+// for the primary and a replica
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("primary");
+
+    private final DataSource replica = database("replica");
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+    }
+
+    // Creates an H2 database that answers which database it is
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS origin (name VARCHAR(20))");
+            statement.execute("DELETE FROM origin");
+            statement.execute("INSERT INTO origin VALUES ('" + name + "')");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    private static String origin(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM origin")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    // Tests that reads use the replica once it passed a check, and the primary while the client is pinned.
+    @Test
+    void testGetConnection_RoutesToCheckedReplica() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), new ReplicaProperties());
+        String beforeCheck = origin(routing);
+
+        // Act
+        routing.checkReplicas();
+        String afterCheck = origin(routing);
+        ReadYourWrites.begin(0, until -> { });
+        ReadYourWrites.recordWrite(10_000);
+        String afterWrite = origin(routing);
+
+        // Assert
+        assertEquals("primary", beforeCheck);
+        assertEquals("replica", afterCheck);
+        assertEquals("primary", afterWrite);
+    }
+
+    // Tests that a replica lagging more than max-lag is left out.
+    @Test
+    void testCheckReplicas_LaggingReplicaExcluded() throws SQLException {
+        // Arrange
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+        properties.setLagQuery("SELECT 12.5");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), properties);
+
+        // Act
+        routing.checkReplicas();
+
+        // Assert
+        assertFalse(routing.isHealthy("replica-1"));
+        assertEquals("primary", origin(routing));
+    }
+
+    // Tests that a connection for explicit credentials is taken from the primary.
+    @Test
+    void testGetConnection_ExplicitCredentialsUsePrimary() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), new ReplicaProperties());
+        routing.checkReplicas();
+
+        // Act
+        String name;
+        try (Connection connection = routing.getConnection("", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM origin")) {
+            resultSet.next();
+            name = resultSet.getString(1);
+        }
+
+        // Assert
+        assertEquals("primary", name);
+    }
+}
@@ -1,37 +1,107 @@
 package org.example.warehouserest_api.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.StockTransferRequest;
 import org.example.warehouserest_api.model.Part;
 import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.QuantityAdjustment;
+import org.example.warehouserest_api.repository.IdempotencyRecordRepository;
 import org.example.warehouserest_api.repository.PartRepository;
+import org.example.warehouserest_api.repository.PartTombstoneRepository;
+import org.example.warehouserest_api.repository.StockTotalRepository;
+import org.example.warehouserest_api.service.PartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.HttpStatus.*;
 
 // Integration tests for the PartController.
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Metrics export is switched on, since Spring Boot tests disable it by default.
+// TestRestTemplate uses the plain JDK client, which hands over compressed responses as they are; the Reactor Netty
+// client that would be picked up from the classpath decompresses them and drops their Content-Encoding.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.http.client.factory=jdk")
+@AutoConfigureObservability(tracing = false)
 class PartControllerIntegrationTest {
 
     // TestRestTemplate is autowired with the random port value
     @Autowired
     private TestRestTemplate restTemplate;
 
+    // Port of the running server, for the event stream client
+    @LocalServerPort
+    private int port;
+
     // Real repository is used to prepare test data and verify results
     @Autowired
     private PartRepository partRepository;
 
+    @Autowired
+    private StockTotalRepository stockTotalRepository;
+
+    @Autowired
+    private PartTombstoneRepository partTombstoneRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    // Service and transaction manager, to keep a write transaction open while other requests run
+    @Autowired
+    private PartService partService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     //Setup method runs before each test.
     // Clears all data from the repository to ensure a clean test environment.
     @BeforeEach
     void setUp() {
         partRepository.deleteAll();
+        stockTotalRepository.deleteAll();
+        partTombstoneRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    // Loads a part straight from the database by its business identifier
+    private Part storedPart(PartId partId) {
+        Long key = partRepository.findKeyByPartId(partId).orElseThrow();
+        return partRepository.findById(key).orElseThrow();
     }
 
     // Tests adding a new part through the API.
@@ -50,6 +120,42 @@ class PartControllerIntegrationTest {
         assertEquals(0, response.getBody().getQuantity());
     }
 
+    // Opens the change stream with the given query and Last-Event-ID, runs the action once it is open
+    // and collects the id, event name and data of the first count events.
+    // Uses java.net.http because TestRestTemplate reads a response to its end before closing it.
+    private List<Map<String, String>> readChanges(String query, String lastEventId, int count, Runnable action) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/parts/changes" + query));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<InputStream> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build().send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            action.run();
+            return CompletableFuture.supplyAsync(() -> {
+                List<Map<String, String>> events = new ArrayList<>();
+                Map<String, String> event = new HashMap<>();
+                try {
+                    String line;
+                    while (events.size() < count && (line = reader.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            // Blocks without data (the reconnection hint) are not events
+                            if (event.containsKey("data")) {
+                                events.add(event);
+                            }
+                            event = new HashMap<>();
+                        } else if (line.indexOf(':') > 0) {
+                            event.put(line.substring(0, line.indexOf(':')), line.substring(line.indexOf(':') + 1));
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return events;
+            }).get(10, TimeUnit.SECONDS);
+        }
+    }
+
     // Tests retrieving a non-existent part.
     @Test
     void testGetPartById_NotFound() {
@@ -60,6 +166,27 @@ class PartControllerIntegrationTest {
         assertEquals(NOT_FOUND, response.getStatusCode());
     }
 
+    // Tests that request latency, database time and 404 responses are exported in Prometheus format.
+    @Test
+    void testPrometheusEndpoint_EndpointMetrics() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M7", "S7", "SUP7"), Part.class);
+        restTemplate.getForEntity("/api/v1/parts/M7/S7/SUP7", String.class);
+        restTemplate.getForEntity("/api/v1/parts/M8/S8/SUP8", String.class);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        String body = response.getBody();
+        assertNotNull(body);
+        assertTrue(body.contains("warehouse_http_requests_seconds_bucket{endpoint=\"PartController#getPartById\",le=\"+Inf\"}"));
+        assertTrue(body.contains("warehouse_http_requests_database_seconds{endpoint=\"PartController#addPart\",quantile=\"0.99\"}"));
+        assertTrue(body.contains("warehouse_http_responses_total{endpoint=\"PartController#getPartById\",status=\"404\"}"));
+        assertTrue(body.contains("hikaricp_connections_acquire_seconds_bucket"));
+    }
+
     // Tests retrieving all parts when the repository is empty.
     @Test
     void testGetAllParts_EmptyRepository() {
@@ -129,4 +256,746 @@ class PartControllerIntegrationTest {
         ResponseEntity<String> getResponse = restTemplate.getForEntity(url, String.class);
         assertEquals(NOT_FOUND, getResponse.getStatusCode());
     }
+
+    // Tests streaming all parts in composite ID order.
+    @Test
+    void testGetAllParts_Streamed() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M7", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M6", "S1", "SUP1"), Part.class);
+
+        // Act
+        ResponseEntity<Part[]> response = restTemplate.getForEntity("/api/v1/parts", Part[].class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().length);
+        assertEquals("M6", response.getBody()[0].getId().getMaterialNumber());
+        assertEquals("M7", response.getBody()[1].getId().getMaterialNumber());
+    }
+
+    // Tests walking through all parts with keyset pagination.
+    @Test
+    void testGetPartsPage_FollowsCursor() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M8", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M8", "S2", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M8", "S2", "SUP2"), Part.class);
+
+        // Act
+        ResponseEntity<Map> first = restTemplate.getForEntity("/api/v1/parts/page?limit=2", Map.class);
+        String cursor = (String) first.getBody().get("nextCursor");
+        ResponseEntity<Map> second = restTemplate.getForEntity("/api/v1/parts/page?limit=2&cursor=" + cursor, Map.class);
+
+        // Assert
+        assertEquals(OK, first.getStatusCode());
+        assertEquals(2, ((List<?>) first.getBody().get("items")).size());
+        assertNotNull(cursor);
+        assertEquals(OK, second.getStatusCode());
+        assertEquals(1, ((List<?>) second.getBody().get("items")).size());
+        assertNull(second.getBody().get("nextCursor"));
+    }
+
+    // Tests that a malformed cursor is rejected.
+    @Test
+    void testGetPartsPage_InvalidCursor() {
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/parts/page?cursor=%%%", String.class);
+
+        // Assert
+        assertEquals(BAD_REQUEST, response.getStatusCode());
+    }
+
+    // Tests searching by supplier number, paging through the matches in supplier order.
+    @Test
+    void testSearchParts_BySupplierFollowsCursor() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M2", "S1", "SUP9"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M1", "S1", "SUP9"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M1", "S2", "SUP9"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M1", "S1", "SUP8"), Part.class);
+
+        // Act
+        ResponseEntity<Map> first = restTemplate.getForEntity("/api/v1/parts/search?supplierNumber=SUP9&limit=2", Map.class);
+        String cursor = (String) first.getBody().get("nextCursor");
+        ResponseEntity<Map> second = restTemplate.getForEntity(
+                "/api/v1/parts/search?supplierNumber=SUP9&limit=2&cursor=" + cursor, Map.class);
+
+        // Assert
+        assertEquals(OK, first.getStatusCode());
+        List<Map<String, Map<String, String>>> items = (List) first.getBody().get("items");
+        assertEquals(2, items.size());
+        assertEquals("S1", items.get(0).get("id").get("serialNumber"));
+        assertEquals("S2", items.get(1).get("id").get("serialNumber"));
+        assertEquals(OK, second.getStatusCode());
+        List<Map<String, Map<String, String>>> rest = (List) second.getBody().get("items");
+        assertEquals(1, rest.size());
+        assertEquals("M2", rest.get(0).get("id").get("materialNumber"));
+        assertNull(second.getBody().get("nextCursor"));
+    }
+
+    // Tests prefix search by material number, where LIKE wildcards in the prefix match literally.
+    @Test
+    void testSearchParts_ByMaterialPrefix() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("AB_1", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("ABX1", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("B1", "S1", "SUP1"), Part.class);
+
+        // Act
+        ResponseEntity<Map> all = restTemplate.getForEntity("/api/v1/parts/search?materialPrefix=AB", Map.class);
+        ResponseEntity<Map> literal = restTemplate.getForEntity("/api/v1/parts/search?materialPrefix=AB_", Map.class);
+
+        // Assert
+        assertEquals(2, ((List<?>) all.getBody().get("items")).size());
+        assertEquals(1, ((List<?>) literal.getBody().get("items")).size());
+    }
+
+    // Tests that a search needs exactly one filter.
+    @Test
+    void testSearchParts_ConflictingFilters() {
+        // Act
+        ResponseEntity<String> none = restTemplate.getForEntity("/api/v1/parts/search", String.class);
+        ResponseEntity<String> both = restTemplate.getForEntity(
+                "/api/v1/parts/search?materialNumber=M1&supplierNumber=SUP1", String.class);
+
+        // Assert
+        assertEquals(BAD_REQUEST, none.getStatusCode());
+        assertEquals(BAD_REQUEST, both.getStatusCode());
+    }
+
+    // Tests that the stock totals per material and supplier follow every kind of write.
+    @Test
+    void testStockTotals_FollowWrites() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MT1", "S1", "SUPT1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MT1", "S2", "SUPT2"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MT2", "S1", "SUPT1"), Part.class);
+
+        // Act
+        restTemplate.exchange("/api/v1/parts/MT1/S1/SUPT1/add?amount=10", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        restTemplate.exchange("/api/v1/parts/MT1/S2/SUPT2/add?amount=5", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        restTemplate.exchange("/api/v1/parts/MT1/S1/SUPT1/subtract?amount=3", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        restTemplate.exchange("/api/v1/parts/MT2/S1/SUPT1", HttpMethod.DELETE, HttpEntity.EMPTY, Void.class);
+        ResponseEntity<Map> material = restTemplate.getForEntity("/api/v1/stock/materials/MT1", Map.class);
+        ResponseEntity<Map> supplier = restTemplate.getForEntity("/api/v1/stock/suppliers/SUPT1", Map.class);
+        ResponseEntity<String> removed = restTemplate.getForEntity("/api/v1/stock/materials/MT2", String.class);
+
+        // Assert
+        assertEquals(OK, material.getStatusCode());
+        assertEquals(12, ((Number) material.getBody().get("quantity")).intValue());
+        assertEquals(2, ((Number) material.getBody().get("parts")).intValue());
+        assertEquals(7, ((Number) supplier.getBody().get("quantity")).intValue());
+        assertEquals(1, ((Number) supplier.getBody().get("parts")).intValue());
+        assertEquals(NOT_FOUND, removed.getStatusCode());
+    }
+
+    // Tests that the verification finds totals changed behind the API's back and repairs them.
+    @Test
+    void testVerifyStockTotals_RepairsDrift() {
+        // Arrange
+        PartId partId = new PartId("MD1", "S1", "SUPD1");
+        restTemplate.postForEntity("/api/v1/parts", partId, Part.class);
+        Part part = storedPart(partId);
+        part.setQuantity(40);
+        partRepository.save(part);
+
+        // Act
+        ResponseEntity<Map> report = restTemplate.postForEntity("/api/v1/admin/stock/verify", null, Map.class);
+        ResponseEntity<Map> repaired = restTemplate.postForEntity("/api/v1/admin/stock/verify?repair=true", null, Map.class);
+        ResponseEntity<Map> again = restTemplate.postForEntity("/api/v1/admin/stock/verify", null, Map.class);
+        ResponseEntity<Map> material = restTemplate.getForEntity("/api/v1/stock/materials/MD1", Map.class);
+
+        // Assert
+        assertEquals(OK, report.getStatusCode());
+        assertEquals(2, ((Number) report.getBody().get("driftCount")).intValue());
+        assertEquals(2, ((Number) repaired.getBody().get("driftCount")).intValue());
+        assertEquals(0, ((Number) again.getBody().get("driftCount")).intValue());
+        assertEquals(40, ((Number) material.getBody().get("quantity")).intValue());
+    }
+
+    // Tests that the change stream pushes committed changes of the requested material only.
+    @Test
+    void testStreamChanges_FilteredByMaterial() throws Exception {
+        // Act
+        List<Map<String, String>> events = readChanges("?materialNumber=MS1", null, 2, () -> {
+            restTemplate.postForEntity("/api/v1/parts", new PartId("MS2", "S1", "SUP1"), Part.class);
+            restTemplate.postForEntity("/api/v1/parts", new PartId("MS1", "S1", "SUP1"), Part.class);
+            restTemplate.exchange("/api/v1/parts/MS1/S1/SUP1/add?amount=4", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        });
+
+        // Assert
+        assertEquals(2, events.size());
+        assertEquals("part", events.get(0).get("event"));
+        assertTrue(events.get(0).get("data").contains("\"type\":\"ADDED\""));
+        assertTrue(events.get(0).get("data").contains("\"materialNumber\":\"MS1\""));
+        assertTrue(events.get(1).get("data").contains("\"type\":\"QUANTITY_CHANGED\""));
+        assertTrue(events.get(1).get("data").contains("\"quantity\":4"));
+    }
+
+    // Tests that a reconnecting client gets the events it missed, and a reset for an unknown event id.
+    @Test
+    void testStreamChanges_ResumeFromLastEventId() throws Exception {
+        // Arrange
+        List<Map<String, String>> first = readChanges("?materialNumber=MR1", null, 1, () ->
+                restTemplate.postForEntity("/api/v1/parts", new PartId("MR1", "S1", "SUP1"), Part.class));
+        restTemplate.exchange("/api/v1/parts/MR1/S1/SUP1/add?amount=3", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        List<Map<String, String>> resumed = readChanges("?materialNumber=MR1", first.get(0).get("id"), 1, () -> { });
+        List<Map<String, String>> unknown = readChanges("?materialNumber=MR1", "unknown-1", 1, () -> { });
+
+        // Assert
+        assertTrue(resumed.get(0).get("data").contains("\"quantity\":3"));
+        assertNotEquals(first.get(0).get("id"), resumed.get(0).get("id"));
+        assertEquals("reset", unknown.get(0).get("event"));
+    }
+
+    // Tests that a delta sync returns the latest state of changed parts and tombstones of deleted ones, in order.
+    @Test
+    void testSyncChanges_PartsAndTombstones() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MY1", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MY2", "S1", "SUP1"), Part.class);
+        restTemplate.exchange("/api/v1/parts/MY1/S1/SUP1/add?amount=6", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        restTemplate.exchange("/api/v1/parts/MY2/S1/SUP1", HttpMethod.DELETE, HttpEntity.EMPTY, Void.class);
+
+        // Act
+        ResponseEntity<Map> full = restTemplate.getForEntity("/api/v1/parts/sync?since=0", Map.class);
+        ResponseEntity<Map> first = restTemplate.getForEntity("/api/v1/parts/sync?since=0&limit=1", Map.class);
+        long nextSince = ((Number) first.getBody().get("nextSince")).longValue();
+        ResponseEntity<Map> second = restTemplate.getForEntity("/api/v1/parts/sync?since=" + nextSince, Map.class);
+
+        // Assert
+        assertEquals(OK, full.getStatusCode());
+        List<Map<String, Object>> changes = (List) full.getBody().get("changes");
+        assertEquals(2, changes.size());
+        assertEquals(6, changes.get(0).get("quantity"));
+        assertEquals(false, changes.get(0).get("deleted"));
+        assertEquals("MY2", ((Map<?, ?>) changes.get(1).get("id")).get("materialNumber"));
+        assertEquals(true, changes.get(1).get("deleted"));
+        assertEquals(true, first.getBody().get("hasMore"));
+        List<Map<String, Object>> rest = (List) second.getBody().get("changes");
+        assertEquals(1, rest.size());
+        assertEquals(true, rest.get(0).get("deleted"));
+        assertEquals(false, second.getBody().get("hasMore"));
+    }
+
+    // Tests that a change committed after a later-numbered one still reaches a client that synced in between.
+    @Test
+    void testSyncChanges_LateCommitIsNotSkipped() throws Exception {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MZ1", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MZ2", "S1", "SUP2"), Part.class);
+        long since = ((Number) restTemplate.getForEntity("/api/v1/parts/sync?since=0", Map.class).getBody().get("nextSince")).longValue();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Takes its change sequence first, but commits last
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            partService.increaseQuantity("MZ1", "S1", "SUP1", 3);
+            written.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        restTemplate.exchange("/api/v1/parts/MZ2/S1/SUP2/add?amount=4", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        ResponseEntity<Map> beforeCommit = restTemplate.getForEntity("/api/v1/parts/sync?since=" + since, Map.class);
+        long nextSince = ((Number) beforeCommit.getBody().get("nextSince")).longValue();
+        commit.countDown();
+        slowWrite.get(10, TimeUnit.SECONDS);
+        ResponseEntity<Map> afterCommit = restTemplate.getForEntity("/api/v1/parts/sync?since=" + nextSince, Map.class);
+
+        // Assert
+        List<Map<String, Object>> first = (List) beforeCommit.getBody().get("changes");
+        assertEquals(1, first.size());
+        assertEquals("MZ2", ((Map<?, ?>) first.get(0).get("id")).get("materialNumber"));
+        assertEquals(4, first.get(0).get("quantity"));
+        List<Map<String, Object>> second = (List) afterCommit.getBody().get("changes");
+        assertEquals(1, second.size());
+        assertEquals("MZ1", ((Map<?, ?>) second.get(0).get("id")).get("materialNumber"));
+        assertEquals(3, second.get(0).get("quantity"));
+    }
+
+    // Tests that the collection ETag changes when a write commits after a higher-numbered one.
+    @Test
+    void testConditionalGet_LateCommitChangesCollectionETag() throws Exception {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MX1", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MX2", "S1", "SUP2"), Part.class);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Takes its change sequence first, but commits last
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            partService.increaseQuantity("MX1", "S1", "SUP1", 3);
+            written.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        restTemplate.exchange("/api/v1/parts/MX2/S1/SUP2/add?amount=4", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        String eTag = restTemplate.getForEntity("/api/v1/parts", String.class).getHeaders().getETag();
+        commit.countDown();
+        slowWrite.get(10, TimeUnit.SECONDS);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.exchange("/api/v1/parts", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertNotEquals(eTag, response.getHeaders().getETag());
+        assertTrue(response.getBody().contains("\"quantity\":3"));
+    }
+
+    // Tests conditional GETs of a part and of a page with If-None-Match.
+    @Test
+    void testConditionalGet_NotModified() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("ME1", "S1", "SUP1"), Part.class);
+        ResponseEntity<Part> part = restTemplate.getForEntity("/api/v1/parts/ME1/S1/SUP1", Part.class);
+        ResponseEntity<String> page = restTemplate.getForEntity("/api/v1/parts/page", String.class);
+
+        // Act
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setIfNoneMatch(part.getHeaders().getETag());
+        ResponseEntity<String> partAgain = restTemplate.exchange(
+                "/api/v1/parts/ME1/S1/SUP1", HttpMethod.GET, new HttpEntity<>(partHeaders), String.class);
+        HttpHeaders pageHeaders = new HttpHeaders();
+        pageHeaders.setIfNoneMatch(page.getHeaders().getETag());
+        ResponseEntity<String> pageAgain = restTemplate.exchange(
+                "/api/v1/parts/page", HttpMethod.GET, new HttpEntity<>(pageHeaders), String.class);
+
+        // Assert
+        assertNotNull(part.getHeaders().getETag());
+        assertTrue(page.getHeaders().getETag().startsWith("W/"));
+        assertEquals(NOT_MODIFIED, partAgain.getStatusCode());
+        assertNull(partAgain.getBody());
+        assertEquals(NOT_MODIFIED, pageAgain.getStatusCode());
+        assertNull(pageAgain.getBody());
+    }
+
+    // Tests that If-Match on a quantity change is rejected with a stale ETag and accepted with the current one.
+    @Test
+    void testIncreaseQuantity_IfMatch() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("ME2", "S1", "SUP1"), Part.class);
+        String eTag = restTemplate.getForEntity("/api/v1/parts/ME2/S1/SUP1", Part.class).getHeaders().getETag();
+        restTemplate.exchange("/api/v1/parts/ME2/S1/SUP1/add?amount=1", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        HttpHeaders stale = new HttpHeaders();
+        stale.setIfMatch(eTag);
+        ResponseEntity<String> rejected = restTemplate.exchange(
+                "/api/v1/parts/ME2/S1/SUP1/add?amount=5", HttpMethod.PATCH, new HttpEntity<>(stale), String.class);
+        String current = restTemplate.getForEntity("/api/v1/parts/ME2/S1/SUP1", Part.class).getHeaders().getETag();
+        HttpHeaders fresh = new HttpHeaders();
+        fresh.setIfMatch(current);
+        ResponseEntity<Part> accepted = restTemplate.exchange(
+                "/api/v1/parts/ME2/S1/SUP1/add?amount=5", HttpMethod.PATCH, new HttpEntity<>(fresh), Part.class);
+
+        // Assert
+        assertEquals(PRECONDITION_FAILED, rejected.getStatusCode());
+        assertEquals(OK, accepted.getStatusCode());
+        assertEquals(6, accepted.getBody().getQuantity());
+        assertNotEquals(current, accepted.getHeaders().getETag());
+    }
+
+    // Tests that a retried PATCH with the same Idempotency-Key replays the first response and adds only once.
+    @Test
+    void testIncreaseQuantity_IdempotencyKeyReplays() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MI1", "S1", "SUP1"), Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "handheld-7-0001");
+
+        // Act
+        ResponseEntity<Part> first = restTemplate.exchange(
+                "/api/v1/parts/MI1/S1/SUP1/add?amount=4", HttpMethod.PATCH, new HttpEntity<>(headers), Part.class);
+        ResponseEntity<Part> retry = restTemplate.exchange(
+                "/api/v1/parts/MI1/S1/SUP1/add?amount=4", HttpMethod.PATCH, new HttpEntity<>(headers), Part.class);
+        ResponseEntity<String> otherRequest = restTemplate.exchange(
+                "/api/v1/parts/MI1/S1/SUP1/add?amount=5", HttpMethod.PATCH, new HttpEntity<>(headers), String.class);
+
+        // Assert
+        assertEquals(OK, first.getStatusCode());
+        assertEquals(OK, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(4, retry.getBody().getQuantity());
+        assertEquals(first.getHeaders().getETag(), retry.getHeaders().getETag());
+        assertEquals(UNPROCESSABLE_ENTITY, otherRequest.getStatusCode());
+        assertEquals(4, storedPart(new PartId("MI1", "S1", "SUP1")).getQuantity());
+    }
+
+    // Tests that a failed request is not stored, so its retry is evaluated again.
+    @Test
+    void testDecreaseQuantity_IdempotencyKeyNotStoredOnFailure() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("MI2", "S1", "SUP1"), Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "handheld-7-0002");
+
+        // Act
+        ResponseEntity<String> rejected = restTemplate.exchange(
+                "/api/v1/parts/MI2/S1/SUP1/subtract?amount=2", HttpMethod.PATCH, new HttpEntity<>(headers), String.class);
+        restTemplate.exchange("/api/v1/parts/MI2/S1/SUP1/add?amount=3", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        ResponseEntity<Part> retried = restTemplate.exchange(
+                "/api/v1/parts/MI2/S1/SUP1/subtract?amount=2", HttpMethod.PATCH, new HttpEntity<>(headers), Part.class);
+
+        // Assert
+        assertEquals(CONFLICT, rejected.getStatusCode());
+        assertEquals(OK, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, retried.getBody().getQuantity());
+        assertEquals(1, idempotencyRecordRepository.count());
+    }
+
+    // Tests that subtracting more than the available quantity is rejected and leaves the quantity unchanged.
+    @Test
+    void testDecreaseQuantity_BelowZero() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("M9", "S9", "SUP9"), Part.class);
+        restTemplate.exchange("/api/v1/parts/M9/S9/SUP9/add?amount=2", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/v1/parts/M9/S9/SUP9/subtract?amount=3", HttpMethod.PATCH, HttpEntity.EMPTY, String.class);
+
+        // Assert
+        assertEquals(CONFLICT, response.getStatusCode());
+        assertEquals(2, storedPart(new PartId("M9", "S9", "SUP9")).getQuantity());
+    }
+
+    // Tests a best-effort batch where one operation fails and the others are applied.
+    @Test
+    void testAdjustQuantities_BestEffort() {
+        // Arrange
+        PartId first = new PartId("B1", "S1", "SUP1");
+        PartId second = new PartId("B2", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", first, Part.class);
+        restTemplate.postForEntity("/api/v1/parts", second, Part.class);
+        BatchAdjustmentRequest request = new BatchAdjustmentRequest();
+        request.setMode(BatchAdjustmentRequest.Mode.BEST_EFFORT);
+        request.setOperations(List.of(
+                new QuantityAdjustment(first, 5),
+                new QuantityAdjustment(second, -1),
+                new QuantityAdjustment(first, -2),
+                new QuantityAdjustment(new PartId("B3", "S1", "SUP1"), 1)));
+
+        // Act
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/v1/parts/adjustments", request, Map.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(2, response.getBody().get("applied"));
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertEquals("APPLIED", results.get(0).get("outcome"));
+        assertEquals("INSUFFICIENT_QUANTITY", results.get(1).get("outcome"));
+        assertEquals("APPLIED", results.get(2).get("outcome"));
+        assertEquals("NOT_FOUND", results.get(3).get("outcome"));
+        assertEquals(3, storedPart(first).getQuantity());
+    }
+
+    // Tests that an increase past the largest quantity is rejected on its own in a best-effort batch.
+    @Test
+    void testAdjustQuantities_BestEffortOverflowRejectedPerItem() {
+        // Arrange
+        PartId full = new PartId("B5", "S1", "SUP1");
+        PartId other = new PartId("B6", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", full, Part.class);
+        restTemplate.postForEntity("/api/v1/parts", other, Part.class);
+        restTemplate.exchange("/api/v1/parts/B5/S1/SUP1/add?amount=" + (Integer.MAX_VALUE - 1), HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        BatchAdjustmentRequest request = new BatchAdjustmentRequest();
+        request.setMode(BatchAdjustmentRequest.Mode.BEST_EFFORT);
+        request.setOperations(List.of(
+                new QuantityAdjustment(full, 5),
+                new QuantityAdjustment(other, 3)));
+
+        // Act
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/v1/parts/adjustments", request, Map.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertEquals("QUANTITY_OUT_OF_RANGE", results.get(0).get("outcome"));
+        assertEquals("APPLIED", results.get(1).get("outcome"));
+        assertEquals(Integer.MAX_VALUE - 1, storedPart(full).getQuantity());
+        assertEquals(3, storedPart(other).getQuantity());
+    }
+
+    // Tests that an all-or-nothing batch with a failing operation applies nothing.
+    @Test
+    void testAdjustQuantities_AllOrNothingRollsBack() {
+        // Arrange
+        PartId partId = new PartId("B4", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", partId, Part.class);
+        BatchAdjustmentRequest request = new BatchAdjustmentRequest();
+        request.setOperations(List.of(
+                new QuantityAdjustment(partId, 5),
+                new QuantityAdjustment(partId, -6)));
+
+        // Act
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/v1/parts/adjustments", request, Map.class);
+
+        // Assert
+        assertEquals(CONFLICT, response.getStatusCode());
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertEquals("NOT_APPLIED", results.get(0).get("outcome"));
+        assertEquals("INSUFFICIENT_QUANTITY", results.get(1).get("outcome"));
+        assertEquals(0, storedPart(partId).getQuantity());
+    }
+
+    // Tests that concurrent transfers in opposite directions between the same parts all complete and conserve stock.
+    @Test
+    void testTransferStock_ConcurrentOppositeDirections() {
+        // Arrange
+        PartId first = new PartId("T1", "S1", "SUP1");
+        PartId second = new PartId("T2", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", first, Part.class);
+        restTemplate.postForEntity("/api/v1/parts", second, Part.class);
+        restTemplate.exchange("/api/v1/parts/T1/S1/SUP1/add?amount=100", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        restTemplate.exchange("/api/v1/parts/T2/S1/SUP1/add?amount=100", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        List<CompletableFuture<ResponseEntity<List>>> transfers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            StockTransferRequest request = new StockTransferRequest();
+            request.setOperations(i % 2 == 0
+                    ? List.of(new QuantityAdjustment(first, -3), new QuantityAdjustment(second, 3))
+                    : List.of(new QuantityAdjustment(second, -2), new QuantityAdjustment(first, 2)));
+            transfers.add(CompletableFuture.supplyAsync(() -> restTemplate.postForEntity("/api/v1/parts/transfers", request, List.class)));
+        }
+        List<ResponseEntity<List>> responses = transfers.stream().map(CompletableFuture::join).toList();
+
+        // Assert
+        assertTrue(responses.stream().allMatch(response -> response.getStatusCode() == OK));
+        assertEquals(90, storedPart(first).getQuantity());
+        assertEquals(110, storedPart(second).getQuantity());
+    }
+
+    // Tests that a transfer leaving a part below zero is rejected and changes nothing.
+    @Test
+    void testTransferStock_InsufficientChangesNothing() {
+        // Arrange
+        PartId source = new PartId("T3", "S1", "SUP1");
+        PartId target = new PartId("T4", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", source, Part.class);
+        restTemplate.postForEntity("/api/v1/parts", target, Part.class);
+        restTemplate.exchange("/api/v1/parts/T3/S1/SUP1/add?amount=2", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        StockTransferRequest request = new StockTransferRequest();
+        request.setOperations(List.of(new QuantityAdjustment(target, 5), new QuantityAdjustment(source, -5)));
+
+        // Act
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/v1/parts/transfers", request, Map.class);
+
+        // Assert
+        assertEquals(CONFLICT, response.getStatusCode());
+        assertEquals(2, storedPart(source).getQuantity());
+        assertEquals(0, storedPart(target).getQuantity());
+    }
+
+    // Tests a CSV import that creates parts, updates an existing one and reports a rejected line.
+    @Test
+    void testImportParts_Csv() {
+        // Arrange
+        PartId existing = new PartId("I1", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", existing, Part.class);
+        String csv = "materialNumber,serialNumber,supplierNumber,quantity\n"
+                + "I1,S1,SUP1,7\n"
+                + "I2,S2,SUP2\n"
+                + "I3,,SUP3,1\n"
+                + "\"I4\",\"S,4\",SUP4,-2\n"
+                + "I5,S5,SUP5,12\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        // Act
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/parts/import", new HttpEntity<>(csv, headers), String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        String[] events = response.getBody().split("\n");
+        assertTrue(events[0].contains("\"type\":\"ERROR\"") && events[0].contains("\"line\":4"));
+        assertTrue(events[1].contains("\"line\":5") && events[1].contains("quantity cannot be negative"));
+        assertEquals("{\"type\":\"SUMMARY\",\"rowsRead\":5,\"imported\":3,\"failed\":2}", events[events.length - 1]);
+        assertEquals(7, storedPart(existing).getQuantity());
+        assertEquals(0, storedPart(new PartId("I2", "S2", "SUP2")).getQuantity());
+        assertEquals(12, storedPart(new PartId("I5", "S5", "SUP5")).getQuantity());
+        assertEquals(7, restTemplate.getForEntity("/api/v1/parts/I1/S1/SUP1", Part.class).getBody().getQuantity());
+    }
+
+    // Tests an NDJSON import where a later line for the same part wins.
+    @Test
+    void testImportParts_Ndjson() {
+        // Arrange
+        String ndjson = "{\"materialNumber\":\"J1\",\"serialNumber\":\"S1\",\"supplierNumber\":\"SUP1\",\"quantity\":3}\n"
+                + "not json\n"
+                + "{\"materialNumber\":\"J1\",\"serialNumber\":\"S1\",\"supplierNumber\":\"SUP1\",\"quantity\":4}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        // Act
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/parts/import", new HttpEntity<>(ndjson, headers), String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"line\":2"));
+        assertTrue(response.getBody().endsWith("{\"type\":\"SUMMARY\",\"rowsRead\":3,\"imported\":2,\"failed\":1}\n"));
+        assertEquals(4, storedPart(new PartId("J1", "S1", "SUP1")).getQuantity());
+    }
+
+    // Tests that an import line without a quantity creates a missing part but keeps the stock of an existing one.
+    @Test
+    void testImportParts_WithoutQuantityKeepsStock() {
+        // Arrange
+        PartId existing = new PartId("K1", "S1", "SUP1");
+        restTemplate.postForEntity("/api/v1/parts", existing, Part.class);
+        restTemplate.exchange("/api/v1/parts/K1/S1/SUP1/add?amount=6", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        String ndjson = "{\"materialNumber\":\"K1\",\"serialNumber\":\"S1\",\"supplierNumber\":\"SUP1\"}\n"
+                + "{\"materialNumber\":\"K2\",\"serialNumber\":\"S2\",\"supplierNumber\":\"SUP2\"}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        HttpHeaders csvHeaders = new HttpHeaders();
+        csvHeaders.setContentType(MediaType.parseMediaType("text/csv"));
+
+        // Act
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/parts/import", new HttpEntity<>(ndjson, headers), String.class);
+        ResponseEntity<String> csvResponse = restTemplate.postForEntity("/api/v1/parts/import",
+                new HttpEntity<>("K1,S1,SUP1,\n", csvHeaders), String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertTrue(response.getBody().endsWith("{\"type\":\"SUMMARY\",\"rowsRead\":2,\"imported\":2,\"failed\":0}\n"));
+        assertEquals(OK, csvResponse.getStatusCode());
+        assertEquals(6, storedPart(existing).getQuantity());
+        assertEquals(0, storedPart(new PartId("K2", "S2", "SUP2")).getQuantity());
+        assertEquals(6, restTemplate.getForEntity("/api/v1/parts/K1/S1/SUP1", Part.class).getBody().getQuantity());
+    }
+
+    // Tests exporting the inventory as CSV.
+    @Test
+    void testExportParts_Csv() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("E2", "S1", "SUP1"), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("E1", "S,1", "SUP1"), Part.class);
+        restTemplate.exchange("/api/v1/parts/E2/S1/SUP1/add?amount=4", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/parts/export?format=csv", String.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertEquals("materialNumber,serialNumber,supplierNumber,quantity\nE1,\"S,1\",SUP1,0\nE2,S1,SUP1,4\n", response.getBody());
+    }
+
+    // Tests exporting the inventory in the gzip-compressed binary format.
+    @Test
+    void testExportParts_BinaryGzip() throws IOException {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("E3", "S1", "SUP1"), Part.class);
+        restTemplate.exchange("/api/v1/parts/E3/S1/SUP1/add?amount=9", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+
+        // Act
+        ResponseEntity<byte[]> response = restTemplate.getForEntity("/api/v1/parts/export?format=binary&gzip=true", byte[].class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (DataInputStream data = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(response.getBody())))) {
+            assertArrayEquals("WPX1".getBytes(StandardCharsets.US_ASCII), data.readNBytes(4));
+            assertEquals(2 + 2 + 2 + 2 + 2 + 4 + 4, data.readInt());
+            assertEquals("E3", new String(data.readNBytes(data.readUnsignedShort()), StandardCharsets.UTF_8));
+            assertEquals("S1", new String(data.readNBytes(data.readUnsignedShort()), StandardCharsets.UTF_8));
+            assertEquals("SUP1", new String(data.readNBytes(data.readUnsignedShort()), StandardCharsets.UTF_8));
+            assertEquals(9, data.readInt());
+            assertEquals(-1, data.read());
+        }
+    }
+
+    // Tests that an unknown export format is rejected.
+    @Test
+    void testExportParts_UnknownFormat() {
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/parts/export?format=xml", String.class);
+
+        // Assert
+        assertEquals(BAD_REQUEST, response.getStatusCode());
+    }
+
+    // Tests that a keyset page is returned as CBOR when the client asks for it.
+    @Test
+    void testGetPartsPage_Cbor() throws IOException {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("W1", "S1", "SUP1"), Part.class);
+        restTemplate.exchange("/api/v1/parts/W1/S1/SUP1/add?amount=3", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+        // Act
+        ResponseEntity<byte[]> response = restTemplate.exchange("/api/v1/parts/page", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_CBOR, response.getHeaders().getContentType());
+        JsonNode page = new ObjectMapper(new CBORFactory()).readTree(response.getBody());
+        assertEquals("W1", page.get("items").get(0).get("id").get("materialNumber").asText());
+        assertEquals(3, page.get("items").get(0).get("quantity").asInt());
+        assertFalse(page.get("items").get(0).has("version"));
+    }
+
+    // Tests a single part and the streamed listing as protocol buffers.
+    @Test
+    void testGetPart_Protobuf() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("P1", "S1", "SUP1"), Part.class);
+        restTemplate.exchange("/api/v1/parts/P1/S1/SUP1/add?amount=5", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf("application/x-protobuf")));
+        // Part { id = PartId { "P1", "S1", "SUP1" }, quantity = 5 }
+        byte[] part = {0x0A, 14, 0x0A, 2, 'P', '1', 0x12, 2, 'S', '1', 0x1A, 4, 'S', 'U', 'P', '1', 0x10, 5};
+
+        // Act
+        ResponseEntity<byte[]> single = restTemplate.exchange("/api/v1/parts/P1/S1/SUP1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        ResponseEntity<byte[]> listing = restTemplate.exchange("/api/v1/parts", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        // Assert
+        assertEquals(OK, single.getStatusCode());
+        assertArrayEquals(part, single.getBody());
+        assertEquals(OK, listing.getStatusCode());
+        assertEquals("application/x-protobuf", listing.getHeaders().getContentType().toString());
+        byte[] delimited = new byte[part.length + 1];
+        delimited[0] = (byte) part.length;
+        System.arraycopy(part, 0, delimited, 1, part.length);
+        assertArrayEquals(delimited, listing.getBody());
+    }
+
+    // Tests that the streamed listing is gzip-compressed for clients accepting it, but a single part is not.
+    @Test
+    void testGetAllParts_Gzip() throws IOException {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("G1", "S1", "SUP1"), Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        // Act
+        ResponseEntity<byte[]> listing = restTemplate.exchange("/api/v1/parts", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        ResponseEntity<byte[]> single = restTemplate.exchange("/api/v1/parts/G1/S1/SUP1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        // Assert
+        assertEquals("gzip", listing.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(listing.getBody())).readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals("[{\"id\":{\"materialNumber\":\"G1\",\"serialNumber\":\"S1\",\"supplierNumber\":\"SUP1\"},\"quantity\":0}]", json);
+        assertNull(single.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
 }
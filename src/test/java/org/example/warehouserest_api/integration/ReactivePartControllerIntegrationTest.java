@@ -0,0 +1,131 @@
+package org.example.warehouserest_api.integration;
+
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.repository.PartRepository;
+import org.example.warehouserest_api.repository.PartTombstoneRepository;
+import org.example.warehouserest_api.repository.StockTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Integration tests for the ReactivePartController, running the reactive profile on Netty.
+// JPA and R2DBC share one in-memory database, so the test data is prepared through the JPA repositories.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+class ReactivePartControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private StockTotalRepository stockTotalRepository;
+
+    @Autowired
+    private PartTombstoneRepository partTombstoneRepository;
+
+    @BeforeEach
+    void setUp() {
+        partRepository.deleteAll();
+        stockTotalRepository.deleteAll();
+        partTombstoneRepository.deleteAll();
+    }
+
+    // Tests adding, changing and deleting a part, and the stock totals and tombstone written along the way.
+    @Test
+    void testPartLifecycle() {
+        // Arrange
+        PartId partId = new PartId("R1", "S1", "SUP1");
+
+        // Act
+        Part created = webTestClient.post().uri("/api/v1/parts").bodyValue(partId).exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody(Part.class).returnResult().getResponseBody();
+        Part increased = webTestClient.patch().uri("/api/v1/parts/R1/S1/SUP1/add?amount=5").exchange()
+                .expectStatus().isOk()
+                .expectBody(Part.class).returnResult().getResponseBody();
+        Part decreased = webTestClient.patch().uri("/api/v1/parts/R1/S1/SUP1/subtract?amount=5").exchange()
+                .expectStatus().isOk()
+                .expectBody(Part.class).returnResult().getResponseBody();
+        webTestClient.delete().uri("/api/v1/parts/R1/S1/SUP1").exchange()
+                .expectStatus().isNoContent();
+
+        // Assert
+        assertNotNull(created);
+        assertEquals(partId, created.getId());
+        assertNotNull(increased);
+        assertEquals(5, increased.getQuantity());
+        assertNotNull(decreased);
+        assertEquals(0, decreased.getQuantity());
+        assertTrue(partRepository.findKeyByPartId(partId).isEmpty());
+        assertEquals(1, partTombstoneRepository.count());
+        webTestClient.get().uri("/api/v1/parts/R1/S1/SUP1").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.status").isEqualTo(404);
+    }
+
+    // Tests that the error responses match the servlet API.
+    @Test
+    void testErrorResponses() {
+        // Arrange
+        partRepository.save(new Part(new PartId("R2", "S2", "SUP2"), 3));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/v1/parts/R9/S9/SUP9").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post().uri("/api/v1/parts").bodyValue(new PartId("R2", "S2", "SUP2")).exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.post().uri("/api/v1/parts").bodyValue(new PartId("", "S2", "SUP2")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.materialNumber").exists();
+        webTestClient.patch().uri("/api/v1/parts/R2/S2/SUP2/subtract?amount=4").exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.patch().uri("/api/v1/parts/R2/S2/SUP2/add?amount=1").header(HttpHeaders.IF_MATCH, "\"7\"").exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri("/api/v1/parts/R2/S2/SUP2").exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    // Tests streaming all parts in key order as a JSON array and as newline-delimited JSON.
+    @Test
+    void testGetAllParts_Streamed() {
+        // Arrange
+        webTestClient.get().uri("/api/v1/parts").exchange().expectStatus().isNotFound();
+        partRepository.save(new Part(new PartId("R4", "S1", "SUP1"), 1));
+        partRepository.save(new Part(new PartId("R3", "S1", "SUP1"), 2));
+
+        // Act
+        List<Part> array = webTestClient.get().uri("/api/v1/parts").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Part.class).returnResult().getResponseBody();
+        List<Part> ndjson = webTestClient.get().uri("/api/v1/parts").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Part.class).getResponseBody().collectList().block();
+
+        // Assert
+        assertNotNull(array);
+        assertEquals(List.of("R3", "R4"), array.stream().map(part -> part.getId().getMaterialNumber()).toList());
+        assertEquals(array.stream().map(Part::getQuantity).toList(), ndjson.stream().map(Part::getQuantity).toList());
+    }
+}
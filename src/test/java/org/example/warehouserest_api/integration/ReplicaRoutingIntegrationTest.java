@@ -0,0 +1,99 @@
+package org.example.warehouserest_api.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.warehouserest_api.datasource.ReplicaRoutingDataSource;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.repository.PartRepository;
+import org.example.warehouserest_api.web.ReadYourWritesFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpStatus.*;
+
+// Integration tests for the read replica routing. The replica is a second pool on the primary's in-memory
+// database, standing in for a streaming replica with no lag.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.http.client.factory=jdk",
+        "spring.datasource.url=jdbc:h2:mem:replicated;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "warehouse.replicas.enabled=true",
+        "warehouse.replicas.sources[0].url=jdbc:h2:mem:replicated;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        partRepository.deleteAll();
+        replicaDataSource.checkReplicas();
+    }
+
+    private double reads(String route) {
+        return meterRegistry.get("warehouse.datasource.reads").tag("route", route).functionCounter().count();
+    }
+
+    // Tests that reads go to the replica, except for a client that just wrote and sends back its pin cookie.
+    @Test
+    void testReads_ReplicaUnlessPinnedAfterWrite() {
+        // Arrange
+        ResponseEntity<Part> created = restTemplate.postForEntity("/api/v1/parts", new PartId("RR1", "S1", "SUP1"), Part.class);
+        String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        double replicaReads = reads("replica-1");
+        double primaryReads = reads("primary");
+
+        // Act
+        ResponseEntity<String> anonymous = restTemplate.getForEntity("/api/v1/parts/page", String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie.substring(0, cookie.indexOf(';')));
+        ResponseEntity<String> pinned = restTemplate.exchange("/api/v1/parts/page", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // Assert
+        assertEquals(CREATED, created.getStatusCode());
+        assertNotNull(cookie);
+        assertTrue(cookie.startsWith(ReadYourWritesFilter.COOKIE + "="));
+        assertEquals(OK, anonymous.getStatusCode());
+        assertEquals(OK, pinned.getStatusCode());
+        assertEquals(replicaReads + 1, reads("replica-1"));
+        assertEquals(primaryReads + 1, reads("primary"));
+    }
+
+    // Tests that the stored responses of idempotency keys are looked up on the primary, even without a pin.
+    @Test
+    void testIdempotencyKeyLookups_UsePrimary() {
+        // Arrange
+        restTemplate.postForEntity("/api/v1/parts", new PartId("RR2", "S1", "SUP1"), Part.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Idempotency-Key", "replica-routing-1");
+        double replicaReads = reads("replica-1");
+
+        // Act
+        ResponseEntity<Part> response = restTemplate.exchange("/api/v1/parts/RR2/S1/SUP1/add?amount=2", HttpMethod.PATCH,
+                new HttpEntity<>(headers), Part.class);
+
+        // Assert
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(replicaReads, reads("replica-1"));
+    }
+}
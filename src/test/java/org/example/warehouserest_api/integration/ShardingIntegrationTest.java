@@ -0,0 +1,174 @@
+package org.example.warehouserest_api.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.warehouserest_api.datasource.ShardContext;
+import org.example.warehouserest_api.datasource.ShardRoutingDataSource;
+import org.example.warehouserest_api.dto.BucketMove;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.service.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpStatus.*;
+
+// Integration tests for the sharding of parts by supplier, with two in-memory databases as shards.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.http.client.factory=jdk",
+        "spring.datasource.url=jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "warehouse.sharding.enabled=true",
+        "warehouse.sharding.shards[0].url=jdbc:h2:mem:shard1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "warehouse.sharding.buckets=8",
+        "warehouse.sharding.map-refresh-interval=50ms",
+        "warehouse.sharding.move-wait=50ms",
+        "warehouse.sharding.move-batch-size=2"
+})
+class ShardingIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private ShardDirectory directory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(shards);
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            ShardContext.run(shard, () -> {
+                jdbcTemplate.update("DELETE FROM parts");
+                jdbcTemplate.update("DELETE FROM stock_totals");
+            });
+        }
+    }
+
+    // Returns a supplier number whose parts are kept on the given shard
+    private String supplierOnShard(int shard, String exclude) {
+        for (int i = 0; ; i++) {
+            String supplierNumber = "SUP" + i;
+            if (directory.shardOf(supplierNumber) == shard && !supplierNumber.equals(exclude)) {
+                return supplierNumber;
+            }
+        }
+    }
+
+    private long rowsOnShard(int shard, String supplierNumber) {
+        return ShardContext.call(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM parts WHERE supplier_number = ?", Long.class, supplierNumber));
+    }
+
+    // Tests that parts are stored on the shard of their supplier and that listings merge all shards in key order.
+    @Test
+    void testParts_StoredBySupplierAndMerged() throws Exception {
+        // Arrange
+        String home = supplierOnShard(0, null);
+        String other = supplierOnShard(1, null);
+        String[][] parts = {{"M3", home}, {"M1", other}, {"M2", home}, {"M4", other}, {"M1", home}};
+        for (String[] part : parts) {
+            restTemplate.postForEntity("/api/v1/parts", new PartId(part[0], "S1", part[1]), Part.class);
+        }
+
+        // Act
+        JsonNode all = objectMapper.readTree(restTemplate.getForEntity("/api/v1/parts", String.class).getBody());
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/v1/parts/page?limit=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            JsonNode page = objectMapper.readTree(restTemplate.getForEntity(url, String.class).getBody());
+            page.get("items").forEach(item -> paged.add(item.get("id").get("materialNumber").asText() + "/" + item.get("id").get("supplierNumber").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        ResponseEntity<String> material = restTemplate.getForEntity("/api/v1/stock/materials/M1", String.class);
+
+        // Assert
+        assertEquals(3, rowsOnShard(0, home));
+        assertEquals(0, rowsOnShard(1, home));
+        assertEquals(2, rowsOnShard(1, other));
+        List<String> listed = new ArrayList<>();
+        all.forEach(item -> listed.add(item.get("id").get("materialNumber").asText() + "/" + item.get("id").get("supplierNumber").asText()));
+        List<String> expected = new ArrayList<>(List.of("M1/" + home, "M1/" + other, "M2/" + home, "M3/" + home, "M4/" + other));
+        expected.sort(null);
+        assertEquals(expected, listed);
+        assertEquals(expected, paged);
+        assertEquals(OK, material.getStatusCode());
+        assertEquals(2, objectMapper.readTree(material.getBody()).get("parts").asLong());
+    }
+
+    // Tests that an atomic batch touching several shards is rejected without changing anything.
+    @Test
+    void testAdjustQuantities_AllOrNothingAcrossShardsRejected() {
+        // Arrange
+        String home = supplierOnShard(0, null);
+        String other = supplierOnShard(1, null);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("B1", "S1", home), Part.class);
+        restTemplate.postForEntity("/api/v1/parts", new PartId("B2", "S1", other), Part.class);
+        Map<String, Object> batch = Map.of("mode", "ALL_OR_NOTHING", "operations", List.of(
+                Map.of("id", Map.of("materialNumber", "B1", "serialNumber", "S1", "supplierNumber", home), "delta", 5),
+                Map.of("id", Map.of("materialNumber", "B2", "serialNumber", "S1", "supplierNumber", other), "delta", 5)));
+
+        // Act
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/parts/adjustments", batch, String.class);
+        ResponseEntity<Part> part = restTemplate.getForEntity("/api/v1/parts/B1/S1/" + home, Part.class);
+
+        // Assert
+        assertEquals(UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(0, part.getBody().getQuantity());
+    }
+
+    // Tests that moving a bucket to another shard keeps the parts, their versions and their stock totals.
+    @Test
+    void testMoveBucket_KeepsParts() {
+        // Arrange
+        String supplierNumber = supplierOnShard(0, null);
+        int bucket = directory.bucketOf(supplierNumber);
+        for (String material : List.of("MV1", "MV2", "MV3")) {
+            restTemplate.postForEntity("/api/v1/parts", new PartId(material, "S1", supplierNumber), Part.class);
+        }
+        restTemplate.exchange("/api/v1/parts/MV2/S1/" + supplierNumber + "/add?amount=7", HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        String eTag = restTemplate.getForEntity("/api/v1/parts/MV2/S1/" + supplierNumber, Part.class).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<BucketMove> move = restTemplate.postForEntity(
+                "/api/v1/admin/shards/buckets/" + bucket + "/move?target=shard-1", null, BucketMove.class);
+        ResponseEntity<Part> moved = restTemplate.getForEntity("/api/v1/parts/MV2/S1/" + supplierNumber, Part.class);
+        ResponseEntity<Part> increased = restTemplate.exchange("/api/v1/parts/MV2/S1/" + supplierNumber + "/add?amount=1",
+                HttpMethod.PATCH, HttpEntity.EMPTY, Part.class);
+        ResponseEntity<String> total = restTemplate.getForEntity("/api/v1/stock/suppliers/" + supplierNumber, String.class);
+
+        // Assert
+        assertEquals(OK, move.getStatusCode());
+        assertEquals(3, move.getBody().getParts());
+        assertEquals(1, directory.shardOf(supplierNumber));
+        assertEquals(0, rowsOnShard(0, supplierNumber));
+        assertEquals(3, rowsOnShard(1, supplierNumber));
+        assertEquals(7, moved.getBody().getQuantity());
+        assertEquals(eTag, moved.getHeaders().getETag());
+        assertEquals(8, increased.getBody().getQuantity());
+        assertTrue(total.getBody().contains("\"quantity\":8"));
+        assertTrue(total.getBody().contains("\"parts\":3"));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.warehouserest_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.warehouserest_api.config.RetryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit tests for the ConflictRetryAspect class
+class ConflictRetryAspectTest {
+
+    // Target whose write fails with a conflict a given number of times before it succeeds
+    static class Writer {
+        final AtomicInteger calls = new AtomicInteger();
+        int conflicts;
+
+        @RetryOnConflict
+        public String write() {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return "written";
+        }
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RetryProperties properties = new RetryProperties();
+
+    private Writer target;
+
+    private Writer proxy;
+
+    @BeforeEach
+    void setUp() {
+        properties.setDefaults(new RetryProperties.Policy(3, Duration.ofMillis(1), Duration.ofMillis(2), 2.0));
+        target = new Writer();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ConflictRetryAspect(properties, meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    // Tests that a conflict which clears up is retried and counted.
+    @Test
+    void testRetry_SucceedsAfterConflicts() {
+        // Arrange
+        target.conflicts = 2;
+
+        // Act
+        String result = proxy.write();
+
+        // Assert
+        assertEquals("written", result);
+        assertEquals(3, target.calls.get());
+        assertEquals(2, meterRegistry.counter("warehouse.retry.retries", "operation", "write").count());
+        assertEquals(0, meterRegistry.counter("warehouse.retry.exhausted", "operation", "write").count());
+    }
+
+    // Tests that a persistent conflict is rethrown after the attempts of the operation's own policy.
+    @Test
+    void testRetry_GivesUpAfterMaxAttempts() {
+        // Arrange
+        target.conflicts = Integer.MAX_VALUE;
+        RetryProperties.Policy own = new RetryProperties.Policy();
+        own.setMaxAttempts(5);
+        properties.getOperations().put("write", own);
+
+        // Act
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.write());
+
+        // Assert
+        assertEquals(5, target.calls.get());
+        assertEquals(4, meterRegistry.counter("warehouse.retry.retries", "operation", "write").count());
+        assertEquals(1, meterRegistry.counter("warehouse.retry.exhausted", "operation", "write").count());
+    }
+
+    // Tests that the random backoff stays within the exponential bound and the cap.
+    @Test
+    void testBackoff_BoundedByCap() {
+        // Arrange
+        RetryProperties.Policy policy = new RetryProperties.Policy(10, Duration.ofMillis(10), Duration.ofMillis(50), 2.0);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ConflictRetryAspect.backoffMillis(policy, 1) <= 10);
+            assertTrue(ConflictRetryAspect.backoffMillis(policy, 8) <= 50);
+        }
+    }
+}
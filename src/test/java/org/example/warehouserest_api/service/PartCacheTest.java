@@ -0,0 +1,58 @@
+package org.example.warehouserest_api.service;
+
+import org.example.warehouserest_api.config.PartCacheProperties;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit tests for the PartCache class; outside a transaction, after-commit actions run right away
+class PartCacheTest {
+
+    private static final PartId ID = new PartId("M1", "S1", "SUP1");
+
+    private final PartCache cache = new PartCache(new PartCacheProperties());
+
+    private static Part part(int quantity, long version) {
+        Part part = new Part(ID, quantity);
+        part.setKey(1L);
+        part.setVersion(version);
+        return part;
+    }
+
+    // Tests that a row read before a delete committed is not cached over the delete.
+    @Test
+    void testPut_ReadBeforeEvictIsRefused() {
+        // Arrange
+        cache.put(part(5, 2), cache.readStamp());
+        long stamp = cache.readStamp();
+
+        // Act
+        cache.evict(ID);
+        cache.put(part(5, 2), stamp);
+        Part afterLateLoad = cache.get(ID);
+        cache.put(part(5, 2), cache.readStamp());
+        Part afterFreshLoad = cache.get(ID);
+
+        // Assert
+        assertNull(afterLateLoad);
+        assertNotNull(afterFreshLoad);
+    }
+
+    // Tests that an import fences every part it changed.
+    @Test
+    void testPut_ReadBeforeEvictAllIsRefused() {
+        // Arrange
+        long stamp = cache.readStamp();
+
+        // Act
+        cache.evictAll(List.of(ID));
+        cache.put(part(5, 2), stamp);
+
+        // Assert
+        assertNull(cache.get(ID));
+    }
+}
@@ -1,7 +1,10 @@
 package org.example.warehouserest_api.service;
 
+import org.example.warehouserest_api.dto.BatchAdjustmentRequest;
+import org.example.warehouserest_api.dto.BatchAdjustmentResponse;
 import org.example.warehouserest_api.model.Part;
 import org.example.warehouserest_api.model.PartId;
+import org.example.warehouserest_api.model.QuantityAdjustment;
 import org.example.warehouserest_api.repository.PartRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +28,22 @@ class PartServiceTest {
     @Mock
     private PartRepository partRepository;
 
+    // Mock cache; unstubbed lookups are misses
+    @Mock
+    private PartCache partCache;
+
+    // Mock key dictionary translating business identifiers into surrogate keys
+    @Mock
+    private PartKeyDictionary partKeys;
+
+    // Mock stock totals; recorded changes are only verified
+    @Mock
+    private StockTotalService stockTotals;
+
+    // Mock change stream; events are published after commit, which these tests do not cover
+    @Mock
+    private PartChangeStream changeStream;
+
     // Inject mocks into the service being tested
     @InjectMocks
     private PartService partService;
@@ -33,15 +53,18 @@ class PartServiceTest {
     void testAddPart_Success() {
         // Arrange
         PartId id = new PartId("M1", "S1", "SUP1");
-        when(partRepository.existsById(id)).thenReturn(false);
+        when(partKeys.refresh(id)).thenReturn(null);
         Part savedPart = new Part(id, 0);
+        savedPart.setKey(1L);
         when(partRepository.save(any(Part.class))).thenReturn(savedPart);
 
         // Act
         Part result = partService.addPart("M1", "S1", "SUP1");
 
         // Verify repository interactions
-        verify(partRepository).existsById(id);
+        verify(partKeys).refresh(id);
+        verify(partKeys).register(id, 1L);
+        verify(stockTotals).record(any(StockChanges.class));
         ArgumentCaptor<Part> partCaptor = ArgumentCaptor.forClass(Part.class);
         verify(partRepository).save(partCaptor.capture());
         Part toSave = partCaptor.getValue();
@@ -59,7 +82,7 @@ class PartServiceTest {
     void testAddPart_AlreadyExists() {
         // Arrange
         PartId id = new PartId("M1", "S1", "SUP1");
-        when(partRepository.existsById(id)).thenReturn(true);
+        when(partKeys.refresh(id)).thenReturn(1L);
 
         // Act
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
@@ -76,35 +99,66 @@ class PartServiceTest {
     void testIncreaseQuantity_Success() {
         // Arrange
         PartId id = new PartId("M2", "S2", "SUP2");
-        Part existing = new Part(id, 5);
-        when(partRepository.findById(id)).thenReturn(Optional.of(existing));
-        // Simulate save by returning the provided argument
-        when(partRepository.save(any(Part.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partKeys.resolve(id)).thenReturn(2L);
+        when(partRepository.adjustQuantity(2L, id, 3)).thenReturn(Optional.of(new Part(id, 8)));
 
         // Act
         Part result = partService.increaseQuantity("M2", "S2", "SUP2", 3);
 
-        // Assert
-        verify(partRepository).findById(id);
-        verify(partRepository).save(any(Part.class));
+        // Assert - a single conditional update by surrogate key, no read-modify-write
+        verify(partRepository).adjustQuantity(2L, id, 3);
+        verify(partRepository, never()).findById(anyLong());
+        verify(partRepository, never()).save(any(Part.class));
         assertEquals(8, result.getQuantity());
     }
 
+    // Tests increasing the quantity of a part that does not exist.
+    @Test
+    void testIncreaseQuantity_NotFound() {
+        // Arrange
+        PartId id = new PartId("M2", "S2", "SUP2");
+        when(partKeys.resolve(id)).thenReturn(null);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                partService.increaseQuantity("M2", "S2", "SUP2", 3)
+        );
+
+        // Assert
+        assertEquals(404, exception.getStatusCode().value());
+    }
+
+    // Tests increasing the quantity by a non-positive amount.
+    @Test
+    void testIncreaseQuantity_InvalidAmount() {
+        // Arrange
+        PartId id = new PartId("M2", "S2", "SUP2");
+        when(partKeys.resolve(id)).thenReturn(2L);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                partService.increaseQuantity("M2", "S2", "SUP2", 0)
+        );
+
+        // Assert
+        assertEquals(400, exception.getStatusCode().value());
+        verify(partRepository, never()).adjustQuantity(anyLong(), any(PartId.class), anyInt());
+    }
+
     // Tests successful quantity decrease for a part.
     @Test
     void testDecreaseQuantity_Success() {
         // Arrange
         PartId id = new PartId("M3", "S3", "SUP3");
-        Part existing = new Part(id, 10);
-        when(partRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(partRepository.save(any(Part.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partKeys.resolve(id)).thenReturn(3L);
+        when(partRepository.adjustQuantity(3L, id, -4)).thenReturn(Optional.of(new Part(id, 6)));
 
         // Act
         Part result = partService.decreaseQuantity("M3", "S3", "SUP3", 4);
 
         //Assert
-        verify(partRepository).findById(id);
-        verify(partRepository).save(any(Part.class));
+        verify(partRepository).adjustQuantity(3L, id, -4);
+        verify(partRepository, never()).save(any(Part.class));
         assertEquals(6, result.getQuantity());
     }
 
@@ -114,8 +168,11 @@ class PartServiceTest {
         // Arrange
         PartId id = new PartId("M3", "S3", "SUP3");
         Part existing = new Part(id, 2);
+        when(partKeys.resolve(id)).thenReturn(3L);
+        when(partKeys.refresh(id)).thenReturn(3L);
+        when(partRepository.adjustQuantity(3L, id, -5)).thenReturn(Optional.empty());
+        when(partRepository.findById(3L)).thenReturn(Optional.of(existing));
 
-        when(partRepository.findById(id)).thenReturn(Optional.of(existing));
         // Act
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
                 partService.decreaseQuantity("M3", "S3", "SUP3", 5)
@@ -128,13 +185,52 @@ class PartServiceTest {
         verify(partRepository, never()).save(any(Part.class));
     }
 
+    // Tests a conditional decrease against a part that was modified in the meantime.
+    @Test
+    void testDecreaseQuantity_VersionMismatch() {
+        // Arrange
+        PartId id = new PartId("M3", "S3", "SUP3");
+        Part existing = new Part(id, 10);
+        existing.setVersion(4L);
+        when(partKeys.resolve(id)).thenReturn(3L);
+        when(partKeys.refresh(id)).thenReturn(3L);
+        when(partRepository.adjustQuantityIfVersion(3L, id, -2, 3L)).thenReturn(Optional.empty());
+        when(partRepository.findById(3L)).thenReturn(Optional.of(existing));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                partService.decreaseQuantity("M3", "S3", "SUP3", 2, 3L)
+        );
+
+        // Assert - the version condition failed, not the quantity check
+        assertEquals(412, exception.getStatusCode().value());
+        verify(partRepository, never()).adjustQuantity(anyLong(), any(PartId.class), anyInt());
+    }
+
+    // Tests decreasing the quantity of a part that does not exist.
+    @Test
+    void testDecreaseQuantity_NotFound() {
+        // Arrange
+        PartId id = new PartId("M3", "S3", "SUP3");
+        when(partKeys.resolve(id)).thenReturn(null);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                partService.decreaseQuantity("M3", "S3", "SUP3", 5)
+        );
+
+        // Assert
+        assertEquals(404, exception.getStatusCode().value());
+    }
+
     // Tests successful deletion of a part with zero quantity.
     @Test
     void testDeletePart_Success() {
         // Arrange
         PartId id = new PartId("X1", "Y1", "Z1");
         Part existing = new Part(id, 0);
-        when(partRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(partKeys.resolve(id)).thenReturn(4L);
+        when(partRepository.findById(4L)).thenReturn(Optional.of(existing));
         doNothing().when(partRepository).delete(existing);
 
         // Act
@@ -142,6 +238,7 @@ class PartServiceTest {
 
         // Assert
         verify(partRepository).delete(existing);
+        verify(partKeys).forget(id);
     }
 
     // Tests deleting a part with non-zero quantity.
@@ -150,7 +247,8 @@ class PartServiceTest {
         // Arrange
         PartId id = new PartId("X2", "Y2", "Z2");
         Part existing = new Part(id, 5);
-        when(partRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(partKeys.resolve(id)).thenReturn(5L);
+        when(partRepository.findById(5L)).thenReturn(Optional.of(existing));
 
         // Act & Assert
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
@@ -161,4 +259,185 @@ class PartServiceTest {
         assertEquals(409, exception.getStatusCode().value());
         verify(partRepository, never()).delete(any(Part.class));
     }
+
+    // Tests that a cached part is returned without a database lookup.
+    @Test
+    void testGetPartById_CacheHit() {
+        // Arrange
+        PartId id = new PartId("C1", "S1", "SUP1");
+        when(partCache.get(id)).thenReturn(new Part(id, 7));
+
+        // Act
+        Part result = partService.getPartById("C1", "S1", "SUP1");
+
+        // Assert
+        assertEquals(7, result.getQuantity());
+        verifyNoInteractions(partRepository);
+    }
+
+    // Tests that the committed read goes to the database without consulting the cache.
+    @Test
+    void testGetCommittedPart_BypassesCache() {
+        // Arrange
+        PartId id = new PartId("C1", "S1", "SUP1");
+        when(partKeys.resolve(id)).thenReturn(1L);
+        when(partRepository.findById(1L)).thenReturn(Optional.of(new Part(id, 4)));
+
+        // Act
+        Part result = partService.getCommittedPart("C1", "S1", "SUP1");
+
+        // Assert
+        assertEquals(4, result.getQuantity());
+        verify(partCache, never()).get(id);
+    }
+
+    // Tests that a cache miss loads the part and caches it.
+    @Test
+    void testGetPartById_CacheMiss() {
+        // Arrange
+        PartId id = new PartId("C1", "S1", "SUP1");
+        Part stored = new Part(id, 7);
+        when(partKeys.resolve(id)).thenReturn(6L);
+        when(partRepository.findById(6L)).thenReturn(Optional.of(stored));
+
+        // Act
+        Part result = partService.getPartById("C1", "S1", "SUP1");
+
+        // Assert
+        assertEquals(7, result.getQuantity());
+        verify(partCache).put(eq(stored), anyLong());
+    }
+
+    // Tests that in version-checked mode an outdated cached part is reloaded.
+    @Test
+    void testGetPartById_VersionCheckedStaleEntry() {
+        // Arrange
+        PartId id = new PartId("C1", "S1", "SUP1");
+        Part cached = new Part(id, 7);
+        cached.setKey(6L);
+        cached.setVersion(1L);
+        Part stored = new Part(id, 9);
+        stored.setVersion(2L);
+        when(partCache.get(id)).thenReturn(cached);
+        when(partCache.isVersionChecked()).thenReturn(true);
+        when(partRepository.findVersionByKey(6L)).thenReturn(Optional.of(2L));
+        when(partKeys.resolve(id)).thenReturn(6L);
+        when(partRepository.findById(6L)).thenReturn(Optional.of(stored));
+
+        // Act
+        Part result = partService.getPartById("C1", "S1", "SUP1");
+
+        // Assert
+        assertEquals(9, result.getQuantity());
+        verify(partCache).evictStale(id);
+    }
+
+    // Tests that a quantity change updates the cache.
+    @Test
+    void testIncreaseQuantity_UpdatesCache() {
+        // Arrange
+        PartId id = new PartId("C2", "S2", "SUP2");
+        Part updated = new Part(id, 4);
+        when(partKeys.resolve(id)).thenReturn(7L);
+        when(partRepository.adjustQuantity(7L, id, 4)).thenReturn(Optional.of(updated));
+
+        // Act
+        partService.increaseQuantity("C2", "S2", "SUP2", 4);
+
+        // Assert
+        verify(partCache).update(updated);
+    }
+
+    // Tests that a remembered key now used by another part (for example after a bucket move) is looked up again.
+    @Test
+    void testGetCommittedPart_KeyOfAnotherPartIsRefreshed() {
+        // Arrange
+        PartId id = new PartId("M1", "S1", "SUP1");
+        Part other = new Part(new PartId("M9", "S9", "SUP9"), 7);
+        Part stored = new Part(id, 3);
+        when(partKeys.resolve(id)).thenReturn(2L);
+        when(partKeys.refresh(id)).thenReturn(8L);
+        when(partRepository.findById(2L)).thenReturn(Optional.of(other));
+        when(partRepository.findById(8L)).thenReturn(Optional.of(stored));
+
+        // Act
+        Part result = partService.getCommittedPart("M1", "S1", "SUP1");
+
+        // Assert
+        assertSame(stored, result);
+    }
+
+    // Tests that a batch sends its updates in surrogate key order, the order in which transfers lock rows.
+    @Test
+    void testAdjustQuantities_UpdatesInKeyOrder() {
+        // Arrange
+        PartId first = new PartId("A1", "S1", "SUP1");
+        PartId second = new PartId("b1", "S1", "SUP1");
+        when(partKeys.resolve(first)).thenReturn(9L);
+        when(partKeys.resolve(second)).thenReturn(4L);
+        when(partRepository.adjustQuantities(new long[]{4L, 9L}, new PartId[]{second, first}, new int[]{-1, 2})).thenReturn(new int[]{1, 1});
+        Part storedFirst = new Part(first, 2);
+        storedFirst.setKey(9L);
+        Part storedSecond = new Part(second, 0);
+        storedSecond.setKey(4L);
+        when(partRepository.findAllById(anySet())).thenReturn(List.of(storedFirst, storedSecond));
+
+        // Act
+        BatchAdjustmentResponse response = partService.adjustQuantities(BatchAdjustmentRequest.Mode.ALL_OR_NOTHING,
+                List.of(new QuantityAdjustment(first, 2), new QuantityAdjustment(second, -1)));
+
+        // Assert
+        assertEquals(2, response.getApplied());
+        assertEquals(2, response.getResults().get(0).getQuantity());
+        assertEquals(0, response.getResults().get(1).getQuantity());
+    }
+
+    // Tests that a transfer locks its parts in composite ID order and applies the net changes in one batch.
+    @Test
+    void testTransferStock_Success() {
+        // Arrange
+        PartId source = new PartId("M2", "S1", "SUP1");
+        PartId target = new PartId("M1", "S1", "SUP1");
+        Part lockedTarget = new Part(target, 1);
+        lockedTarget.setKey(1L);
+        lockedTarget.setVersion(3L);
+        Part lockedSource = new Part(source, 10);
+        lockedSource.setKey(2L);
+        lockedSource.setVersion(5L);
+        when(partRepository.lockParts(List.of(target, source))).thenReturn(List.of(lockedTarget, lockedSource));
+        when(partRepository.adjustQuantities(new long[]{1L, 2L}, new PartId[]{target, source}, new int[]{4, -4})).thenReturn(new int[]{1, 1});
+
+        // Act
+        List<Part> result = partService.transferStock(List.of(
+                new QuantityAdjustment(source, -6), new QuantityAdjustment(target, 4), new QuantityAdjustment(source, 2)));
+
+        // Assert
+        assertEquals(List.of(target, source), result.stream().map(Part::getId).toList());
+        assertEquals(5, result.get(0).getQuantity());
+        assertEquals(6, result.get(1).getQuantity());
+        assertEquals(6L, result.get(1).getVersion());
+        verify(partCache).update(lockedSource);
+    }
+
+    // Tests that a transfer leaving any part below zero is rejected before anything is written.
+    @Test
+    void testTransferStock_Insufficient() {
+        // Arrange
+        PartId source = new PartId("M1", "S1", "SUP1");
+        PartId target = new PartId("M2", "S1", "SUP1");
+        Part lockedSource = new Part(source, 3);
+        lockedSource.setKey(1L);
+        Part lockedTarget = new Part(target, 0);
+        lockedTarget.setKey(2L);
+        when(partRepository.lockParts(List.of(source, target))).thenReturn(List.of(lockedSource, lockedTarget));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                partService.transferStock(List.of(new QuantityAdjustment(source, -5), new QuantityAdjustment(target, 5))));
+
+        // Assert
+        assertEquals(409, exception.getStatusCode().value());
+        verify(partRepository, never()).adjustQuantities(any(long[].class), any(PartId[].class), any(int[].class));
+        verifyNoInteractions(stockTotals);
+    }
 }
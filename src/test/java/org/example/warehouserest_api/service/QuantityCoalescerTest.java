@@ -0,0 +1,214 @@
+package org.example.warehouserest_api.service;
+
+import org.example.warehouserest_api.config.CoalescingProperties;
+import org.example.warehouserest_api.model.Part;
+import org.example.warehouserest_api.model.PartId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Unit tests for the QuantityCoalescer class
+@ExtendWith(MockitoExtension.class)
+class QuantityCoalescerTest {
+
+    private static final PartId ID = new PartId("M1", "S1", "SUP1");
+
+    // Mock service standing in for the database
+    @Mock
+    private PartService partService;
+
+    private QuantityCoalescer coalescer;
+
+    // Quantity "stored in the database" by the mocked applyDelta
+    private final AtomicInteger stored = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofMillis(2));
+        properties.setMaxDelay(Duration.ofMillis(20));
+        coalescer = new QuantityCoalescer(partService, properties);
+        coalescer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    // Simulates the conditional UPDATEs of PartService.applyDelta and the direct decreaseQuantity
+    private void stubDatabase(int initialQuantity) {
+        stored.set(initialQuantity);
+        when(partService.getCommittedPart("M1", "S1", "SUP1")).thenAnswer(invocation -> new Part(ID, stored.get()));
+        lenient().when(partService.applyDelta(eq(ID), anyInt())).thenAnswer(invocation -> {
+            int delta = invocation.getArgument(1);
+            synchronized (stored) {
+                int current = stored.get();
+                if (current + delta < 0) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Quantity would go negative");
+                }
+                stored.set(current + delta);
+                return new Part(ID, current + delta);
+            }
+        });
+        lenient().when(partService.decreaseQuantity(eq("M1"), eq("S1"), eq("SUP1"), anyInt())).thenAnswer(invocation -> {
+            int amount = invocation.getArgument(3);
+            synchronized (stored) {
+                if (stored.get() < amount) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Quantity would go negative");
+                }
+                return new Part(ID, stored.addAndGet(-amount));
+            }
+        });
+    }
+
+    // Tests that concurrent increases are all applied, with fewer writes than requests.
+    @Test
+    void testIncreaseQuantity_ConcurrentDeltasAreMerged() throws Exception {
+        // Arrange
+        stubDatabase(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Part>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            results.add(executor.submit(() -> coalescer.increaseQuantity("M1", "S1", "SUP1", 1)));
+        }
+        for (Future<Part> result : results) {
+            assertNotNull(result.get());
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(400, stored.get());
+        verify(partService, atMost(399)).applyDelta(eq(ID), anyInt());
+        verify(partService, never()).increaseQuantity(anyString(), anyString(), anyString(), anyInt());
+    }
+
+    // Tests that a decrease larger than the quantity goes to the database, which rejects it.
+    @Test
+    void testDecreaseQuantity_AboveQuantityRejectedByDatabase() {
+        // Arrange
+        stubDatabase(3);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                coalescer.decreaseQuantity("M1", "S1", "SUP1", 4)
+        );
+
+        // Assert
+        assertEquals(409, exception.getStatusCode().value());
+        assertEquals(3, stored.get());
+        verify(partService, never()).applyDelta(eq(ID), anyInt());
+    }
+
+    // Tests that a decrease covered only by an increase made outside the coalescer succeeds.
+    @Test
+    void testDecreaseQuantity_AfterIncreaseElsewhere() {
+        // Arrange
+        stubDatabase(0);
+        when(partService.increaseQuantity("M1", "S1", "SUP1", 5)).thenAnswer(invocation -> new Part(ID, stored.addAndGet(5)));
+        coalescer.increaseQuantity("M1", "S1", "SUP1", 1);
+        partService.increaseQuantity("M1", "S1", "SUP1", 5);
+
+        // Act
+        Part result = coalescer.decreaseQuantity("M1", "S1", "SUP1", 4);
+
+        // Assert
+        assertEquals(2, result.getQuantity());
+        assertEquals(2, stored.get());
+    }
+
+    // Tests that increases and decreases are applied and the returned quantity is the written one.
+    @Test
+    void testDecreaseQuantity_AfterIncrease() {
+        // Arrange
+        stubDatabase(3);
+
+        // Act
+        coalescer.increaseQuantity("M1", "S1", "SUP1", 2);
+        Part result = coalescer.decreaseQuantity("M1", "S1", "SUP1", 5);
+
+        // Assert
+        assertEquals(0, result.getQuantity());
+        assertEquals(0, stored.get());
+    }
+
+    // Tests that a decrease is rejected when the database was lowered outside the coalescer.
+    @Test
+    void testDecreaseQuantity_DatabaseChangedElsewhere() {
+        // Arrange
+        stubDatabase(5);
+        coalescer.increaseQuantity("M1", "S1", "SUP1", 1);
+        stored.set(0);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                coalescer.decreaseQuantity("M1", "S1", "SUP1", 4)
+        );
+
+        // Assert - the database never goes negative and the local balance follows it again
+        assertEquals(409, exception.getStatusCode().value());
+        assertEquals(0, stored.get());
+        assertThrows(ResponseStatusException.class, () -> coalescer.decreaseQuantity("M1", "S1", "SUP1", 1));
+    }
+
+    // Tests that parts without requests for the idle timeout are no longer tracked.
+    @Test
+    void testTrackedParts_IdlePartsExpire() throws InterruptedException {
+        // Arrange
+        stubDatabase(0);
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setEnabled(true);
+        properties.setIdleTimeout(Duration.ofMillis(20));
+        QuantityCoalescer idleCoalescer = new QuantityCoalescer(partService, properties);
+        idleCoalescer.start();
+        idleCoalescer.increaseQuantity("M1", "S1", "SUP1", 1);
+        int trackedAfterUse = idleCoalescer.getTrackedParts();
+
+        // Act
+        Thread.sleep(100);
+        int trackedWhenIdle = idleCoalescer.getTrackedParts();
+        idleCoalescer.stop();
+
+        // Assert
+        assertEquals(1, trackedAfterUse);
+        assertEquals(0, trackedWhenIdle);
+    }
+
+    // Tests that invalid amounts go through the direct path.
+    @Test
+    void testIncreaseQuantity_InvalidAmountUsesDirectPath() {
+        // Arrange
+        when(partService.increaseQuantity("M1", "S1", "SUP1", 0))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid"));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+                coalescer.increaseQuantity("M1", "S1", "SUP1", 0)
+        );
+
+        // Assert
+        assertEquals(400, exception.getStatusCode().value());
+        assertEquals(0, coalescer.getTrackedParts());
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.warehouserest_api.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit tests for the ConcurrencyLimitFilter and AdaptiveConcurrencyLimit classes
+class ConcurrencyLimitFilterTest {
+
+    // Tests that a mutation over the write budget is rejected at once while reads still pass.
+    @Test
+    void testDoFilter_RejectsOverWriteBudget() throws Exception {
+        // Arrange
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setWrites(new ConcurrencyLimitProperties.Budget(1, 1, 1));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("PATCH", "/api/v1/parts/M1/S1/SUP1/add"), new MockHttpServletResponse(), (request, response) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/parts"), write, new MockFilterChain());
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), read, new MockFilterChain());
+        MockHttpServletResponse bulkImport = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/parts/import"), bulkImport, new MockFilterChain());
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/parts"), after, new MockFilterChain());
+
+        // Assert
+        assertEquals(503, write.getStatus());
+        assertEquals("1", write.getHeader("Retry-After"));
+        assertEquals(200, read.getStatus());
+        assertEquals(200, bulkImport.getStatus());
+        assertEquals(200, after.getStatus());
+    }
+
+    // Tests that the limit grows while latency stays at its baseline and shrinks once requests slow down.
+    @Test
+    void testLimit_FollowsLatency() {
+        // Arrange
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setWindow(Duration.ofMillis(100));
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new ConcurrencyLimitProperties.Budget(10, 2, 100), properties, 0);
+        long now = 0;
+
+        // Act
+        for (int window = 0; window < 10; window++) {
+            now = runWindow(limit, now, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int grown = limit.getLimit();
+        for (int window = 0; window < 10; window++) {
+            now = runWindow(limit, now, TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        int shrunk = limit.getLimit();
+
+        // Assert
+        assertTrue(grown > 10, "limit grew to " + grown);
+        assertTrue(shrunk < grown / 2, "limit shrank to " + shrunk);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    // Tests that a streamed response frees its slot when the handler returns.
+    @Test
+    void testDoFilter_StreamedResponseFreesSlot() throws Exception {
+        // Arrange
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setReads(new ConcurrencyLimitProperties.Budget(1, 1, 1));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        MockHttpServletRequest streamed = new MockHttpServletRequest("GET", "/api/v1/parts/export");
+        streamed.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(streamed, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), after, new MockFilterChain());
+
+        // Assert
+        assertTrue(streamed.isAsyncStarted());
+        assertEquals(200, after.getStatus());
+    }
+
+    // Tests that unmeasured releases do not pull the baseline down, so the limit keeps growing at the same latency.
+    @Test
+    void testLimit_UnmeasuredReleasesKeepBaseline() {
+        // Arrange
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setWindow(Duration.ofMillis(100));
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new ConcurrencyLimitProperties.Budget(10, 2, 100), properties, 0);
+        long now = runWindow(limit, 0, TimeUnit.MILLISECONDS.toNanos(50));
+        int before = limit.getLimit();
+
+        // Act
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < AdaptiveConcurrencyLimit.MIN_SAMPLES * 10; i++) {
+                assertTrue(limit.tryAcquire());
+                limit.releaseUnmeasured();
+            }
+            now = runWindow(limit, now, TimeUnit.MILLISECONDS.toNanos(50));
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() > before, "limit went from " + before + " to " + limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    // Fills the limit, rejects one more request and completes the others with the given latency in one window
+    private long runWindow(AdaptiveConcurrencyLimit limit, long start, long latencyNanos) {
+        int slots = limit.getLimit();
+        for (int i = 0; i < slots; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+        long end = start + TimeUnit.MILLISECONDS.toNanos(100);
+        for (int i = 0; i < slots; i++) {
+            limit.release(latencyNanos, end);
+        }
+        return end;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.warehouserest_api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.warehouserest_api.config.DatabaseGuardProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit tests for the DatabaseGuardFilter class
+class DatabaseGuardFilterTest {
+
+    // Tests that a request is rejected with 503 while the only permit is held, and passes once it is released.
+    @Test
+    void testDoFilter_RejectsWhenBusy() throws Exception {
+        // Arrange
+        DatabaseGuardProperties properties = new DatabaseGuardProperties();
+        properties.setMaxConcurrentRequests(1);
+        properties.setMaxWait(Duration.ofMillis(20));
+        DatabaseGuardFilter filter = new DatabaseGuardFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), new MockHttpServletResponse(), (request, response) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse busy = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), busy, new MockFilterChain());
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), actuator, new MockFilterChain());
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), after, new MockFilterChain());
+
+        // Assert
+        assertEquals(503, busy.getStatus());
+        assertEquals("1", busy.getHeader("Retry-After"));
+        assertEquals(200, actuator.getStatus());
+        assertEquals(200, after.getStatus());
+    }
+
+    // Tests that a streamed response keeps its permit until the async request completes.
+    @Test
+    void testDoFilter_StreamedResponseHoldsPermitUntilComplete() throws Exception {
+        // Arrange
+        DatabaseGuardProperties properties = new DatabaseGuardProperties();
+        properties.setMaxConcurrentRequests(1);
+        properties.setMaxWait(Duration.ofMillis(20));
+        DatabaseGuardFilter filter = new DatabaseGuardFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        MockHttpServletRequest streamed = new MockHttpServletRequest("GET", "/api/v1/parts/export");
+        streamed.setAsyncSupported(true);
+        filter.doFilter(streamed, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        // Act
+        MockHttpServletResponse busy = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), busy, new MockFilterChain());
+        streamed.getAsyncContext().complete();
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/parts/page"), after, new MockFilterChain());
+
+        // Assert
+        assertEquals(503, busy.getStatus());
+        assertEquals(200, after.getStatus());
+    }
+}